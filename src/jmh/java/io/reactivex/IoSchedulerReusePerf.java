@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.internal.schedulers.*;
+
+/**
+ * Measures the latency of getting a worker of the IoScheduler to run a task under a bursty load
+ * (a burst of concurrent workers every two seconds, single workers in between) with FIFO and LIFO
+ * reuse, and prints the number of retained threads after each iteration.
+ * <p>
+ * The keep-alive time is set to 1 second so that the threads not needed outside the bursts can expire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Drx2.io-keep-alive-time=1")
+@State(Scope.Thread)
+public class IoSchedulerReusePerf {
+    static final long BURST_PERIOD = TimeUnit.SECONDS.toNanos(2);
+
+    @Param({ "false", "true" })
+    public boolean lifo;
+
+    @Param({ "16", "128" })
+    public int burst;
+
+    IoScheduler scheduler;
+
+    Worker[] workers;
+
+    long nextBurst;
+
+    @Setup
+    public void setup() {
+        scheduler = new IoScheduler(new RxThreadFactory("RxIoSchedulerReusePerf"), 0, lifo);
+        workers = new Worker[burst];
+        nextBurst = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void retained() {
+        System.out.println();
+        System.out.println("Retained threads: " + scheduler.size());
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void bursty() throws InterruptedException {
+        int n = 1;
+        long now = System.nanoTime();
+        if (now - nextBurst >= 0L) {
+            n = burst;
+            nextBurst = now + BURST_PERIOD;
+        }
+
+        final CountDownLatch cdl = new CountDownLatch(n);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        };
+
+        Worker[] ws = workers;
+        for (int i = 0; i < n; i++) {
+            Worker w = scheduler.createWorker();
+            ws[i] = w;
+            w.schedule(task);
+        }
+
+        cdl.await();
+
+        for (int i = 0; i < n; i++) {
+            ws[i].dispose();
+            ws[i] = null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares {@link Scheduler#limit(int)} with {@link Scheduler#when(Function)} and
+ * {@code Completable.merge(Flowable.merge(workers), maxConcurrency)} by running a batch of
+ * tasks over a number of workers of the limited computation scheduler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class LimitedSchedulerPerf {
+
+    @Param({ "1", "2", "4" })
+    public int maxConcurrency;
+
+    @Param({ "1", "16" })
+    public int workers;
+
+    @Param({ "1000" })
+    public int tasks;
+
+    Scheduler limit;
+
+    Scheduler when;
+
+    @Setup
+    public void setup() {
+        limit = Schedulers.computation().limit(maxConcurrency);
+
+        final int m = maxConcurrency;
+        when = Schedulers.computation().when(new Function<Flowable<Flowable<Completable>>, Completable>() {
+            @Override
+            public Completable apply(Flowable<Flowable<Completable>> workers) {
+                return Completable.merge(Flowable.merge(workers), m);
+            }
+        });
+    }
+
+    @TearDown
+    public void teardown() {
+        ((Disposable)when).dispose();
+    }
+
+    void run(Scheduler scheduler) throws InterruptedException {
+        int n = workers;
+        int k = tasks;
+        final CountDownLatch cdl = new CountDownLatch(n * k);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        };
+
+        Scheduler.Worker[] ws = new Scheduler.Worker[n];
+        for (int i = 0; i < n; i++) {
+            ws[i] = scheduler.createWorker();
+        }
+        for (int j = 0; j < k; j++) {
+            for (int i = 0; i < n; i++) {
+                ws[i].schedule(task);
+            }
+        }
+
+        cdl.await();
+
+        for (int i = 0; i < n; i++) {
+            ws[i].dispose();
+        }
+    }
+
+    @Benchmark
+    public void limit() throws InterruptedException {
+        run(limit);
+    }
+
+    @Benchmark
+    public void when() throws InterruptedException {
+        run(when);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.queue.*;
+
+/**
+ * Compares the linked and the chunked array multi-producer single-consumer queues; run with
+ * {@code -prof gc} to see the allocation per operation ({@code gc.alloc.rate.norm}).
+ * <p>
+ * The benchmark offers and then polls the given number of elements on one thread, the consumer
+ * lagging behind by a burst of elements as it happens with the drain loops of the schedulers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MpscQueuePerf {
+
+    @Param({ "linked", "chunked" })
+    public String type;
+
+    @Param({ "1", "16", "1000" })
+    public int count;
+
+    SimplePlainQueue<Integer> queue;
+
+    @Setup
+    public void setup() {
+        if ("linked".equals(type)) {
+            queue = new MpscLinkedQueue<Integer>();
+        } else {
+            queue = new MpscChunkedArrayQueue<Integer>(Flowable.bufferSize());
+        }
+    }
+
+    @Benchmark
+    public void burst(Blackhole bh) {
+        SimplePlainQueue<Integer> q = queue;
+        Integer v = 1;
+        for (int i = 0; i < count; i++) {
+            q.offer(v);
+        }
+        for (int i = 0; i < count; i++) {
+            bh.consume(q.poll());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.reactivex.internal.schedulers.*;
+
+/**
+ * Measures the cost of starting and shutting down the computation and io schedulers
+ * without using them and with a single task, as paid by short-lived JVMs, and prints
+ * the number of live threads after starting them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SchedulerStartupPerf {
+
+    static final RxThreadFactory FACTORY = new RxThreadFactory("RxStartupPerf");
+
+    @TearDown(Level.Iteration)
+    public void threads() {
+        ComputationScheduler computation = new ComputationScheduler(FACTORY);
+        IoScheduler io = new IoScheduler(FACTORY);
+        System.out.println();
+        System.out.println("Live threads after start: " + Thread.activeCount());
+        computation.shutdown();
+        io.shutdown();
+    }
+
+    @Benchmark
+    public void computationIdle() {
+        new ComputationScheduler(FACTORY).shutdown();
+    }
+
+    @Benchmark
+    public void computationOneTask() throws InterruptedException {
+        ComputationScheduler s = new ComputationScheduler(FACTORY);
+        runOne(s);
+        s.shutdown();
+    }
+
+    @Benchmark
+    public void ioIdle() {
+        new IoScheduler(FACTORY).shutdown();
+    }
+
+    @Benchmark
+    public void ioOneTask() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY);
+        runOne(s);
+        s.shutdown();
+    }
+
+    static void runOne(Scheduler s) throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        s.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        });
+        cdl.await();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.internal.schedulers.*;
+
+/**
+ * Compares scheduling and cancelling delayed tasks via the executor's heap
+ * and via the hashed timing wheel, with a given number of other tasks pending.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TimedSchedulePerf {
+    @Param({ "executor", "wheel" })
+    public String timer;
+
+    @Param({ "0", "1000", "1000000" })
+    public int pending;
+
+    HashedWheelTimer wheel;
+
+    NewThreadWorker worker;
+
+    Disposable[] pendingTasks;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(timer)) {
+            wheel = new HashedWheelTimer(new RxThreadFactory("RxTimingWheelPerf"), 1, TimeUnit.MILLISECONDS, 512);
+        }
+        worker = new NewThreadWorker(new RxThreadFactory("RxTimedSchedulePerf"), wheel);
+
+        pendingTasks = new Disposable[pending];
+        for (int i = 0; i < pending; i++) {
+            pendingTasks[i] = worker.schedule(Functions.EMPTY_RUNNABLE, 1 + (i % 3600), TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        worker.dispose();
+        if (wheel != null) {
+            wheel.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object scheduleCancel() {
+        Disposable d = worker.schedule(Functions.EMPTY_RUNNABLE, 30, TimeUnit.SECONDS);
+        d.dispose();
+        return d;
+    }
+
+    @Benchmark
+    public Object scheduleDirectCancel() {
+        Disposable d = worker.scheduleDirect(Functions.EMPTY_RUNNABLE, 30, TimeUnit.SECONDS);
+        d.dispose();
+        return d;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactivex.schedulers.Schedulers;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class TrampolinePerf {
+
+    @Param({ "1", "1000", "1000000" })
+    public int times;
+
+    Flowable<Integer> subscribeOnFlowable;
+
+    Flowable<Integer> observeOnFlowable;
+
+    @Setup
+    public void setup() {
+        subscribeOnFlowable = Flowable.range(1, times).subscribeOn(Schedulers.trampoline());
+
+        observeOnFlowable = Flowable.range(1, times).observeOn(Schedulers.trampoline());
+    }
+
+    @Benchmark
+    public void recursive(Blackhole bh) {
+        final Scheduler.Worker w = Schedulers.trampoline().createWorker();
+        final Blackhole b = bh;
+        final int n = times;
+
+        w.schedule(new Runnable() {
+            int count;
+
+            @Override
+            public void run() {
+                b.consume(count);
+                if (++count < n) {
+                    w.schedule(this);
+                }
+            }
+        });
+
+        w.dispose();
+    }
+
+    @Benchmark
+    public void subscribeOn(Blackhole bh) {
+        subscribeOnFlowable.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void observeOn(Blackhole bh) {
+        observeOnFlowable.subscribe(new PerfConsumer(bh));
+    }
+}
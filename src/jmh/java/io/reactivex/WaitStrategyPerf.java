@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.reactivex.internal.schedulers.*;
+
+/**
+ * Measures the round-trip latency of handing a task to a worker thread and back to the
+ * benchmark thread, which spins for the result, with the different event loop wait strategies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class WaitStrategyPerf {
+
+    @Param({ "BLOCKING", "BUSY_SPIN", "SPIN_YIELD", "SPIN_PARK" })
+    public WaitStrategy waitStrategy;
+
+    NewThreadWorker worker;
+
+    final AtomicInteger done = new AtomicInteger();
+
+    Runnable task;
+
+    @Setup
+    public void setup() {
+        worker = new NewThreadWorker(new RxThreadFactory("RxWaitStrategyPerf"), null, waitStrategy);
+        task = new Runnable() {
+            @Override
+            public void run() {
+                done.lazySet(1);
+            }
+        };
+    }
+
+    @TearDown
+    public void teardown() {
+        worker.dispose();
+    }
+
+    @Benchmark
+    public void roundTrip() {
+        done.lazySet(0);
+        worker.schedule(task);
+        while (done.get() == 0) {
+            // spin until the worker has run the task
+        }
+    }
+}
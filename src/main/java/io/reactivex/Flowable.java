@@ -27,6 +27,7 @@ import io.reactivex.internal.fuseable.*;
 import io.reactivex.internal.operators.flowable.*;
 import io.reactivex.internal.operators.mixed.*;
 import io.reactivex.internal.operators.observable.*;
+import io.reactivex.internal.operators.parallel.ParallelPartitionOn;
 import io.reactivex.internal.schedulers.ImmediateThinScheduler;
 import io.reactivex.internal.subscribers.*;
 import io.reactivex.internal.util.*;
@@ -12391,6 +12392,77 @@ public abstract class Flowable<T> implements Publisher<T> {
         return ParallelFlowable.from(this, parallelism, prefetch);
     }
 
+    /**
+     * Parallelizes the flow by creating a 'rail' per available CPU and routing each upstream item
+     * to the rail selected by the hash of its key, with each rail emitting on its own
+     * {@link Scheduler.Worker} of the given {@link Scheduler}.
+     * <p>
+     * The items with the same key are emitted in order on the same rail, the items of different keys
+     * may be processed in parallel. Unlike {@code groupBy(keySelector).flatMap(g -> g.observeOn(scheduler))},
+     * the number of queues and workers doesn't depend on the number of keys.
+     * <p>
+     * To merge the parallel 'rails' back into a single sequence, use {@link ParallelFlowable#sequential()}.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator requires the upstream to honor backpressure and each 'rail' honors backpressure
+     *  as well. The upstream is requested {@link #bufferSize()} items in total, therefore a 'rail' that
+     *  doesn't request holds up the other 'rails' once the outstanding items are queued for it.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>You specify which {@link Scheduler} this operator will use.</dd>
+     * </dl>
+     * @param scheduler the Scheduler whose Workers the 'rails' emit on
+     * @param keySelector the function returning the key of an item, the key should not be null
+     * @return the new ParallelFlowable instance
+     * @see #partitionOn(Scheduler, Function, int, int)
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    @CheckReturnValue
+    @NonNull
+    @BackpressureSupport(BackpressureKind.FULL)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public final ParallelFlowable<T> partitionOn(Scheduler scheduler, Function<? super T, ?> keySelector) {
+        return partitionOn(scheduler, keySelector, Runtime.getRuntime().availableProcessors(), bufferSize());
+    }
+
+    /**
+     * Parallelizes the flow by creating the specified number of 'rails' and routing each upstream item
+     * to the rail selected by the hash of its key, with each rail emitting on its own
+     * {@link Scheduler.Worker} of the given {@link Scheduler}.
+     * <p>
+     * The items with the same key are emitted in order on the same rail, the items of different keys
+     * may be processed in parallel. Unlike {@code groupBy(keySelector).flatMap(g -> g.observeOn(scheduler))},
+     * the number of queues and workers doesn't depend on the number of keys.
+     * <p>
+     * To merge the parallel 'rails' back into a single sequence, use {@link ParallelFlowable#sequential()}.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator requires the upstream to honor backpressure and each 'rail' honors backpressure
+     *  as well. The upstream is requested {@code prefetch} items in total, therefore a 'rail' that
+     *  doesn't request holds up the other 'rails' once the outstanding items are queued for it.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>You specify which {@link Scheduler} this operator will use.</dd>
+     * </dl>
+     * @param scheduler the Scheduler whose Workers the 'rails' emit on
+     * @param keySelector the function returning the key of an item, the key should not be null
+     * @param parallelism the number of 'rails' to use
+     * @param prefetch the number of items requested from upstream and not yet emitted by any of the 'rails'
+     * @return the new ParallelFlowable instance
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    @CheckReturnValue
+    @NonNull
+    @BackpressureSupport(BackpressureKind.FULL)
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    public final ParallelFlowable<T> partitionOn(Scheduler scheduler, Function<? super T, ?> keySelector, int parallelism, int prefetch) {
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        ObjectHelper.requireNonNull(keySelector, "keySelector is null");
+        ObjectHelper.verifyPositive(parallelism, "parallelism");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return RxJavaPlugins.onAssembly(new ParallelPartitionOn<T>(this, scheduler, keySelector, parallelism, prefetch));
+    }
+
     /**
      * Returns a {@link ConnectableFlowable}, which is a variety of Publisher that waits until its
      * {@link ConnectableFlowable#connect connect} method is called before it begins emitting items to those
@@ -18,12 +18,16 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.functions.Function;
 import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.schedulers.*;
 import io.reactivex.internal.util.ExceptionHelper;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.SchedulerClock;
 import io.reactivex.schedulers.SchedulerRunnableIntrospection;
 
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@code Scheduler} is an object that specifies an API for scheduling
@@ -62,7 +66,9 @@ import java.util.concurrent.TimeUnit;
  * can detect the earlier hook and not apply a new one over again.
  * <p>
  * The default implementation of {@link #now(TimeUnit)} and {@link Worker#now(TimeUnit)} methods to return current
- * {@link System#currentTimeMillis()} value in the desired time unit. Custom {@code Scheduler} implementations can override this
+ * {@link System#currentTimeMillis()} value in the desired time unit, or the time of the
+ * {@link io.reactivex.schedulers.SchedulerClock} set via {@link RxJavaPlugins#setSchedulerClock}, if any.
+ * Custom {@code Scheduler} implementations can override this
  * to provide specialized time accounting (such as virtual time to be advanced programmatically).
  * Note that operators requiring a {@code Scheduler} may rely on either of the {@code now()} calls provided by
  * {@code Scheduler} or {@code Worker} respectively, therefore, it is recommended they represent a logically
@@ -131,7 +137,17 @@ public abstract class Scheduler {
      * @since 2.0
      */
     public long now(@NonNull TimeUnit unit) {
-        return unit.convert(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        return unit.convert(currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the time of the clock set via {@link RxJavaPlugins#setSchedulerClock}
+     * or the {@link System#currentTimeMillis()} if there is none.
+     * @return the current time in milliseconds
+     */
+    static long currentTimeMillis() {
+        SchedulerClock clock = RxJavaPlugins.getSchedulerClock();
+        return clock != null ? clock.currentTimeMillis() : System.currentTimeMillis();
     }
 
     /**
@@ -321,6 +337,31 @@ public abstract class Scheduler {
         return (S) new SchedulerWhen(combine, this);
     }
 
+    /**
+     * Returns a Scheduler that runs at most the given number of tasks at once on this Scheduler,
+     * across all of its workers.
+     * <p>
+     * The tasks of the same {@link Worker} still run one at a time and in order; the workers with
+     * queued tasks take turns. The delayed tasks are timed by this Scheduler and wait for their turn
+     * when they become due.
+     * <p>
+     * This is a lightweight alternative to limiting the concurrency via {@link #when(Function)}
+     * and {@code Completable.merge(Flowable.merge(workers), maxConcurrency)}: a task isn't turned into
+     * a {@link Completable} and the running tasks take the next ready task without hopping
+     * to this Scheduler again.
+     * <pre>
+     * Scheduler limitScheduler = Schedulers.computation().limit(2);
+     * </pre>
+     * @param maxConcurrency the maximum number of tasks running at once, positive
+     * @return the new Scheduler limiting the concurrency
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    @NonNull
+    public Scheduler limit(int maxConcurrency) {
+        return new LimitedScheduler(this, maxConcurrency);
+    }
+
     /**
      * Represents an isolated, sequential worker of a parent Scheduler for executing {@code Runnable} tasks on
      * an underlying task-execution scheme (such as custom Threads, event loop, {@link java.util.concurrent.Executor Executor} or Actor system).
@@ -333,7 +374,9 @@ public abstract class Scheduler {
      * {@link #dispose()} can prevent their execution or potentially interrupt them if they are currently running.
      * <p>
      * The default implementation of the {@link #now(TimeUnit)} method returns current
-     * {@link System#currentTimeMillis()} value in the desired time unit. Custom {@code Worker} implementations can override this
+     * {@link System#currentTimeMillis()} value in the desired time unit, or the time of the
+     * {@link SchedulerClock} set via {@link RxJavaPlugins#setSchedulerClock}, if any.
+     * Custom {@code Worker} implementations can override this
      * to provide specialized time accounting (such as virtual time to be advanced programmatically).
      * Note that operators requiring a scheduler may rely on either of the {@code now()} calls provided by
      * {@code Scheduler} or {@code Worker} respectively, therefore, it is recommended they represent a logically
@@ -441,6 +484,110 @@ public abstract class Scheduler {
             return sd;
         }
 
+        /**
+         * Schedules the given Runnables for execution without any time delay, in their array order.
+         * <p>
+         * The default implementation schedules them one by one via {@link #schedule(Runnable)}.
+         * A more specific {@code Worker} implementation should override this method if it can hand
+         * the whole batch to its underlying task-execution scheme at once, such as by
+         * waking up its thread only once.
+         *
+         * @param tasks
+         *            the Runnables to schedule, the array should not contain nulls
+         * @return a Disposable to be able to unsubscribe all of the actions (cancel them if not executed)
+         * @since 2.2.8 - experimental
+         */
+        @Experimental
+        @NonNull
+        public Disposable scheduleAll(@NonNull Runnable[] tasks) {
+            int n = verifyTasks(tasks);
+            Disposable[] ds = new Disposable[n];
+            for (int i = 0; i < n; i++) {
+                ds[i] = schedule(tasks[i]);
+            }
+            return new ListCompositeDisposable(ds);
+        }
+
+        /**
+         * Schedules the given Runnables for execution without any time delay, in their iteration order.
+         * <p>
+         * The default implementation collects the Runnables into an array and calls {@link #scheduleAll(Runnable[])}.
+         *
+         * @param tasks
+         *            the Runnables to schedule, the sequence should not contain nulls
+         * @return a Disposable to be able to unsubscribe all of the actions (cancel them if not executed)
+         * @since 2.2.8 - experimental
+         */
+        @Experimental
+        @NonNull
+        public Disposable scheduleAll(@NonNull Iterable<? extends Runnable> tasks) {
+            ObjectHelper.requireNonNull(tasks, "tasks is null");
+            List<Runnable> list = new ArrayList<Runnable>();
+            for (Runnable run : tasks) {
+                list.add(run);
+            }
+            return scheduleAll(list.toArray(new Runnable[0]));
+        }
+
+        /**
+         * Creates a handle that schedules the given Runnable on this Worker, without any time delay,
+         * each time its {@link ReusableTask#schedule()} is called.
+         * <p>
+         * This is meant for drain loops that reschedule the same Runnable over and over, such as
+         * the ones of the {@code observeOn} operators. The default implementation calls
+         * {@link #schedule(Runnable)} on each {@code schedule()}; a more specific {@code Worker}
+         * implementation should override this method if it can re-arm the same task object
+         * instead of allocating a new task wrapper per schedule.
+         * <p>
+         * Such an implementation may apply the {@link RxJavaPlugins#onSchedule(Runnable)} hook only once,
+         * when the handle is created, as long as neither a schedule handler nor a
+         * {@link io.reactivex.schedulers.CpuAccounting CpuAccounting} is installed; otherwise it should
+         * return this default handle so that the hook sees each schedule.
+         *
+         * @param run
+         *            the Runnable to schedule repeatedly, not null
+         * @return the reusable handle, disposing it cancels its pending execution
+         * @since 2.2.8 - experimental
+         */
+        @Experimental
+        @NonNull
+        public ReusableTask createReusableTask(@NonNull Runnable run) {
+            ObjectHelper.requireNonNull(run, "run is null");
+            return new WorkerReusableTask(run, this);
+        }
+
+        /**
+         * Returns true if the current thread is the thread this Worker runs its tasks on, so that a
+         * caller that knows it has no task pending on this Worker may run the work inline instead of
+         * scheduling it.
+         * <p>
+         * The default implementation returns false. A more specific {@code Worker} implementation
+         * should override this method if its tasks always run on the same, identifiable thread;
+         * a disposed {@code Worker} should return false.
+         *
+         * @return true if the current thread runs the tasks of this Worker
+         * @since 2.2.8 - experimental
+         */
+        @Experimental
+        public boolean runsOnCurrentThread() {
+            return false;
+        }
+
+        /**
+         * Verifies the array of tasks of {@link #scheduleAll(Runnable[])} and its elements are not null.
+         * @param tasks the array of tasks
+         * @return the number of tasks
+         * @throws NullPointerException if the array or any of its elements is null
+         */
+        private static int verifyTasks(Runnable[] tasks) {
+            ObjectHelper.requireNonNull(tasks, "tasks is null");
+            int n = tasks.length;
+            for (int i = 0; i < n; i++) {
+                ObjectHelper.requireNonNull(tasks[i], "The tasks array contains a null");
+            }
+            return n;
+        }
+
         /**
          * Returns the 'current time' of the Worker in the specified time unit.
          * @param unit the time unit
@@ -448,7 +595,7 @@ public abstract class Scheduler {
          * @since 2.0
          */
         public long now(@NonNull TimeUnit unit) {
-            return unit.convert(System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            return unit.convert(currentTimeMillis(), TimeUnit.MILLISECONDS);
         }
 
         /**
@@ -555,6 +702,61 @@ public abstract class Scheduler {
         }
     }
 
+    /**
+     * A task bound to a {@link Worker} that can be scheduled repeatedly without allocating
+     * a new task object each time, see {@link Worker#createReusableTask(Runnable)}.
+     * <p>
+     * A {@code schedule()} call must not overlap with another one, and the task must not be scheduled
+     * again until its previous execution has started; the typical drain loop with a work-in-progress
+     * counter satisfies both. The task may be scheduled again while it is running.
+     * <p>
+     * Disposing the task cancels its pending execution and turns further {@code schedule()}
+     * calls into no-ops; it doesn't interrupt a running execution. Disposing the
+     * {@code Worker} disposes the tasks created by it.
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public interface ReusableTask extends Disposable {
+
+        /**
+         * Schedules the task for execution without any time delay.
+         */
+        void schedule();
+    }
+
+    static final class WorkerReusableTask extends AtomicReference<Disposable> implements ReusableTask {
+
+        private static final long serialVersionUID = 5061451622473634377L;
+
+        @NonNull
+        final Runnable run;
+
+        @NonNull
+        final Worker w;
+
+        WorkerReusableTask(@NonNull Runnable run, @NonNull Worker w) {
+            this.run = run;
+            this.w = w;
+        }
+
+        @Override
+        public void schedule() {
+            if (!isDisposed()) {
+                DisposableHelper.replace(this, w.schedule(run));
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableHelper.dispose(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(get());
+        }
+    }
+
     static final class DisposeTask implements Disposable, Runnable, SchedulerRunnableIntrospection {
 
         @NonNull
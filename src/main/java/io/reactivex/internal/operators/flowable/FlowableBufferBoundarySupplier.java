@@ -24,7 +24,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.disposables.DisposableHelper;
 import io.reactivex.internal.functions.ObjectHelper;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.subscribers.QueueDrainSubscriber;
 import io.reactivex.internal.subscriptions.*;
 import io.reactivex.internal.util.QueueDrainHelper;
@@ -61,7 +61,7 @@ extends AbstractFlowableWithUpstream<T, U> {
 
         BufferBoundarySupplierSubscriber(Subscriber<? super U> actual, Callable<U> bufferSupplier,
                                                 Callable<? extends Publisher<B>> boundarySupplier) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.boundarySupplier = boundarySupplier;
         }
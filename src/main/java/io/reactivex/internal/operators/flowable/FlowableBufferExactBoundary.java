@@ -22,7 +22,7 @@ import io.reactivex.*;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.functions.ObjectHelper;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.subscribers.QueueDrainSubscriber;
 import io.reactivex.internal.subscriptions.*;
 import io.reactivex.internal.util.QueueDrainHelper;
@@ -58,7 +58,7 @@ extends AbstractFlowableWithUpstream<T, U> {
 
         BufferExactBoundarySubscriber(Subscriber<? super U> actual, Callable<U> bufferSupplier,
                                              Publisher<B> boundary) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.boundary = boundary;
         }
@@ -25,7 +25,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.disposables.DisposableHelper;
 import io.reactivex.internal.functions.ObjectHelper;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.subscribers.QueueDrainSubscriber;
 import io.reactivex.internal.subscriptions.*;
 import io.reactivex.internal.util.QueueDrainHelper;
@@ -94,7 +94,7 @@ public final class FlowableBufferTimed<T, U extends Collection<? super T>> exten
         BufferExactUnboundedSubscriber(
                 Subscriber<? super U> actual, Callable<U> bufferSupplier,
                 long timespan, TimeUnit unit, Scheduler scheduler) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.timespan = timespan;
             this.unit = unit;
@@ -238,7 +238,7 @@ public final class FlowableBufferTimed<T, U extends Collection<? super T>> exten
         BufferSkipBoundedSubscriber(Subscriber<? super U> actual,
                 Callable<U> bufferSupplier, long timespan,
                 long timeskip, TimeUnit unit, Worker w) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.timespan = timespan;
             this.timeskip = timeskip;
@@ -404,7 +404,7 @@ public final class FlowableBufferTimed<T, U extends Collection<? super T>> exten
                 Callable<U> bufferSupplier,
                 long timespan, TimeUnit unit, int maxSize,
                 boolean restartOnMaxSize, Worker w) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.timespan = timespan;
             this.unit = unit;
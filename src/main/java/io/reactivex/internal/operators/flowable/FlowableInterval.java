@@ -23,9 +23,10 @@ import io.reactivex.Scheduler.Worker;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.internal.disposables.DisposableHelper;
-import io.reactivex.internal.schedulers.TrampolineScheduler;
+import io.reactivex.internal.schedulers.*;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
 
 public final class FlowableInterval extends Flowable<Long> {
     final Scheduler scheduler;
@@ -42,11 +43,19 @@ public final class FlowableInterval extends Flowable<Long> {
 
     @Override
     public void subscribeActual(Subscriber<? super Long> s) {
+        Scheduler sch = scheduler;
+
+        if (period > 0L && initialDelay == period && RxJavaPlugins.isSharedIntervalTicks()
+                && !(sch instanceof TrampolineScheduler)) {
+            SharedIntervalSubscriber ss = new SharedIntervalSubscriber(s);
+            s.onSubscribe(ss);
+            ss.setResource(IntervalTicker.add(sch, period, unit, ss));
+            return;
+        }
+
         IntervalSubscriber is = new IntervalSubscriber(s);
         s.onSubscribe(is);
 
-        Scheduler sch = scheduler;
-
         if (sch instanceof TrampolineScheduler) {
             Worker worker = sch.createWorker();
             is.setResource(worker);
@@ -103,4 +112,45 @@ public final class FlowableInterval extends Flowable<Long> {
             DisposableHelper.setOnce(resource, d);
         }
     }
+
+    static final class SharedIntervalSubscriber extends AtomicLong
+    implements Subscription, Runnable {
+
+        private static final long serialVersionUID = 6337357766457823839L;
+
+        final Subscriber<? super Long> downstream;
+
+        long count;
+
+        final AtomicReference<Disposable> resource = new AtomicReference<Disposable>();
+
+        SharedIntervalSubscriber(Subscriber<? super Long> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(this, n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            DisposableHelper.dispose(resource);
+        }
+
+        @Override
+        public void run() {
+            // the ticks without request are skipped
+            if (resource.get() != DisposableHelper.DISPOSED && get() != 0L) {
+                downstream.onNext(count++);
+                BackpressureHelper.produced(this, 1);
+            }
+        }
+
+        public void setResource(Disposable d) {
+            DisposableHelper.setOnce(resource, d);
+        }
+    }
 }
@@ -18,11 +18,12 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.reactivestreams.*;
 
 import io.reactivex.*;
-import io.reactivex.Scheduler.Worker;
+import io.reactivex.Scheduler.*;
 import io.reactivex.annotations.Nullable;
 import io.reactivex.exceptions.*;
 import io.reactivex.internal.fuseable.*;
 import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.schedulers.DrainBudget;
 import io.reactivex.internal.subscriptions.*;
 import io.reactivex.internal.util.BackpressureHelper;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -34,15 +35,27 @@ final Scheduler scheduler;
 
     final int prefetch;
 
+    final DrainBudget budget;
+
     public FlowableObserveOn(
             Flowable<T> source,
             Scheduler scheduler,
             boolean delayError,
             int prefetch) {
+        this(source, scheduler, delayError, prefetch, DrainBudget.DEFAULT);
+    }
+
+    public FlowableObserveOn(
+            Flowable<T> source,
+            Scheduler scheduler,
+            boolean delayError,
+            int prefetch,
+            DrainBudget budget) {
         super(source);
         this.scheduler = scheduler;
         this.delayError = delayError;
         this.prefetch = prefetch;
+        this.budget = budget;
     }
 
     @Override
@@ -51,9 +64,9 @@ final Scheduler scheduler;
 
         if (s instanceof ConditionalSubscriber) {
             source.subscribe(new ObserveOnConditionalSubscriber<T>(
-                    (ConditionalSubscriber<? super T>) s, worker, delayError, prefetch));
+                    (ConditionalSubscriber<? super T>) s, worker, delayError, prefetch, budget));
         } else {
-            source.subscribe(new ObserveOnSubscriber<T>(s, worker, delayError, prefetch));
+            source.subscribe(new ObserveOnSubscriber<T>(s, worker, delayError, prefetch, budget));
         }
     }
 
@@ -64,12 +77,21 @@ final Scheduler scheduler;
 
         final Worker worker;
 
+        /** Reschedules this drain on the worker without allocating a task per hop. */
+        final ReusableTask task;
+
         final boolean delayError;
 
         final int prefetch;
 
         final int limit;
 
+        /** Limits the items or time per run, then the run reschedules itself on the worker. */
+        final DrainBudget budget;
+
+        /** Set if the drain may run inline, see {@link RxJavaPlugins#setInlineObserveOn(boolean)}. */
+        final boolean inlineDrain;
+
         final AtomicLong requested;
 
         Subscription upstream;
@@ -91,10 +113,14 @@ final Scheduler scheduler;
         BaseObserveOnSubscriber(
                 Worker worker,
                 boolean delayError,
-                int prefetch) {
+                int prefetch,
+                DrainBudget budget) {
             this.worker = worker;
+            this.task = worker.createReusableTask(this);
             this.delayError = delayError;
             this.prefetch = prefetch;
+            this.budget = budget;
+            this.inlineDrain = RxJavaPlugins.isInlineObserveOn();
             this.requested = new AtomicLong();
             this.limit = prefetch - (prefetch >> 2);
         }
@@ -163,7 +189,12 @@ final Scheduler scheduler;
             if (getAndIncrement() != 0) {
                 return;
             }
-            worker.schedule(this);
+            if (inlineDrain && worker.runsOnCurrentThread()) {
+                // no drain is pending or running and the scheduled one would run on this thread anyway
+                run();
+            } else {
+                task.schedule();
+            }
         }
 
         @Override
@@ -253,8 +284,9 @@ final Scheduler scheduler;
                 Subscriber<? super T> actual,
                 Worker worker,
                 boolean delayError,
-                int prefetch) {
-            super(worker, delayError, prefetch);
+                int prefetch,
+                DrainBudget budget) {
+            super(worker, delayError, prefetch, budget);
             this.downstream = actual;
         }
 
@@ -306,6 +338,10 @@ final Scheduler scheduler;
 
             long e = produced;
 
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
+
             for (;;) {
 
                 long r = requested.get();
@@ -337,6 +373,12 @@ final Scheduler scheduler;
                     a.onNext(v);
 
                     e++;
+
+                    if (b.isSpent(++count, start)) {
+                        produced = e;
+                        task.schedule();
+                        return;
+                    }
                 }
 
                 if (cancelled) {
@@ -372,6 +414,10 @@ final Scheduler scheduler;
 
             long e = produced;
 
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
+
             for (;;) {
 
                 long r = requested.get();
@@ -414,6 +460,12 @@ final Scheduler scheduler;
                         upstream.request(e);
                         e = 0L;
                     }
+
+                    if (b.isSpent(++count, start)) {
+                        produced = e;
+                        task.schedule();
+                        return;
+                    }
                 }
 
                 if (e == r && checkTerminated(done, q.isEmpty(), a)) {
@@ -497,8 +549,9 @@ final Scheduler scheduler;
                 ConditionalSubscriber<? super T> actual,
                 Worker worker,
                 boolean delayError,
-                int prefetch) {
-            super(worker, delayError, prefetch);
+                int prefetch,
+                DrainBudget budget) {
+            super(worker, delayError, prefetch, budget);
             this.downstream = actual;
         }
 
@@ -550,6 +603,10 @@ final Scheduler scheduler;
 
             long e = produced;
 
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
+
             for (;;) {
 
                 long r = requested.get();
@@ -580,6 +637,12 @@ final Scheduler scheduler;
                     if (a.tryOnNext(v)) {
                         e++;
                     }
+
+                    if (b.isSpent(++count, start)) {
+                        produced = e;
+                        task.schedule();
+                        return;
+                    }
                 }
 
                 if (cancelled) {
@@ -616,6 +679,10 @@ final Scheduler scheduler;
             long emitted = produced;
             long polled = consumed;
 
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
+
             for (;;) {
 
                 long r = requested.get();
@@ -656,6 +723,13 @@ final Scheduler scheduler;
                         upstream.request(polled);
                         polled = 0L;
                     }
+
+                    if (b.isSpent(++count, start)) {
+                        produced = emitted;
+                        consumed = polled;
+                        task.schedule();
+                        return;
+                    }
                 }
 
                 if (emitted == r && checkTerminated(done, q.isEmpty(), a)) {
@@ -63,6 +63,12 @@ public final class FlowableSubscribeOn<T> extends AbstractFlowableWithUpstream<T
 
         final boolean nonScheduledRequests;
 
+        /** The amount requested off the worker thread and not yet handed to the upstream. */
+        final AtomicLong pendingRequests;
+
+        /** Hands the pending requests to the upstream on the worker, created on the first such request. */
+        Scheduler.ReusableTask requestTask;
+
         Publisher<T> source;
 
         SubscribeOnSubscriber(Subscriber<? super T> actual, Scheduler.Worker worker, Publisher<T> source, boolean requestOn) {
@@ -72,6 +78,7 @@ public final class FlowableSubscribeOn<T> extends AbstractFlowableWithUpstream<T
             this.upstream = new AtomicReference<Subscription>();
             this.requested = new AtomicLong();
             this.nonScheduledRequests = !requestOn;
+            this.pendingRequests = new AtomicLong();
         }
 
         @Override
@@ -131,8 +138,14 @@ public final class FlowableSubscribeOn<T> extends AbstractFlowableWithUpstream<T
         void requestUpstream(final long n, final Subscription s) {
             if (nonScheduledRequests || Thread.currentThread() == get()) {
                 s.request(n);
-            } else {
-                worker.schedule(new Request(s, n));
+            } else if (BackpressureHelper.add(pendingRequests, n) == 0L) {
+                // the requests are serialized, so is the creation of the task
+                Scheduler.ReusableTask t = requestTask;
+                if (t == null) {
+                    t = worker.createReusableTask(new Request());
+                    requestTask = t;
+                }
+                t.schedule();
             }
         }
 
@@ -142,18 +155,13 @@ public final class FlowableSubscribeOn<T> extends AbstractFlowableWithUpstream<T
             worker.dispose();
         }
 
-        static final class Request implements Runnable {
-            final Subscription upstream;
-            final long n;
-
-            Request(Subscription s, long n) {
-                this.upstream = s;
-                this.n = n;
-            }
-
+        final class Request implements Runnable {
             @Override
             public void run() {
-                upstream.request(n);
+                long n = pendingRequests.getAndSet(0L);
+                if (n != 0L) {
+                    upstream.get().request(n);
+                }
             }
         }
     }
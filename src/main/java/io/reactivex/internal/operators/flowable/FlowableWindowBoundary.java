@@ -19,7 +19,7 @@ import org.reactivestreams.*;
 
 import io.reactivex.*;
 import io.reactivex.exceptions.MissingBackpressureException;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.*;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -65,7 +65,7 @@ public final class FlowableWindowBoundary<T, B> extends AbstractFlowableWithUpst
 
         final AtomicInteger windows;
 
-        final MpscLinkedQueue<Object> queue;
+        final MpscChunkedArrayQueue<Object> queue;
 
         final AtomicThrowable errors;
 
@@ -87,7 +87,7 @@ public final class FlowableWindowBoundary<T, B> extends AbstractFlowableWithUpst
             this.boundarySubscriber = new WindowBoundaryInnerSubscriber<T, B>(this);
             this.upstream = new AtomicReference<Subscription>();
             this.windows = new AtomicInteger(1);
-            this.queue = new MpscLinkedQueue<Object>();
+            this.queue = new MpscChunkedArrayQueue<Object>();
             this.errors = new AtomicThrowable();
             this.stopWindows = new AtomicBoolean();
             this.requested = new AtomicLong();
@@ -173,7 +173,7 @@ public final class FlowableWindowBoundary<T, B> extends AbstractFlowableWithUpst
 
             int missed = 1;
             Subscriber<? super Flowable<T>> downstream = this.downstream;
-            MpscLinkedQueue<Object> queue = this.queue;
+            MpscChunkedArrayQueue<Object> queue = this.queue;
             AtomicThrowable errors = this.errors;
             long emitted = this.emitted;
 
@@ -24,7 +24,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.internal.disposables.*;
 import io.reactivex.internal.fuseable.SimplePlainQueue;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.subscribers.QueueDrainSubscriber;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.NotificationLite;
@@ -94,7 +94,7 @@ public final class FlowableWindowTimed<T> extends AbstractFlowableWithUpstream<T
 
         WindowExactUnboundedSubscriber(Subscriber<? super Flowable<T>> actual, long timespan, TimeUnit unit,
                 Scheduler scheduler, int bufferSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.unit = unit;
             this.scheduler = scheduler;
@@ -299,7 +299,7 @@ public final class FlowableWindowTimed<T> extends AbstractFlowableWithUpstream<T
                 Subscriber<? super Flowable<T>> actual,
                 long timespan, TimeUnit unit, Scheduler scheduler,
                 int bufferSize, long maxSize, boolean restartTimerOnMaxSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.unit = unit;
             this.scheduler = scheduler;
@@ -612,7 +612,7 @@ public final class FlowableWindowTimed<T> extends AbstractFlowableWithUpstream<T
         WindowSkipSubscriber(Subscriber<? super Flowable<T>> actual,
                 long timespan, long timeskip, TimeUnit unit,
                 Worker worker, int bufferSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.timeskip = timeskip;
             this.unit = unit;
@@ -23,7 +23,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.disposables.*;
 import io.reactivex.internal.observers.QueueDrainObserver;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.util.QueueDrainHelper;
 import io.reactivex.observers.*;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -58,7 +58,7 @@ extends AbstractObservableWithUpstream<T, U> {
 
         BufferBoundarySupplierObserver(Observer<? super U> actual, Callable<U> bufferSupplier,
                                                 Callable<? extends ObservableSource<B>> boundarySupplier) {
-            super(actual, new MpscLinkedQueue<U>());
+            super(actual, new MpscChunkedArrayQueue<U>());
             this.bufferSupplier = bufferSupplier;
             this.boundarySupplier = boundarySupplier;
         }
@@ -20,7 +20,8 @@ import io.reactivex.*;
 import io.reactivex.Scheduler.Worker;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.internal.disposables.*;
-import io.reactivex.internal.schedulers.TrampolineScheduler;
+import io.reactivex.internal.schedulers.*;
+import io.reactivex.plugins.RxJavaPlugins;
 
 public final class ObservableInterval extends Observable<Long> {
     final Scheduler scheduler;
@@ -42,7 +43,10 @@ public final class ObservableInterval extends Observable<Long> {
 
         Scheduler sch = scheduler;
 
-        if (sch instanceof TrampolineScheduler) {
+        if (period > 0L && initialDelay == period && RxJavaPlugins.isSharedIntervalTicks()
+                && !(sch instanceof TrampolineScheduler)) {
+            is.setResource(IntervalTicker.add(sch, period, unit, is));
+        } else if (sch instanceof TrampolineScheduler) {
             Worker worker = sch.createWorker();
             is.setResource(worker);
             worker.schedulePeriodically(is, initialDelay, period, unit);
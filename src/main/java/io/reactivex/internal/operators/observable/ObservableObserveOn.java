@@ -21,18 +21,25 @@ import io.reactivex.internal.disposables.DisposableHelper;
 import io.reactivex.internal.fuseable.*;
 import io.reactivex.internal.observers.BasicIntQueueDisposable;
 import io.reactivex.internal.queue.SpscLinkedArrayQueue;
-import io.reactivex.internal.schedulers.TrampolineScheduler;
+import io.reactivex.internal.schedulers.*;
 import io.reactivex.plugins.RxJavaPlugins;
 
 public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream<T, T> {
     final Scheduler scheduler;
     final boolean delayError;
     final int bufferSize;
+    final DrainBudget budget;
     public ObservableObserveOn(ObservableSource<T> source, Scheduler scheduler, boolean delayError, int bufferSize) {
+        this(source, scheduler, delayError, bufferSize, DrainBudget.DEFAULT);
+    }
+
+    public ObservableObserveOn(ObservableSource<T> source, Scheduler scheduler, boolean delayError, int bufferSize,
+            DrainBudget budget) {
         super(source);
         this.scheduler = scheduler;
         this.delayError = delayError;
         this.bufferSize = bufferSize;
+        this.budget = budget;
     }
 
     @Override
@@ -42,7 +49,7 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
         } else {
             Scheduler.Worker w = scheduler.createWorker();
 
-            source.subscribe(new ObserveOnObserver<T>(observer, w, delayError, bufferSize));
+            source.subscribe(new ObserveOnObserver<T>(observer, w, delayError, bufferSize, budget));
         }
     }
 
@@ -52,8 +59,15 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
         private static final long serialVersionUID = 6576896619930983584L;
         final Observer<? super T> downstream;
         final Scheduler.Worker worker;
+        /** Reschedules this drain on the worker without allocating a task per hop. */
+        final Scheduler.ReusableTask task;
         final boolean delayError;
         final int bufferSize;
+        /** Limits the items or time per run, then the run reschedules itself on the worker. */
+        final DrainBudget budget;
+
+        /** Set if the drain may run inline, see {@link RxJavaPlugins#setInlineObserveOn(boolean)}. */
+        final boolean inlineDrain;
 
         SimpleQueue<T> queue;
 
@@ -68,11 +82,15 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
 
         boolean outputFused;
 
-        ObserveOnObserver(Observer<? super T> actual, Scheduler.Worker worker, boolean delayError, int bufferSize) {
+        ObserveOnObserver(Observer<? super T> actual, Scheduler.Worker worker, boolean delayError, int bufferSize,
+                DrainBudget budget) {
             this.downstream = actual;
             this.worker = worker;
+            this.task = worker.createReusableTask(this);
             this.delayError = delayError;
             this.bufferSize = bufferSize;
+            this.budget = budget;
+            this.inlineDrain = RxJavaPlugins.isInlineObserveOn();
         }
 
         @Override
@@ -158,7 +176,12 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
 
         void schedule() {
             if (getAndIncrement() == 0) {
-                worker.schedule(this);
+                if (inlineDrain && worker.runsOnCurrentThread()) {
+                    // no drain is pending or running and the scheduled one would run on this thread anyway
+                    run();
+                } else {
+                    task.schedule();
+                }
             }
         }
 
@@ -168,6 +191,10 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
             final SimpleQueue<T> q = queue;
             final Observer<? super T> a = downstream;
 
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
+
             for (;;) {
                 if (checkTerminated(done, q.isEmpty(), a)) {
                     return;
@@ -199,6 +226,11 @@ public final class ObservableObserveOn<T> extends AbstractObservableWithUpstream
                     }
 
                     a.onNext(v);
+
+                    if (b.isSpent(++count, start)) {
+                        task.schedule();
+                        return;
+                    }
                 }
 
                 missed = addAndGet(-missed);
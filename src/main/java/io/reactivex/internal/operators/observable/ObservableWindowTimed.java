@@ -24,7 +24,7 @@ import io.reactivex.Scheduler.Worker;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.internal.disposables.DisposableHelper;
 import io.reactivex.internal.observers.QueueDrainObserver;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.util.NotificationLite;
 import io.reactivex.observers.SerializedObserver;
 import io.reactivex.subjects.UnicastSubject;
@@ -93,7 +93,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
 
         WindowExactUnboundedObserver(Observer<? super Observable<T>> actual, long timespan, TimeUnit unit,
                 Scheduler scheduler, int bufferSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.unit = unit;
             this.scheduler = scheduler;
@@ -189,7 +189,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
 
         void drainLoop() {
 
-            final MpscLinkedQueue<Object> q = (MpscLinkedQueue<Object>)queue;
+            final MpscChunkedArrayQueue<Object> q = (MpscChunkedArrayQueue<Object>)queue;
             final Observer<? super Observable<T>> a = downstream;
             UnicastSubject<T> w = window;
 
@@ -272,7 +272,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
                 Observer<? super Observable<T>> actual,
                 long timespan, TimeUnit unit, Scheduler scheduler,
                 int bufferSize, long maxSize, boolean restartTimerOnMaxSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.unit = unit;
             this.scheduler = scheduler;
@@ -403,7 +403,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
         }
 
         void drainLoop() {
-            final MpscLinkedQueue<Object> q = (MpscLinkedQueue<Object>)queue;
+            final MpscChunkedArrayQueue<Object> q = (MpscChunkedArrayQueue<Object>)queue;
             final Observer<? super Observable<T>> a = downstream;
             UnicastSubject<T> w = window;
 
@@ -534,7 +534,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
         WindowSkipObserver(Observer<? super Observable<T>> actual,
                 long timespan, long timeskip, TimeUnit unit,
                 Worker worker, int bufferSize) {
-            super(actual, new MpscLinkedQueue<Object>());
+            super(actual, new MpscChunkedArrayQueue<Object>());
             this.timespan = timespan;
             this.timeskip = timeskip;
             this.unit = unit;
@@ -629,7 +629,7 @@ public final class ObservableWindowTimed<T> extends AbstractObservableWithUpstre
 
         @SuppressWarnings("unchecked")
         void drainLoop() {
-            final MpscLinkedQueue<Object> q = (MpscLinkedQueue<Object>)queue;
+            final MpscChunkedArrayQueue<Object> q = (MpscChunkedArrayQueue<Object>)queue;
             final Observer<? super Observable<T>> a = downstream;
             final List<UnicastSubject<T>> ws = windows;
 
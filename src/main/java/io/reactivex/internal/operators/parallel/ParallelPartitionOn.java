@@ -0,0 +1,452 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.operators.parallel;
+
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.exceptions.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.schedulers.SchedulerMultiWorkerSupport;
+import io.reactivex.internal.schedulers.SchedulerMultiWorkerSupport.WorkerCallback;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Routes the values from upstream to the 'rail' selected by the hash of their key and
+ * emits each rail on its own Worker of a Scheduler.
+ * <p>
+ * Values with the same key are emitted in order on the same rail. The upstream is requested
+ * {@code prefetch} items in total, replenished as the rails consume them, so each rail queue
+ * has room for all outstanding items; a rail that doesn't request holds up the others once
+ * the outstanding items are queued for it.
+ * <p>
+ * A cancelled rail drops the items routed to it; the upstream is cancelled once all rails have cancelled.
+ *
+ * @param <T> the value type
+ */
+public final class ParallelPartitionOn<T> extends ParallelFlowable<T> {
+    final Publisher<T> source;
+
+    final Scheduler scheduler;
+
+    final Function<? super T, ?> keySelector;
+
+    final int parallelism;
+
+    final int prefetch;
+
+    public ParallelPartitionOn(Publisher<T> source, Scheduler scheduler, Function<? super T, ?> keySelector,
+            int parallelism, int prefetch) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.keySelector = keySelector;
+        this.parallelism = parallelism;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+
+        int n = subscribers.length;
+
+        @SuppressWarnings("unchecked")
+        final PartitionRail<T>[] rails = new PartitionRail[n];
+        final PartitionSubscriber<T> parent = new PartitionSubscriber<T>(rails, keySelector, prefetch);
+
+        if (scheduler instanceof SchedulerMultiWorkerSupport) {
+            ((SchedulerMultiWorkerSupport)scheduler).createWorkers(n, new MultiWorkerCallback<T>(parent, subscribers));
+        } else {
+            for (int i = 0; i < n; i++) {
+                rails[i] = new PartitionRail<T>(parent, subscribers[i], scheduler.createWorker(), prefetch);
+            }
+        }
+
+        source.subscribe(parent);
+    }
+
+    static final class MultiWorkerCallback<T> implements WorkerCallback {
+
+        final PartitionSubscriber<T> parent;
+
+        final Subscriber<? super T>[] subscribers;
+
+        MultiWorkerCallback(PartitionSubscriber<T> parent, Subscriber<? super T>[] subscribers) {
+            this.parent = parent;
+            this.subscribers = subscribers;
+        }
+
+        @Override
+        public void onWorker(int i, Worker w) {
+            parent.rails[i] = new PartitionRail<T>(parent, subscribers[i], w, parent.prefetch);
+        }
+    }
+
+    static final class PartitionSubscriber<T> extends AtomicInteger implements FlowableSubscriber<T> {
+
+        private static final long serialVersionUID = -3372047536215785409L;
+
+        final PartitionRail<T>[] rails;
+
+        final Function<? super T, ?> keySelector;
+
+        final int prefetch;
+
+        final int limit;
+
+        /** The number of items consumed by the rails but not yet requested again from upstream. */
+        final AtomicLong consumed;
+
+        /** The amount to request from upstream by the request serialization loop, guarded by the wip counter. */
+        final AtomicLong missedRequested;
+
+        /** The number of rails not cancelled yet. */
+        final AtomicInteger activeRails;
+
+        Subscription upstream;
+
+        volatile boolean done;
+
+        Throwable error;
+
+        volatile boolean cancelled;
+
+        PartitionSubscriber(PartitionRail<T>[] rails, Function<? super T, ?> keySelector, int prefetch) {
+            this.rails = rails;
+            this.keySelector = keySelector;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.consumed = new AtomicLong();
+            this.missedRequested = new AtomicLong();
+            this.activeRails = new AtomicInteger(rails.length);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(this.upstream, s)) {
+                this.upstream = s;
+
+                for (PartitionRail<T> rail : rails) {
+                    if (cancelled) {
+                        return;
+                    }
+                    rail.downstream.onSubscribe(rail);
+                }
+
+                requestUpstream(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            int index;
+            try {
+                Object key = ObjectHelper.requireNonNull(keySelector.apply(t), "The keySelector returned a null key");
+                index = railOf(key.hashCode(), rails.length);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                upstream.cancel();
+                onError(ex);
+                return;
+            }
+            PartitionRail<T> rail = rails[index];
+            if (rail.cancelled) {
+                replenish(1);
+                return;
+            }
+            if (!rail.queue.offer(t)) {
+                upstream.cancel();
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
+            rail.schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            scheduleAll();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            scheduleAll();
+        }
+
+        void scheduleAll() {
+            for (PartitionRail<T> rail : rails) {
+                rail.schedule();
+            }
+        }
+
+        void railCancelled() {
+            if (activeRails.decrementAndGet() == 0) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                for (PartitionRail<T> rail : rails) {
+                    rail.cancelRail();
+                }
+            }
+        }
+
+        /**
+         * Called by the rails with the number of items they have emitted; requests more
+         * from upstream once the given limit of items has been consumed across all rails.
+         * @param n the number of items emitted
+         */
+        void replenish(long n) {
+            for (;;) {
+                long c = consumed.get();
+                long u = c + n;
+                if (u >= limit) {
+                    if (consumed.compareAndSet(c, 0L)) {
+                        requestUpstream(u);
+                        return;
+                    }
+                } else if (consumed.compareAndSet(c, u)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Serializes the requests of the rails, which may run on different threads.
+         * @param n the amount to request
+         */
+        void requestUpstream(long n) {
+            BackpressureHelper.add(missedRequested, n);
+            if (getAndIncrement() == 0) {
+                int missed = 1;
+                for (;;) {
+                    long r = missedRequested.getAndSet(0L);
+                    if (r != 0L && !cancelled) {
+                        upstream.request(r);
+                    }
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        static int railOf(int hash, int n) {
+            int h = hash ^ (hash >>> 16);
+            return (h & Integer.MAX_VALUE) % n;
+        }
+    }
+
+    static final class PartitionRail<T> extends AtomicInteger implements Subscription, Runnable {
+
+        private static final long serialVersionUID = 6458913870257146530L;
+
+        final PartitionSubscriber<T> parent;
+
+        final Subscriber<? super T> downstream;
+
+        final Worker worker;
+
+        /** Filled only by the upstream thread, so its size never exceeds the total prefetch amount. */
+        final SpscArrayQueue<T> queue;
+
+        final AtomicLong requested;
+
+        volatile boolean cancelled;
+
+        PartitionRail(PartitionSubscriber<T> parent, Subscriber<? super T> downstream, Worker worker, int prefetch) {
+            this.parent = parent;
+            this.downstream = downstream;
+            this.worker = worker;
+            this.queue = new SpscArrayQueue<T>(prefetch);
+            this.requested = new AtomicLong();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                // the drain drops the queued items so that the other rails get their share of the prefetch
+                schedule();
+                parent.railCancelled();
+            }
+        }
+
+        void cancelRail() {
+            worker.dispose();
+            if (getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            PartitionSubscriber<T> p = parent;
+            SpscArrayQueue<T> q = queue;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+
+                if (cancelled) {
+                    if (p.cancelled) {
+                        q.clear();
+                        return;
+                    }
+                    boolean d = p.done;
+                    int c = 0;
+                    while (q.poll() != null) {
+                        c++;
+                    }
+                    if (c != 0) {
+                        p.replenish(c);
+                    }
+                    if (d) {
+                        worker.dispose();
+                        return;
+                    }
+                } else {
+                    long r = requested.get();
+                    long e = 0L;
+
+                    while (e != r) {
+                        if (p.cancelled) {
+                            q.clear();
+                            return;
+                        }
+                        if (cancelled) {
+                            break;
+                        }
+
+                        boolean d = p.done;
+
+                        if (d) {
+                            Throwable ex = p.error;
+                            if (ex != null) {
+                                q.clear();
+
+                                a.onError(ex);
+
+                                worker.dispose();
+                                return;
+                            }
+                        }
+
+                        T v = q.poll();
+
+                        boolean empty = v == null;
+
+                        if (d && empty) {
+                            a.onComplete();
+
+                            worker.dispose();
+                            return;
+                        }
+
+                        if (empty) {
+                            break;
+                        }
+
+                        a.onNext(v);
+
+                        e++;
+                    }
+
+                    if (e == r) {
+                        if (p.cancelled) {
+                            q.clear();
+                            return;
+                        }
+
+                        if (p.done && !cancelled) {
+                            Throwable ex = p.error;
+                            if (ex != null) {
+                                q.clear();
+
+                                a.onError(ex);
+
+                                worker.dispose();
+                                return;
+                            }
+                            if (q.isEmpty()) {
+                                a.onComplete();
+
+                                worker.dispose();
+                                return;
+                            }
+                        }
+                    }
+
+                    if (e != 0L) {
+                        if (r != Long.MAX_VALUE) {
+                            requested.addAndGet(-e);
+                        }
+                        p.replenish(e);
+                    }
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
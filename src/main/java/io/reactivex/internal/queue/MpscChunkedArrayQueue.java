@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+/*
+ * The code was inspired by the similarly named JCTools class:
+ * https://github.com/JCTools/JCTools/blob/master/jctools-core/src/main/java/org/jctools/queues/atomic
+ */
+
+package io.reactivex.internal.queue;
+
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.annotations.Nullable;
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.util.Pow2;
+
+/**
+ * A multi-producer single-consumer array-backed queue which links a new array of the same
+ * size (chunk) in case the consumer is slower than the producers, optionally up to a maximum capacity.
+ * <p>
+ * Unlike the {@link MpscLinkedQueue}, offering doesn't allocate as long as the consumer keeps up
+ * with the producers within a chunk.
+ * <p>
+ * The indexes advance by two per element; an odd producer index indicates one of the producers
+ * is linking a new chunk and the others have to wait for it.
+ * @param <T> the contained value type
+ */
+public final class MpscChunkedArrayQueue<T> implements SimplePlainQueue<T> {
+
+    /** The chunk size of the no-argument constructor. */
+    static final int DEFAULT_CHUNK_SIZE = 16;
+
+    /** Marks the element slot in the old chunk from where the consumer continues in the next chunk. */
+    static final Object JUMP = new Object();
+
+    final AtomicLong producerIndex = new AtomicLong();
+
+    /** The producer index up to which the producers may claim slots without checking the consumer index. */
+    final AtomicLong producerLimit = new AtomicLong();
+
+    long producerMask;
+
+    AtomicReferenceArray<Object> producerBuffer;
+
+    final AtomicLong consumerIndex = new AtomicLong();
+
+    long consumerMask;
+
+    AtomicReferenceArray<Object> consumerBuffer;
+
+    /** The maximum capacity in index units (two per element) or Long.MAX_VALUE if unbounded. */
+    final long maxQueueCapacity;
+
+    /**
+     * Constructs an unbounded queue with the default chunk size.
+     */
+    public MpscChunkedArrayQueue() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an unbounded queue with the given chunk size.
+     * @param chunkSize the number of slots per chunk, rounded up to the next power of two, at least 2
+     */
+    public MpscChunkedArrayQueue(int chunkSize) {
+        this(chunkSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a queue with the given chunk size holding at most the given number of elements.
+     * @param chunkSize the number of slots per chunk, rounded up to the next power of two, at least 2
+     * @param maxCapacity the maximum number of elements, rounded up to the next power of two,
+     * greater than the chunk size
+     */
+    public MpscChunkedArrayQueue(int chunkSize, int maxCapacity) {
+        this(chunkSize, ((long)checkMaxCapacity(chunkSize, maxCapacity)) << 1);
+    }
+
+    MpscChunkedArrayQueue(int chunkSize, long maxQueueCapacity) {
+        int p2capacity = Pow2.roundToPowerOfTwo(Math.max(2, chunkSize));
+        long mask = (p2capacity - 1) << 1;
+        AtomicReferenceArray<Object> buffer = new AtomicReferenceArray<Object>(p2capacity + 1);
+        producerBuffer = buffer;
+        producerMask = mask;
+        consumerBuffer = buffer;
+        consumerMask = mask;
+        this.maxQueueCapacity = maxQueueCapacity;
+        soProducerLimit(mask); // we know it's all empty to start with
+    }
+
+    static int checkMaxCapacity(int chunkSize, int maxCapacity) {
+        int p2max = Pow2.roundToPowerOfTwo(maxCapacity);
+        if (Pow2.roundToPowerOfTwo(Math.max(2, chunkSize)) >= p2max) {
+            throw new IllegalArgumentException("maxCapacity > chunkSize required but it was " + maxCapacity + " <= " + chunkSize);
+        }
+        return p2max;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * IMPLEMENTATION NOTES:<br>
+     * Offer is allowed from multiple threads.<br>
+     * Offer claims a slot by incrementing the producer index and then stores the element into it;
+     * the consumer waits for the store of a claimed slot.
+     * @return false if the queue is bounded and full
+     */
+    @Override
+    public boolean offer(final T e) {
+        if (null == e) {
+            throw new NullPointerException("Null is not a valid element");
+        }
+        long mask;
+        AtomicReferenceArray<Object> buffer;
+        long pIndex;
+
+        for (;;) {
+            long limit = lvProducerLimit();
+            pIndex = lvProducerIndex();
+            // lower bit is indicative of resize, if we see it we spin until it's cleared
+            if ((pIndex & 1) == 1) {
+                continue;
+            }
+            // pIndex is even (lower bit is 0) -> actual index is (pIndex >> 1)
+
+            // mask/buffer may get changed by resizing -> only use for array access after successful CAS
+            mask = producerMask;
+            buffer = producerBuffer;
+
+            // a successful CAS ties the ordering, lv(pIndex) - [mask/buffer] -> cas(pIndex)
+            if (limit <= pIndex) {
+                long cIndex = lvConsumerIndex();
+                if (cIndex + mask > pIndex) {
+                    // the consumer has made room in the current chunk
+                    if (!casProducerLimit(limit, cIndex + mask)) {
+                        continue;
+                    }
+                } else if (maxQueueCapacity - (pIndex - cIndex) <= 0) {
+                    return false;
+                } else if (casProducerIndex(pIndex, pIndex + 1)) {
+                    // grabbed the index for the resize by setting the lower bit
+                    resize(mask, buffer, pIndex, e);
+                    return true;
+                } else {
+                    continue;
+                }
+            }
+
+            if (casProducerIndex(pIndex, pIndex + 2)) {
+                break;
+            }
+        }
+
+        soElement(buffer, calcElementOffset(pIndex, mask), e);
+        return true;
+    }
+
+    void resize(long oldMask, AtomicReferenceArray<Object> oldBuffer, long pIndex, T e) {
+        int length = oldBuffer.length();
+        AtomicReferenceArray<Object> newBuffer = new AtomicReferenceArray<Object>(length);
+        producerBuffer = newBuffer;
+        long newMask = (length - 2) << 1;
+        producerMask = newMask;
+
+        soElement(newBuffer, calcElementOffset(pIndex, newMask), e);
+        soElement(oldBuffer, nextArrayOffset(oldMask), newBuffer);
+
+        long cIndex = lvConsumerIndex();
+        long available = maxQueueCapacity - (pIndex - cIndex);
+        // invalidate racing CASs, never set the limit beyond the bounds of a chunk
+        soProducerLimit(pIndex + Math.min(newMask, available));
+
+        // make the resize visible to the other producers
+        soProducerIndex(pIndex + 2);
+
+        // make the resize visible to the consumer, after the index
+        soElement(oldBuffer, calcElementOffset(pIndex, oldMask), JUMP);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation is correct for single consumer thread use only.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    @Override
+    public T poll() {
+        final AtomicReferenceArray<Object> buffer = consumerBuffer;
+        final long index = lpConsumerIndex();
+        final long mask = consumerMask;
+        final int offset = calcElementOffset(index, mask);
+
+        Object e = lvElement(buffer, offset);
+        if (e == null) {
+            if (index != lvProducerIndex()) {
+                // a producer claimed the slot but hasn't stored the element yet
+                do {
+                    e = lvElement(buffer, offset);
+                } while (e == null);
+            } else {
+                return null;
+            }
+        }
+
+        if (e == JUMP) {
+            return newBufferPoll(nextBuffer(buffer, mask), index);
+        }
+
+        soElement(buffer, offset, null);
+        soConsumerIndex(index + 2);
+        return (T)e;
+    }
+
+    @SuppressWarnings("unchecked")
+    AtomicReferenceArray<Object> nextBuffer(AtomicReferenceArray<Object> buffer, long mask) {
+        int offset = nextArrayOffset(mask);
+        AtomicReferenceArray<Object> nextBuffer = (AtomicReferenceArray<Object>)lvElement(buffer, offset);
+        consumerBuffer = nextBuffer;
+        consumerMask = (nextBuffer.length() - 2) << 1;
+        soElement(buffer, offset, null); // Avoid GC nepotism
+        return nextBuffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    T newBufferPoll(AtomicReferenceArray<Object> nextBuffer, long index) {
+        int offset = calcElementOffset(index, consumerMask);
+        Object n = lvElement(nextBuffer, offset);
+        if (n == null) {
+            throw new IllegalStateException("new buffer must have at least one element");
+        }
+        soElement(nextBuffer, offset, null);
+        soConsumerIndex(index + 2);
+        return (T)n;
+    }
+
+    @Override
+    public boolean offer(T v1, T v2) {
+        return offer(v1) && offer(v2);
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null || !isEmpty()) { } // NOPMD
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lvConsumerIndex() == lvProducerIndex();
+    }
+
+    /**
+     * Returns the number of elements in the queue, an estimate if called concurrently with offer or poll.
+     * @return the number of elements in the queue
+     */
+    public int size() {
+        long after = lvConsumerIndex();
+        for (;;) {
+            final long before = after;
+            final long currentProducerIndex = lvProducerIndex();
+            after = lvConsumerIndex();
+            if (before == after) {
+                // the producer index is odd while a chunk is being linked
+                return (int)((currentProducerIndex - after) >> 1);
+            }
+        }
+    }
+
+    private long lvProducerIndex() {
+        return producerIndex.get();
+    }
+
+    private long lvConsumerIndex() {
+        return consumerIndex.get();
+    }
+
+    private long lpConsumerIndex() {
+        return consumerIndex.get();
+    }
+
+    private long lvProducerLimit() {
+        return producerLimit.get();
+    }
+
+    private void soProducerIndex(long v) {
+        producerIndex.lazySet(v);
+    }
+
+    private void soConsumerIndex(long v) {
+        consumerIndex.lazySet(v);
+    }
+
+    private void soProducerLimit(long v) {
+        producerLimit.lazySet(v);
+    }
+
+    private boolean casProducerIndex(long expect, long update) {
+        return producerIndex.compareAndSet(expect, update);
+    }
+
+    private boolean casProducerLimit(long expect, long update) {
+        return producerLimit.compareAndSet(expect, update);
+    }
+
+    private static int calcElementOffset(long index, long mask) {
+        return (int)((index & mask) >> 1);
+    }
+
+    private static int nextArrayOffset(long mask) {
+        return calcElementOffset(mask + 2, Long.MAX_VALUE);
+    }
+
+    private static void soElement(AtomicReferenceArray<Object> buffer, int offset, Object e) {
+        buffer.lazySet(offset, e);
+    }
+
+    private static Object lvElement(AtomicReferenceArray<Object> buffer, int offset) {
+        return buffer.get(offset);
+    }
+}
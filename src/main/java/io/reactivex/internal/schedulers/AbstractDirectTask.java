@@ -53,6 +53,7 @@ implements Disposable, SchedulerRunnableIntrospection {
                 if (f != null) {
                     f.cancel(runner != Thread.currentThread());
                 }
+                InstrumentedTask.disposed(runnable);
             }
         }
     }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import java.io.*;
+
+/**
+ * Derives the number of usable CPUs from the CPU quota of the Linux control group
+ * of the process, for runtimes that report the CPU count of the host instead.
+ * <p>
+ * The cgroup v2 {@code cpu.max} file is consulted first, then the cgroup v1
+ * {@code cpu.cfs_quota_us} and {@code cpu.cfs_period_us} files. A fractional quota is rounded up.
+ */
+public final class CgroupCpuQuota {
+
+    /** The root of the cgroup file system. */
+    static final File ROOT = new File("/sys/fs/cgroup");
+
+    /** Utility class. */
+    private CgroupCpuQuota() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns the number of CPUs available according to the cgroup CPU quota, capped by
+     * {@link Runtime#availableProcessors()}.
+     * @return the number of CPUs, at least 1
+     */
+    public static int availableProcessors() {
+        return availableProcessors(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the number of CPUs available according to the cgroup CPU quota, capped by the given count.
+     * @param cpus the CPU count to return if there is no quota or it can't be read
+     * @return the number of CPUs, at least 1
+     */
+    public static int availableProcessors(int cpus) {
+        return availableProcessors(ROOT, cpus);
+    }
+
+    static int availableProcessors(File root, int cpus) {
+        int quota = quotaCpus(root);
+        if (quota > 0 && quota < cpus) {
+            return quota;
+        }
+        return Math.max(1, cpus);
+    }
+
+    /**
+     * Reads the CPU quota under the given cgroup root.
+     * @param root the cgroup root directory
+     * @return the number of CPUs of the quota or 0 if unlimited or unknown
+     */
+    static int quotaCpus(File root) {
+        String max = readLine(new File(root, "cpu.max"));
+        if (max != null) {
+            String[] parts = max.trim().split("\\s+");
+            if (parts.length == 2 && !"max".equals(parts[0])) {
+                return toCpus(parseLong(parts[0]), parseLong(parts[1]));
+            }
+            return 0;
+        }
+        String[] dirs = { "cpu", "cpu,cpuacct", "cpuacct,cpu" };
+        for (String d : dirs) {
+            File dir = new File(root, d);
+            String quota = readLine(new File(dir, "cpu.cfs_quota_us"));
+            String period = readLine(new File(dir, "cpu.cfs_period_us"));
+            if (quota != null && period != null) {
+                return toCpus(parseLong(quota.trim()), parseLong(period.trim()));
+            }
+        }
+        return 0;
+    }
+
+    static int toCpus(long quota, long period) {
+        if (quota <= 0L || period <= 0L) {
+            return 0;
+        }
+        long cpus = (quota + period - 1) / period;
+        return (int)Math.min(cpus, Integer.MAX_VALUE);
+    }
+
+    static long parseLong(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    static String readLine(File f) {
+        if (!f.canRead()) {
+            return null;
+        }
+        try {
+            BufferedReader in = new BufferedReader(new FileReader(f));
+            try {
+                return in.readLine();
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
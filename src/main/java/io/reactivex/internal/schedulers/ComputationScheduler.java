@@ -15,18 +15,24 @@
  */
 package io.reactivex.internal.schedulers;
 
+import java.util.Arrays;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
 
 import io.reactivex.Scheduler;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.*;
 import io.reactivex.internal.disposables.*;
 import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.SchedulerRunnableIntrospection;
 
 /**
  * Holds a fixed pool of worker threads and assigns them
  * to requested Scheduler.Workers in a round-robin fashion.
+ * <p>
+ * The event loops, and thus their threads, are created on their first use.
+ * The number of event loops can be changed at runtime via {@link #resize(int)}.
  */
 public final class ComputationScheduler extends Scheduler implements SchedulerMultiWorkerSupport {
     /** This will indicate no pool is active. */
@@ -41,18 +47,57 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
     static final String KEY_MAX_THREADS = "rx2.computation-threads";
     /** The maximum number of computation scheduler threads. */
     static final int MAX_THREADS;
+    /**
+     * Key to derive the available CPU count from the cgroup CPU quota of the process
+     * instead of taking the count reported by the runtime as is.
+     */
+    static final String KEY_CGROUP_QUOTA = "rx2.computation-threads-cgroup";
+    /**
+     * Key to enable the work-stealing execution of non-delayed direct tasks.
+     */
+    static final String KEY_WORK_STEALING = "rx2.computation-work-stealing";
+    /** Indicates the non-delayed direct tasks can be stolen by idle event loops by default. */
+    static final boolean WORK_STEALING;
+    /** The maximum number of tasks an idle event loop steals before yielding to its own tasks. */
+    static final int STEAL_BATCH = 64;
+    /**
+     * Key to setting the event loop selection policy: {@code round-robin} (default) or {@code least-loaded}.
+     */
+    static final String KEY_SELECTOR = "rx2.computation-selector";
+    /** The default event loop selection policy. */
+    static final EventLoopSelector SELECTOR;
+
+    /** Key to setting how the threads wait for tasks: blocking, busy-spin, spin-yield or spin-park. */
+    static final String KEY_WAIT_STRATEGY = "rx2.computation-wait-strategy";
+
+    static final WaitStrategy WAIT_STRATEGY;
 
     static final PoolWorker SHUTDOWN_WORKER;
 
     final ThreadFactory threadFactory;
+    final boolean workStealing;
+    final EventLoopSelector selector;
+    final WaitStrategy waitStrategy;
     final AtomicReference<FixedSchedulerPool> pool;
+    /** The number of event loops of the pool, set by {@link #resize(int)}. */
+    volatile int threads;
     /** The name of the system property for setting the thread priority for this Scheduler. */
     private static final String KEY_COMPUTATION_PRIORITY = "rx2.computation-priority";
 
     static {
-        MAX_THREADS = cap(Runtime.getRuntime().availableProcessors(), Integer.getInteger(KEY_MAX_THREADS, 0));
+        int cpus = Runtime.getRuntime().availableProcessors();
+        if (Boolean.getBoolean(KEY_CGROUP_QUOTA)) {
+            cpus = CgroupCpuQuota.availableProcessors(cpus);
+        }
+        MAX_THREADS = cap(cpus, Integer.getInteger(KEY_MAX_THREADS, 0));
 
-        SHUTDOWN_WORKER = new PoolWorker(new RxThreadFactory("RxComputationShutdown"));
+        WORK_STEALING = Boolean.getBoolean(KEY_WORK_STEALING);
+
+        SELECTOR = EventLoopSelectors.fromName(System.getProperty(KEY_SELECTOR));
+
+        WAIT_STRATEGY = WaitStrategy.fromName(System.getProperty(KEY_WAIT_STRATEGY));
+
+        SHUTDOWN_WORKER = new PoolWorker(new RxThreadFactory("RxComputationShutdown"), null, WaitStrategy.BLOCKING);
         SHUTDOWN_WORKER.dispose();
 
         int priority = Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY,
@@ -71,15 +116,80 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
     static final class FixedSchedulerPool implements SchedulerMultiWorkerSupport {
         final int cores;
 
-        final PoolWorker[] eventLoops;
+        final LazyEventLoop[] eventLoops;
+        /** The event loops removed by a resize, kept running their existing tasks and reused first when growing. */
+        final LazyEventLoop[] parked;
+        /** The per event loop queues of the stealable direct tasks, null if work-stealing is disabled. */
+        final StealingQueue[] stealingQueues;
+
+        final EventLoopSelector selector;
+        /** If true, the workers and their pending tasks are counted per event loop. */
+        final boolean trackLoad;
         long n;
 
         FixedSchedulerPool(int maxThreads, ThreadFactory threadFactory) {
-            // initialize event loops
-            this.cores = maxThreads;
-            this.eventLoops = new PoolWorker[maxThreads];
-            for (int i = 0; i < maxThreads; i++) {
-                this.eventLoops[i] = new PoolWorker(threadFactory);
+            this(maxThreads, threadFactory, false, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        }
+
+        FixedSchedulerPool(int maxThreads, ThreadFactory threadFactory, boolean workStealing, EventLoopSelector selector,
+                HashedWheelTimer timer, WaitStrategy waitStrategy) {
+            this(newEventLoops(maxThreads, threadFactory, timer, waitStrategy, workStealing), new LazyEventLoop[0], workStealing, selector);
+        }
+
+        FixedSchedulerPool(LazyEventLoop[] eventLoops, LazyEventLoop[] parked, boolean workStealing, EventLoopSelector selector) {
+            int c = eventLoops.length;
+            this.cores = c;
+            this.selector = selector;
+            this.trackLoad = selector != EventLoopSelectors.ROUND_ROBIN;
+            this.eventLoops = eventLoops;
+            this.parked = parked;
+            if (workStealing) {
+                StealingQueue[] qs = new StealingQueue[c];
+                for (int i = 0; i < c; i++) {
+                    qs[i] = new StealingQueue(eventLoops[i], qs, i);
+                }
+                this.stealingQueues = qs;
+            } else {
+                this.stealingQueues = null;
+            }
+        }
+
+        static LazyEventLoop[] newEventLoops(int count, ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy,
+                boolean trackIdle) {
+            LazyEventLoop[] a = new LazyEventLoop[count];
+            for (int i = 0; i < count; i++) {
+                a[i] = new LazyEventLoop(threadFactory, timer, waitStrategy, trackIdle);
+            }
+            return a;
+        }
+
+        /**
+         * Returns a pool with the given number of event loops that keeps the event loops of this pool,
+         * reusing the parked ones first when growing and parking the surplus ones when shrinking.
+         * <p>
+         * The event loops are not parked or unparked until {@link #applyParking()} is called.
+         */
+        FixedSchedulerPool resize(int threads, ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy) {
+            int active = eventLoops.length;
+            int existing = active + parked.length;
+            LazyEventLoop[] all = new LazyEventLoop[Math.max(threads, existing)];
+            System.arraycopy(eventLoops, 0, all, 0, active);
+            System.arraycopy(parked, 0, all, active, parked.length);
+            for (int i = existing; i < threads; i++) {
+                all[i] = new LazyEventLoop(threadFactory, timer, waitStrategy, stealingQueues != null);
+            }
+            FixedSchedulerPool update = new FixedSchedulerPool(Arrays.copyOf(all, threads),
+                    Arrays.copyOfRange(all, threads, all.length), stealingQueues != null, selector);
+            update.n = n;
+            return update;
+        }
+
+        void applyParking() {
+            for (LazyEventLoop w : eventLoops) {
+                w.park(false);
+            }
+            for (LazyEventLoop w : parked) {
+                w.park(true);
             }
         }
 
@@ -88,16 +198,49 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
             if (c == 0) {
                 return SHUTDOWN_WORKER;
             }
-            // simple round robin, improvements to come
-            return eventLoops[(int)(n++ % c)];
+            return eventLoops[select(c)].eventLoop();
+        }
+
+        int select(int c) {
+            if (!trackLoad) {
+                // simple round robin
+                return (int)(n++ % c);
+            }
+            return selector.select(eventLoops, n++);
+        }
+
+        EventLoopWorker createWorker() {
+            return new EventLoopWorker(getEventLoop(), trackLoad);
         }
 
         public void shutdown() {
-            for (PoolWorker w : eventLoops) {
-                w.dispose();
+            for (LazyEventLoop w : eventLoops) {
+                w.shutdown();
+            }
+            for (LazyEventLoop w : parked) {
+                w.shutdown();
+            }
+            StealingQueue[] qs = stealingQueues;
+            if (qs != null) {
+                for (StealingQueue q : qs) {
+                    q.queue.clear();
+                }
             }
         }
 
+        Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+            StealingQueue[] qs = stealingQueues;
+            int c = cores;
+            if (qs == null || c == 0 || delay > 0L) {
+                return getEventLoop().scheduleDirect(run, delay, unit);
+            }
+            StealingQueue q = qs[select(c)];
+            PoolWorker owner = q.owner.eventLoop();
+            StealableTask task = new StealableTask(InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), owner, owner.queueDepth));
+            q.offer(task);
+            return task;
+        }
+
         @Override
         public void createWorkers(int number, WorkerCallback callback) {
             int c = cores;
@@ -105,10 +248,24 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
                 for (int i = 0; i < number; i++) {
                     callback.onWorker(i, SHUTDOWN_WORKER);
                 }
+            } else if (trackLoad) {
+                // pick distinct event loops for each consecutive group of the cores count
+                LazyEventLoop[] remaining = eventLoops.clone();
+                int size = c;
+                for (int i = 0; i < number; i++) {
+                    if (size == 0) {
+                        remaining = eventLoops.clone();
+                        size = c;
+                    }
+                    int index = selector.select(size == c ? remaining : Arrays.copyOf(remaining, size), n++);
+                    LazyEventLoop w = remaining[index];
+                    remaining[index] = remaining[--size];
+                    callback.onWorker(i, new EventLoopWorker(w.eventLoop(), true));
+                }
             } else {
                 int index = (int)n % c;
                 for (int i = 0; i < number; i++) {
-                    callback.onWorker(i, new EventLoopWorker(eventLoops[index]));
+                    callback.onWorker(i, new EventLoopWorker(eventLoops[index].eventLoop()));
                     if (++index == c) {
                         index = 0;
                     }
@@ -134,15 +291,71 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
      *                      system properties for configuring new thread creation. Cannot be null.
      */
     public ComputationScheduler(ThreadFactory threadFactory) {
+        this(threadFactory, WORK_STEALING, SELECTOR);
+    }
+
+    /**
+     * Create a scheduler with pool size equal to the available processor
+     * count and optionally allowing idle threads to execute the non-delayed
+     * direct tasks queued up at busy threads.
+     * <p>
+     * Tasks scheduled via the {@link io.reactivex.Scheduler.Worker Worker}s of this
+     * scheduler are not affected by the work-stealing mode and are always executed in FIFO order.
+     * Non-delayed direct tasks in work-stealing mode don't get interrupted when disposed while running.
+     *
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param workStealing if true, the non-delayed {@link #scheduleDirect(Runnable)} tasks may be executed
+     *                     by any of the threads of this scheduler, in no particular order
+     */
+    public ComputationScheduler(ThreadFactory threadFactory, boolean workStealing) {
+        this(threadFactory, workStealing, SELECTOR);
+    }
+
+    /**
+     * Create a scheduler with pool size equal to the available processor
+     * count, optionally allowing work-stealing of the non-delayed direct tasks and
+     * using the given policy to assign event loops to workers and direct tasks.
+     *
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param workStealing if true, the non-delayed {@link #scheduleDirect(Runnable)} tasks may be executed
+     *                     by any of the threads of this scheduler, in no particular order
+     * @param selector the event loop selection policy, see {@link EventLoopSelectors}. Cannot be null.
+     */
+    public ComputationScheduler(ThreadFactory threadFactory, boolean workStealing, EventLoopSelector selector) {
+        this(threadFactory, workStealing, selector, WAIT_STRATEGY);
+    }
+
+    /**
+     * Create a scheduler with pool size equal to the available processor
+     * count, optionally allowing work-stealing of the non-delayed direct tasks,
+     * using the given policy to assign event loops to workers and direct tasks
+     * and the given strategy for the threads to wait for tasks.
+     *
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param workStealing if true, the non-delayed {@link #scheduleDirect(Runnable)} tasks may be executed
+     *                     by any of the threads of this scheduler, in no particular order
+     * @param selector the event loop selection policy, see {@link EventLoopSelectors}. Cannot be null.
+     * @param waitStrategy the way the threads wait for tasks, the spinning strategies keep the
+     *                     threads busy while idle in exchange for lower latency. Cannot be null.
+     */
+    public ComputationScheduler(ThreadFactory threadFactory, boolean workStealing, EventLoopSelector selector,
+            WaitStrategy waitStrategy) {
         this.threadFactory = threadFactory;
+        this.workStealing = workStealing;
+        this.selector = ObjectHelper.requireNonNull(selector, "selector is null");
+        this.waitStrategy = ObjectHelper.requireNonNull(waitStrategy, "waitStrategy is null");
         this.pool = new AtomicReference<FixedSchedulerPool>(NONE);
+        this.threads = MAX_THREADS;
         start();
     }
 
     @NonNull
     @Override
     public Worker createWorker() {
-        return new EventLoopWorker(pool.get().getEventLoop());
+        return pool.get().createWorker();
     }
 
     @Override
@@ -154,8 +367,7 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
     @NonNull
     @Override
     public Disposable scheduleDirect(@NonNull Runnable run, long delay, TimeUnit unit) {
-        PoolWorker w = pool.get().getEventLoop();
-        return w.scheduleDirect(run, delay, unit);
+        return pool.get().scheduleDirect(run, delay, unit);
     }
 
     @NonNull
@@ -167,12 +379,46 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
 
     @Override
     public void start() {
-        FixedSchedulerPool update = new FixedSchedulerPool(MAX_THREADS, threadFactory);
+        FixedSchedulerPool update = new FixedSchedulerPool(threads, threadFactory, workStealing, selector,
+                HashedWheelTimer.sharedIfEnabled(), waitStrategy);
         if (!pool.compareAndSet(NONE, update)) {
             update.shutdown();
         }
     }
 
+    /**
+     * Changes the number of event loops the new workers and direct tasks are assigned to
+     * while the existing workers keep running on their event loops.
+     * <p>
+     * When shrinking, the removed event loops get parked: they keep running the tasks already
+     * assigned to them, let their thread go idle afterwards and are reused first when growing again.
+     * If the scheduler is shut down, the size applies to the next {@link #start()}.
+     * @param threads the new number of event loops, positive
+     */
+    public synchronized void resize(int threads) {
+        ObjectHelper.verifyPositive(threads, "threads");
+        this.threads = threads;
+        for (;;) {
+            FixedSchedulerPool curr = pool.get();
+            if (curr == NONE || curr.cores == threads) {
+                return;
+            }
+            FixedSchedulerPool update = curr.resize(threads, threadFactory, HashedWheelTimer.sharedIfEnabled(), waitStrategy);
+            if (pool.compareAndSet(curr, update)) {
+                update.applyParking();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of event loops the workers and direct tasks are assigned to.
+     * @return the number of event loops
+     */
+    public int threads() {
+        return threads;
+    }
+
     @Override
     public void shutdown() {
         for (;;) {
@@ -192,16 +438,29 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
         private final CompositeDisposable timed;
         private final ListCompositeDisposable both;
         private final PoolWorker poolWorker;
+        /** Either the serial container or its load-tracking wrapper. */
+        private final DisposableContainer serialTracker;
 
         volatile boolean disposed;
 
         EventLoopWorker(PoolWorker poolWorker) {
+            this(poolWorker, false);
+        }
+
+        EventLoopWorker(PoolWorker poolWorker, boolean trackLoad) {
             this.poolWorker = poolWorker;
             this.serial = new ListCompositeDisposable();
             this.timed = new CompositeDisposable();
             this.both = new ListCompositeDisposable();
             this.both.add(serial);
             this.both.add(timed);
+            if (trackLoad) {
+                LoadTracker tracker = new LoadTracker(serial, poolWorker);
+                this.both.add(tracker);
+                this.serialTracker = tracker;
+            } else {
+                this.serialTracker = serial;
+            }
         }
 
         @Override
@@ -224,7 +483,36 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
                 return EmptyDisposable.INSTANCE;
             }
 
-            return poolWorker.scheduleActual(action, 0, TimeUnit.MILLISECONDS, serial);
+            return poolWorker.scheduleActual(action, 0, TimeUnit.MILLISECONDS, serialTracker);
+        }
+
+        @NonNull
+        @Override
+        public Disposable scheduleAll(@NonNull Runnable[] actions) {
+            if (disposed) {
+                NewThreadWorker.verifyTasks(actions);
+                return EmptyDisposable.INSTANCE;
+            }
+
+            return poolWorker.scheduleAllActual(actions, serialTracker);
+        }
+
+        @Override
+        public boolean runsOnCurrentThread() {
+            return !disposed && poolWorker.runsOnCurrentThread();
+        }
+
+        @NonNull
+        @Override
+        public ReusableTask createReusableTask(@NonNull Runnable run) {
+            if (!ReusableScheduledTask.canDecorateOnce()) {
+                return super.createReusableTask(run);
+            }
+            if (serialTracker instanceof LoadTracker) {
+                // the handle stays in the container until disposed, so each schedule is counted instead
+                return new TrackedReusableTask(run, poolWorker, serial, (LoadTracker)serialTracker);
+            }
+            return poolWorker.createReusableActual(run, serial);
         }
 
         @NonNull
@@ -238,9 +526,429 @@ public final class ComputationScheduler extends Scheduler implements SchedulerMu
         }
     }
 
-    static final class PoolWorker extends NewThreadWorker {
-        PoolWorker(ThreadFactory threadFactory) {
-            super(threadFactory);
+    static final class PoolWorker extends NewThreadWorker implements EventLoopSelector.LoadInfo {
+        final AtomicInteger activeWorkers;
+
+        final AtomicLong pendingTasks;
+
+        PoolWorker(ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy) {
+            this(threadFactory, timer, waitStrategy, false);
+        }
+
+        PoolWorker(ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy, boolean trackIdle) {
+            super(threadFactory, timer, waitStrategy, trackIdle);
+            this.activeWorkers = new AtomicInteger();
+            this.pendingTasks = new AtomicLong();
+        }
+
+        @Override
+        public int activeWorkers() {
+            return activeWorkers.get();
+        }
+
+        @Override
+        public long pendingTasks() {
+            return pendingTasks.get();
+        }
+    }
+
+    /**
+     * Creates the {@link PoolWorker} of an event loop slot on its first use so that
+     * the pool doesn't start threads it never uses.
+     * <p>
+     * Until then, the slot reports no load to the {@link EventLoopSelector}; once shut down,
+     * the slot hands out the shared, disposed {@link #SHUTDOWN_WORKER}.
+     */
+    static final class LazyEventLoop extends AtomicReference<PoolWorker> implements EventLoopSelector.LoadInfo {
+
+        private static final long serialVersionUID = -5313412785617937343L;
+
+        final ThreadFactory threadFactory;
+
+        final HashedWheelTimer timer;
+
+        final WaitStrategy waitStrategy;
+
+        /** If true, the event loop keeps track of whether it is idle, for the work-stealing mode. */
+        final boolean trackIdle;
+
+        /** Set while the slot is parked by a resize, applied to the event loop when created. */
+        volatile boolean parked;
+
+        LazyEventLoop(ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy) {
+            this(threadFactory, timer, waitStrategy, false);
+        }
+
+        LazyEventLoop(ThreadFactory threadFactory, HashedWheelTimer timer, WaitStrategy waitStrategy, boolean trackIdle) {
+            this.threadFactory = threadFactory;
+            this.timer = timer;
+            this.waitStrategy = waitStrategy;
+            this.trackIdle = trackIdle;
+        }
+
+        /**
+         * Returns the event loop of this slot, creating it if necessary.
+         * @return the event loop
+         */
+        PoolWorker eventLoop() {
+            PoolWorker w = get();
+            if (w != null) {
+                return w;
+            }
+            PoolWorker created = new PoolWorker(threadFactory, timer, waitStrategy, trackIdle);
+            if (compareAndSet(null, created)) {
+                if (parked) {
+                    created.park(true);
+                }
+                return created;
+            }
+            // another thread created it or the slot has been shut down in the meantime
+            created.dispose();
+            return get();
+        }
+
+        void park(boolean parked) {
+            this.parked = parked;
+            PoolWorker w = get();
+            if (w != null) {
+                w.park(parked);
+            }
+        }
+
+        void shutdown() {
+            PoolWorker w = getAndSet(SHUTDOWN_WORKER);
+            if (w != null) {
+                w.dispose();
+            }
+        }
+
+        /**
+         * Returns true if the event loop of this slot hasn't been created yet or is waiting for tasks.
+         * @return true if the event loop is idle
+         */
+        boolean isIdle() {
+            PoolWorker w = get();
+            return w == null || w.isIdle();
+        }
+
+        @Override
+        public int activeWorkers() {
+            PoolWorker w = get();
+            return w != null ? w.activeWorkers() : 0;
+        }
+
+        @Override
+        public long pendingTasks() {
+            PoolWorker w = get();
+            return w != null ? w.pendingTasks() : 0L;
+        }
+    }
+
+    /**
+     * Counts the non-delayed tasks of an {@link EventLoopWorker} towards the
+     * load of its event loop and registers the worker as active until disposed.
+     * <p>
+     * The tasks are counted when they get added to and deleted from the wrapped container;
+     * the tasks still in the container at the time of disposal are discounted in bulk.
+     */
+    static final class LoadTracker extends AtomicInteger implements DisposableContainer, Disposable {
+
+        private static final long serialVersionUID = 2396413880452958442L;
+
+        static final int DISPOSED = Integer.MIN_VALUE;
+
+        final DisposableContainer actual;
+
+        final PoolWorker eventLoop;
+
+        LoadTracker(DisposableContainer actual, PoolWorker eventLoop) {
+            this.actual = actual;
+            this.eventLoop = eventLoop;
+            eventLoop.activeWorkers.getAndIncrement();
+        }
+
+        @Override
+        public boolean add(Disposable d) {
+            if (actual.add(d)) {
+                scheduled();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean remove(Disposable d) {
+            if (delete(d)) {
+                d.dispose();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean delete(Disposable d) {
+            if (actual.delete(d)) {
+                finished();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Counts a task towards the load of the event loop.
+         */
+        void scheduled() {
+            if (adjust(1)) {
+                eventLoop.pendingTasks.getAndIncrement();
+            }
+        }
+
+        /**
+         * Discounts a task previously counted via {@link #scheduled()}.
+         */
+        void finished() {
+            if (adjust(-1)) {
+                eventLoop.pendingTasks.getAndDecrement();
+            }
+        }
+
+        boolean adjust(int delta) {
+            for (;;) {
+                int c = get();
+                if (c == DISPOSED) {
+                    return false;
+                }
+                if (compareAndSet(c, c + delta)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            int c = getAndSet(DISPOSED);
+            if (c != DISPOSED) {
+                eventLoop.pendingTasks.addAndGet(-c);
+                eventLoop.activeWorkers.getAndDecrement();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == DISPOSED;
+        }
+    }
+
+    /**
+     * A {@link ReusableTask} of a load-tracking {@link EventLoopWorker} that counts each
+     * schedule towards the load of the event loop until the execution has finished.
+     * <p>
+     * The schedules still pending when the worker is disposed are discounted by the {@link LoadTracker}.
+     */
+    static final class TrackedReusableTask implements ReusableTask, Runnable, SchedulerRunnableIntrospection {
+
+        final Runnable run;
+
+        final LoadTracker tracker;
+
+        final ReusableTask actual;
+
+        TrackedReusableTask(Runnable run, PoolWorker poolWorker, DisposableContainer parent, LoadTracker tracker) {
+            this.run = run;
+            this.tracker = tracker;
+            this.actual = poolWorker.createReusableActual(this, parent);
+        }
+
+        @Override
+        public void schedule() {
+            if (!actual.isDisposed()) {
+                tracker.scheduled();
+                actual.schedule();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                run.run();
+            } finally {
+                tracker.finished();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            actual.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return actual.isDisposed();
+        }
+
+        @Override
+        public Runnable getWrappedRunnable() {
+            return run;
+        }
+    }
+
+    /**
+     * Holds the non-delayed direct tasks assigned to an event loop in work-stealing mode.
+     * <p>
+     * The drain loop runs on the owner's thread; when the owner has run out of its own tasks,
+     * it polls the queues of the sibling event loops that are busy with other work.
+     */
+    static final class StealingQueue extends AtomicInteger implements Runnable {
+
+        private static final long serialVersionUID = -1384446412651651738L;
+
+        final LazyEventLoop owner;
+
+        final StealingQueue[] siblings;
+
+        final int index;
+
+        final ConcurrentLinkedQueue<StealableTask> queue;
+
+        StealingQueue(LazyEventLoop owner, StealingQueue[] siblings, int index) {
+            this.owner = owner;
+            this.siblings = siblings;
+            this.index = index;
+            this.queue = new ConcurrentLinkedQueue<StealableTask>();
+        }
+
+        void offer(StealableTask task) {
+            queue.offer(task);
+            if (getAndIncrement() == 0) {
+                // the owner gets to the drain only after its current work, an idle sibling may steal the task meanwhile
+                boolean ownerIdle = owner.isIdle();
+                signal();
+                if (!ownerIdle) {
+                    wakeIdleSibling();
+                }
+            } else {
+                wakeIdleSibling();
+            }
+        }
+
+        void signal() {
+            try {
+                owner.eventLoop().submitRaw(this);
+            } catch (RejectedExecutionException ex) {
+                for (;;) {
+                    StealableTask task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    InstrumentedTask.rejected(task.actual);
+                }
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
+        /**
+         * Signals the first sibling that neither drains its queue nor runs a task, if any,
+         * so it can come and steal the task just offered.
+         */
+        void wakeIdleSibling() {
+            StealingQueue[] qs = siblings;
+            int c = qs.length;
+            for (int i = 1; i < c; i++) {
+                StealingQueue q = qs[(index + i) % c];
+                if (q.get() == 0 && q.owner.isIdle()) {
+                    if (q.getAndIncrement() == 0) {
+                        q.signal();
+                    }
+                    return;
+                }
+            }
+        }
+
+        StealableTask steal() {
+            StealingQueue[] qs = siblings;
+            int c = qs.length;
+            for (int i = 1; i < c; i++) {
+                StealableTask t = qs[(index + i) % c].queue.poll();
+                if (t != null) {
+                    return t;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            int stolen = 0;
+            for (;;) {
+                for (;;) {
+                    StealableTask t = queue.poll();
+                    if (t == null) {
+                        if (stolen == STEAL_BATCH) {
+                            // let the tasks of the owner's Workers run before stealing more
+                            signal();
+                            return;
+                        }
+                        t = steal();
+                        if (t == null) {
+                            break;
+                        }
+                        stolen++;
+                    }
+                    t.run();
+                }
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * A non-delayed direct task that may be executed by any of the event loops.
+     */
+    static final class StealableTask extends AtomicBoolean
+    implements Runnable, Disposable, SchedulerRunnableIntrospection {
+
+        private static final long serialVersionUID = 5526893358285924183L;
+
+        final Runnable actual;
+
+        StealableTask(Runnable actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void run() {
+            if (get()) {
+                return;
+            }
+            try {
+                actual.run();
+            } catch (Throwable ex) {
+                // Exceptions.throwIfFatal(e); nowhere to go
+                RxJavaPlugins.onError(ex);
+            } finally {
+                lazySet(true);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            lazySet(true);
+            InstrumentedTask.disposed(actual);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+
+        @Override
+        public Runnable getWrappedRunnable() {
+            return actual;
         }
     }
 }
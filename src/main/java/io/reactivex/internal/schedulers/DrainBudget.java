@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+/**
+ * Limits how long a drain loop may run on a shared worker thread before it has to
+ * reschedule itself and let the other tasks of the thread run.
+ * <p>
+ * The budget is the maximum number of items emitted or the maximum time spent per run,
+ * whichever is reached first; zero means no limit.
+ */
+public final class DrainBudget {
+
+    /** Key to setting the maximum number of items a drain loop emits per run, 0 means unlimited. */
+    static final String KEY_ITEMS = "rx2.drain-budget-items";
+
+    /** Key to setting the maximum time a drain loop runs per run in nanoseconds, 0 means unlimited. */
+    static final String KEY_NANOS = "rx2.drain-budget-nanos";
+
+    /** The budget without any limit. */
+    public static final DrainBudget UNBOUNDED = new DrainBudget(0L, 0L);
+
+    /** The budget configured via the system properties, used by the standard operators and workers. */
+    public static final DrainBudget DEFAULT;
+
+    static {
+        DEFAULT = new DrainBudget(Long.getLong(KEY_ITEMS, 0L), Long.getLong(KEY_NANOS, 0L));
+    }
+
+    final long items;
+
+    final long nanos;
+
+    /**
+     * Constructs a budget.
+     * @param items the maximum number of items per run, non-positive means unlimited
+     * @param nanos the maximum time per run in nanoseconds, non-positive means unlimited
+     */
+    public DrainBudget(long items, long nanos) {
+        this.items = Math.max(0L, items);
+        this.nanos = Math.max(0L, nanos);
+    }
+
+    /**
+     * Returns true if the budget limits the number of items or the time per run.
+     * @return true if the budget limits the number of items or the time per run
+     */
+    public boolean isBounded() {
+        return items != 0L || nanos != 0L;
+    }
+
+    /**
+     * Returns the start time of a run to be passed to {@link #isSpent(long, long)}.
+     * @return the start time, zero if the time is not limited
+     */
+    public long start() {
+        return nanos != 0L ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Returns true if the run has to stop after the given number of items.
+     * @param count the number of items emitted in the run so far
+     * @param start the start time of the run returned by {@link #start()}
+     * @return true if the run has to stop
+     */
+    public boolean isSpent(long count, long start) {
+        return (items != 0L && count >= items) || (nanos != 0L && System.nanoTime() - start >= nanos);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import io.reactivex.annotations.NonNull;
+
+/**
+ * Selects the event loop of a {@link ComputationScheduler} the next
+ * {@link io.reactivex.Scheduler.Worker} or direct task should be assigned to.
+ * <p>
+ * See {@link EventLoopSelectors} for the standard implementations.
+ */
+public interface EventLoopSelector {
+
+    /**
+     * Returns the index of the selected event loop.
+     * @param eventLoops the non-empty array of the candidate event loops, should not be modified
+     * @param sequence the number of selections performed by the pool so far,
+     *                 can be used for round-robin selection or breaking ties
+     * @return the index of the selected event loop in the {@code eventLoops} array
+     */
+    int select(@NonNull LoadInfo[] eventLoops, long sequence);
+
+    /**
+     * Provides information about the current load of an event loop.
+     * <p>
+     * The values are only tracked if the pool uses a selector other than
+     * {@link EventLoopSelectors#ROUND_ROBIN} and are zero otherwise.
+     */
+    interface LoadInfo {
+        /**
+         * Returns the number of undisposed {@link io.reactivex.Scheduler.Worker}s
+         * assigned to this event loop.
+         * @return the number of active workers
+         */
+        int activeWorkers();
+
+        /**
+         * Returns the number of non-delayed tasks scheduled via the
+         * {@link io.reactivex.Scheduler.Worker}s of this event loop which
+         * haven't completed yet.
+         * @return the number of pending tasks
+         */
+        long pendingTasks();
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+/**
+ * The standard {@link EventLoopSelector} implementations.
+ */
+public enum EventLoopSelectors implements EventLoopSelector {
+    /**
+     * Assigns the event loops in a round-robin fashion, ignoring their current load.
+     */
+    ROUND_ROBIN {
+        @Override
+        public int select(LoadInfo[] eventLoops, long sequence) {
+            return (int)(sequence % eventLoops.length);
+        }
+    },
+    /**
+     * Assigns the event loop with the lowest sum of active workers and pending tasks,
+     * preferring the event loops in a round-robin fashion in case of a tie.
+     */
+    LEAST_LOADED {
+        @Override
+        public int select(LoadInfo[] eventLoops, long sequence) {
+            int c = eventLoops.length;
+            int start = (int)(sequence % c);
+            int best = start;
+            long bestLoad = load(eventLoops[start]);
+            for (int i = 1; i < c && bestLoad != 0L; i++) {
+                int j = start + i;
+                if (j >= c) {
+                    j -= c;
+                }
+                long l = load(eventLoops[j]);
+                if (l < bestLoad) {
+                    best = j;
+                    bestLoad = l;
+                }
+            }
+            return best;
+        }
+    };
+
+    static long load(LoadInfo info) {
+        return info.activeWorkers() + info.pendingTasks();
+    }
+
+    /**
+     * Returns the standard selector for the given name ({@code round-robin} or {@code least-loaded})
+     * or the {@link #ROUND_ROBIN} selector if the name is null or not recognized.
+     * @param name the name of the selector
+     * @return the selector instance
+     */
+    public static EventLoopSelector fromName(String name) {
+        if ("least-loaded".equals(name)) {
+            return LEAST_LOADED;
+        }
+        return ROUND_ROBIN;
+    }
+}
@@ -20,8 +20,8 @@ import io.reactivex.Scheduler;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.*;
 import io.reactivex.internal.disposables.*;
-import io.reactivex.internal.functions.Functions;
-import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.functions.*;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
 import io.reactivex.internal.schedulers.ExecutorScheduler.ExecutorWorker.*;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.*;
@@ -36,6 +36,9 @@ public final class ExecutorScheduler extends Scheduler {
     @NonNull
     final Executor executor;
 
+    /** The number of queued tasks while a {@link SchedulerInstrumentation} is set. */
+    final AtomicInteger queueDepth = new AtomicInteger();
+
     static final Scheduler HELPER = Schedulers.single();
 
     public ExecutorScheduler(@NonNull Executor executor, boolean interruptibleWorker) {
@@ -46,13 +49,13 @@ public final class ExecutorScheduler extends Scheduler {
     @NonNull
     @Override
     public Worker createWorker() {
-        return new ExecutorWorker(executor, interruptibleWorker);
+        return new ExecutorWorker(executor, interruptibleWorker, false, queueDepth);
     }
 
     @NonNull
     @Override
     public Disposable scheduleDirect(@NonNull Runnable run) {
-        Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
+        Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), executor, queueDepth);
         try {
             if (executor instanceof ExecutorService) {
                 ScheduledDirectTask task = new ScheduledDirectTask(decoratedRun);
@@ -71,6 +74,7 @@ public final class ExecutorScheduler extends Scheduler {
                 return br;
             }
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(decoratedRun);
             RxJavaPlugins.onError(ex);
             return EmptyDisposable.INSTANCE;
         }
@@ -81,12 +85,14 @@ public final class ExecutorScheduler extends Scheduler {
     public Disposable scheduleDirect(@NonNull Runnable run, final long delay, final TimeUnit unit) {
         final Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
         if (executor instanceof ScheduledExecutorService) {
+            Runnable instrumentedRun = InstrumentedTask.wrap(decoratedRun, executor, queueDepth, delay, 0L, unit);
             try {
-                ScheduledDirectTask task = new ScheduledDirectTask(decoratedRun);
+                ScheduledDirectTask task = new ScheduledDirectTask(instrumentedRun);
                 Future<?> f = ((ScheduledExecutorService)executor).schedule(task, delay, unit);
                 task.setFuture(f);
                 return task;
             } catch (RejectedExecutionException ex) {
+                InstrumentedTask.rejected(instrumentedRun);
                 RxJavaPlugins.onError(ex);
                 return EmptyDisposable.INSTANCE;
             }
@@ -105,13 +111,14 @@ public final class ExecutorScheduler extends Scheduler {
     @Override
     public Disposable schedulePeriodicallyDirect(@NonNull Runnable run, long initialDelay, long period, TimeUnit unit) {
         if (executor instanceof ScheduledExecutorService) {
-            Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
+            Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), executor, queueDepth, initialDelay, period, unit);
             try {
                 ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(decoratedRun);
                 Future<?> f = ((ScheduledExecutorService)executor).scheduleAtFixedRate(task, initialDelay, period, unit);
                 task.setFuture(f);
                 return task;
             } catch (RejectedExecutionException ex) {
+                InstrumentedTask.rejected(decoratedRun);
                 RxJavaPlugins.onError(ex);
                 return EmptyDisposable.INSTANCE;
             }
@@ -123,9 +130,18 @@ public final class ExecutorScheduler extends Scheduler {
 
         final boolean interruptibleWorker;
 
+        /** If true and the executor is an ExecutorService, delays are timed by the shared {@link HashedWheelTimer}. */
+        final boolean useTimer;
+
         final Executor executor;
 
-        final MpscLinkedQueue<Runnable> queue;
+        /** The number of queued tasks while a {@link SchedulerInstrumentation} is set. */
+        final AtomicInteger queueDepth;
+
+        final MpscChunkedArrayQueue<Runnable> queue;
+
+        /** Limits the tasks or time per run, then the run resubmits itself to the executor. */
+        final DrainBudget budget;
 
         volatile boolean disposed;
 
@@ -134,9 +150,25 @@ public final class ExecutorScheduler extends Scheduler {
         final CompositeDisposable tasks = new CompositeDisposable();
 
         public ExecutorWorker(Executor executor, boolean interruptibleWorker) {
+            this(executor, interruptibleWorker, false);
+        }
+
+        public ExecutorWorker(Executor executor, boolean interruptibleWorker, boolean useTimer) {
+            this(executor, interruptibleWorker, useTimer, new AtomicInteger());
+        }
+
+        public ExecutorWorker(Executor executor, boolean interruptibleWorker, boolean useTimer, AtomicInteger queueDepth) {
+            this(executor, interruptibleWorker, useTimer, queueDepth, DrainBudget.DEFAULT);
+        }
+
+        public ExecutorWorker(Executor executor, boolean interruptibleWorker, boolean useTimer, AtomicInteger queueDepth,
+                DrainBudget budget) {
             this.executor = executor;
-            this.queue = new MpscLinkedQueue<Runnable>();
+            this.queue = new MpscChunkedArrayQueue<Runnable>();
             this.interruptibleWorker = interruptibleWorker;
+            this.useTimer = useTimer;
+            this.queueDepth = queueDepth;
+            this.budget = budget;
         }
 
         @NonNull
@@ -146,38 +178,119 @@ public final class ExecutorScheduler extends Scheduler {
                 return EmptyDisposable.INSTANCE;
             }
 
-            Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
+            Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), executor, queueDepth);
 
-            Runnable task;
-            Disposable disposable;
+            Runnable task = createTask(decoratedRun);
 
-            if (interruptibleWorker) {
-                InterruptibleRunnable interruptibleTask = new InterruptibleRunnable(decoratedRun, tasks);
-                tasks.add(interruptibleTask);
+            queue.offer(task);
 
-                task = interruptibleTask;
-                disposable = interruptibleTask;
-            } else {
-                BooleanRunnable runnableTask = new BooleanRunnable(decoratedRun);
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    disposed = true;
+                    InstrumentedTask.rejected(decoratedRun);
+                    clearQueue();
+                    RxJavaPlugins.onError(ex);
+                    return EmptyDisposable.INSTANCE;
+                }
+            }
+
+            return (Disposable)task;
+        }
 
-                task = runnableTask;
-                disposable = runnableTask;
+        @NonNull
+        @Override
+        public Disposable scheduleAll(@NonNull Runnable[] actions) {
+            int n = NewThreadWorker.verifyTasks(actions);
+            if (disposed || n == 0) {
+                return EmptyDisposable.INSTANCE;
             }
 
-            queue.offer(task);
+            Runnable[] decoratedRuns = new Runnable[n];
+            Disposable[] disposables = new Disposable[n];
+            for (int i = 0; i < n; i++) {
+                Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(actions[i]), executor, queueDepth);
+                Runnable task = createTask(decoratedRun);
+
+                queue.offer(task);
+
+                decoratedRuns[i] = decoratedRun;
+                disposables[i] = (Disposable)task;
+            }
 
             if (wip.getAndIncrement() == 0) {
                 try {
                     executor.execute(this);
                 } catch (RejectedExecutionException ex) {
                     disposed = true;
-                    queue.clear();
+                    for (Runnable decoratedRun : decoratedRuns) {
+                        InstrumentedTask.rejected(decoratedRun);
+                    }
+                    clearQueue();
                     RxJavaPlugins.onError(ex);
                     return EmptyDisposable.INSTANCE;
                 }
             }
 
-            return disposable;
+            return new ListCompositeDisposable(disposables);
+        }
+
+        @NonNull
+        @Override
+        public ReusableTask createReusableTask(@NonNull Runnable run) {
+            if (!ReusableScheduledTask.canDecorateOnce()) {
+                return super.createReusableTask(run);
+            }
+            ReusableRunnable task = new ReusableRunnable(this, RxJavaPlugins.onSchedule(
+                    ObjectHelper.requireNonNull(run, "run is null")));
+            if (!tasks.add(task)) {
+                task.disposed = true;
+            }
+            return task;
+        }
+
+        /**
+         * Queues the task of a {@link ReusableRunnable} and, if this worker is idle,
+         * submits the drain to the executor.
+         * @param handle the handle being scheduled
+         */
+        void scheduleReusable(ReusableRunnable handle) {
+            Runnable task = handle;
+            Runnable decoratedRun = handle;
+            if (RxJavaPlugins.getSchedulerInstrumentation() != null) {
+                // the instrumented task has to be disposable on its own for clearQueue
+                decoratedRun = InstrumentedTask.wrap(handle, executor, queueDepth);
+                task = new BooleanRunnable(decoratedRun);
+            }
+
+            queue.offer(task);
+
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    disposed = true;
+                    InstrumentedTask.rejected(decoratedRun);
+                    clearQueue();
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+        }
+
+        /**
+         * Wraps the task into a disposable {@link BooleanRunnable} or, if this worker is
+         * interruptible, into a tracked {@link InterruptibleRunnable}.
+         * @param decoratedRun the task to wrap
+         * @return the wrapper, also implementing {@link Disposable}
+         */
+        Runnable createTask(Runnable decoratedRun) {
+            if (interruptibleWorker) {
+                InterruptibleRunnable interruptibleTask = new InterruptibleRunnable(decoratedRun, tasks);
+                tasks.add(interruptibleTask);
+                return interruptibleTask;
+            }
+            return new BooleanRunnable(decoratedRun);
         }
 
         @NonNull
@@ -208,6 +321,15 @@ public final class ExecutorScheduler extends Scheduler {
                     RxJavaPlugins.onError(ex);
                     return EmptyDisposable.INSTANCE;
                 }
+            } else if (useTimer && executor instanceof ExecutorService) {
+                try {
+                    Future<?> f = HashedWheelTimer.shared().schedule(sr, (ExecutorService)executor, delay, unit);
+                    sr.setFuture(f);
+                } catch (RejectedExecutionException ex) {
+                    disposed = true;
+                    RxJavaPlugins.onError(ex);
+                    return EmptyDisposable.INSTANCE;
+                }
             } else {
                 final Disposable d = HELPER.scheduleDirect(sr, delay, unit);
                 sr.setFuture(new DisposeOnCancel(d));
@@ -224,7 +346,7 @@ public final class ExecutorScheduler extends Scheduler {
                 disposed = true;
                 tasks.dispose();
                 if (wip.getAndIncrement() == 0) {
-                    queue.clear();
+                    clearQueue();
                 }
             }
         }
@@ -234,14 +356,36 @@ public final class ExecutorScheduler extends Scheduler {
             return disposed;
         }
 
+        /**
+         * Clears the queue and, if there is a {@link SchedulerInstrumentation} set,
+         * reports the queued tasks as disposed.
+         */
+        void clearQueue() {
+            MpscChunkedArrayQueue<Runnable> q = queue;
+            if (RxJavaPlugins.getSchedulerInstrumentation() == null) {
+                q.clear();
+                return;
+            }
+            for (;;) {
+                Runnable run = q.poll();
+                if (run == null) {
+                    break;
+                }
+                ((Disposable)run).dispose();
+            }
+        }
+
         @Override
         public void run() {
             int missed = 1;
-            final MpscLinkedQueue<Runnable> q = queue;
+            final MpscChunkedArrayQueue<Runnable> q = queue;
+            final DrainBudget b = budget;
+            final long start = b.start();
+            long count = 0L;
             for (;;) {
 
                 if (disposed) {
-                    q.clear();
+                    clearQueue();
                     return;
                 }
 
@@ -253,13 +397,25 @@ public final class ExecutorScheduler extends Scheduler {
                     run.run();
 
                     if (disposed) {
-                        q.clear();
+                        clearQueue();
+                        return;
+                    }
+
+                    if (b.isSpent(++count, start)) {
+                        // let the other tasks of the executor run
+                        try {
+                            executor.execute(this);
+                        } catch (RejectedExecutionException ex) {
+                            disposed = true;
+                            clearQueue();
+                            RxJavaPlugins.onError(ex);
+                        }
                         return;
                     }
                 }
 
                 if (disposed) {
-                    q.clear();
+                    clearQueue();
                     return;
                 }
 
@@ -270,6 +426,57 @@ public final class ExecutorScheduler extends Scheduler {
             }
         }
 
+        /**
+         * A {@link ReusableTask} that queues itself on each schedule instead of a new {@link BooleanRunnable}.
+         * <p>
+         * It is not interrupted when disposed while running, even if the worker is interruptible.
+         */
+        static final class ReusableRunnable implements ReusableTask, Runnable, SchedulerRunnableIntrospection {
+
+            final ExecutorWorker worker;
+
+            final Runnable actual;
+
+            volatile boolean disposed;
+
+            ReusableRunnable(ExecutorWorker worker, Runnable actual) {
+                this.worker = worker;
+                this.actual = actual;
+            }
+
+            @Override
+            public void schedule() {
+                if (!disposed && !worker.disposed) {
+                    worker.scheduleReusable(this);
+                }
+            }
+
+            @Override
+            public void run() {
+                if (!disposed) {
+                    actual.run();
+                }
+            }
+
+            @Override
+            public void dispose() {
+                if (!disposed) {
+                    disposed = true;
+                    worker.tasks.delete(this);
+                }
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return disposed;
+            }
+
+            @Override
+            public Runnable getWrappedRunnable() {
+                return actual;
+            }
+        }
+
         static final class BooleanRunnable extends AtomicBoolean implements Runnable, Disposable {
 
             private static final long serialVersionUID = -2421395018820541164L;
@@ -294,6 +501,7 @@ public final class ExecutorScheduler extends Scheduler {
             @Override
             public void dispose() {
                 lazySet(true);
+                InstrumentedTask.disposed(actual);
             }
 
             @Override
@@ -378,6 +586,7 @@ public final class ExecutorScheduler extends Scheduler {
                         break;
                     } else if (state == READY) {
                         if (compareAndSet(READY, INTERRUPTED)) {
+                            InstrumentedTask.disposed(run);
                             cleanup();
                             break;
                         }
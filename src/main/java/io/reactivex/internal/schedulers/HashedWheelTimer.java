@@ -0,0 +1,618 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
+
+/**
+ * A hashed timing wheel that hands off delayed and periodic tasks to their target
+ * executors when they become due.
+ * <p>
+ * Scheduling and cancelling a task costs O(1): the caller only enqueues the task into
+ * a lock-free queue which the single timer thread transfers into or removes from the
+ * wheel's buckets at every tick. The timer thread parks indefinitely if there are no
+ * pending tasks.
+ * <p>
+ * Tasks are never executed before their delay but may be executed up to one tick
+ * later; tasks due within the same tick are handed off in their submission order.
+ */
+public final class HashedWheelTimer implements Runnable {
+
+    static final String THREAD_NAME_PREFIX = "RxTimingWheel";
+
+    /**
+     * Key to enable the timing wheel for the delayed tasks of the
+     * computation, io and single schedulers.
+     */
+    static final String KEY_ENABLED = "rx2.timer-wheel";
+
+    /** Key to setting the tick duration of the shared timing wheel in microseconds. */
+    static final String KEY_TICK_MICROS = "rx2.timer-wheel-tick-micros";
+
+    /** Key to setting the number of buckets of the shared timing wheel, rounded up to a power of 2. */
+    static final String KEY_SIZE = "rx2.timer-wheel-size";
+
+    /** Indicates the standard schedulers should use the shared timing wheel. */
+    public static final boolean ENABLED;
+
+    static final long TICK_MICROS;
+
+    static final int SIZE;
+
+    static final AtomicReference<HashedWheelTimer> SHARED = new AtomicReference<HashedWheelTimer>();
+
+    static {
+        ENABLED = Boolean.getBoolean(KEY_ENABLED);
+        TICK_MICROS = Math.max(1L, Long.getLong(KEY_TICK_MICROS, 1000L));
+        SIZE = Math.max(1, Integer.getInteger(KEY_SIZE, 512));
+    }
+
+    final long tickNanos;
+
+    final int mask;
+
+    final Bucket[] wheel;
+
+    final MpscChunkedArrayQueue<TimedTask> added;
+
+    final MpscChunkedArrayQueue<TimedTask> cancelled;
+
+    /** The number of tasks waiting in the wheel or in the added queue. */
+    final AtomicLong pending;
+
+    final long startNanos;
+
+    final Thread thread;
+
+    volatile boolean shutdown;
+
+    /** The current tick, accessed by the timer thread only. */
+    long tick;
+
+    /**
+     * Constructs a timing wheel and starts its timer thread.
+     * @param threadFactory the factory for the timer thread
+     * @param tickDuration the resolution of the timer, positive
+     * @param unit the unit of the tick duration
+     * @param size the number of buckets, rounded up to the next power of 2
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int size) {
+        this.tickNanos = Math.max(1L, unit.toNanos(tickDuration));
+        int n = 1;
+        while (n < size) {
+            n <<= 1;
+        }
+        this.mask = n - 1;
+        this.wheel = new Bucket[n];
+        for (int i = 0; i < n; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.added = new MpscChunkedArrayQueue<TimedTask>(Flowable.bufferSize());
+        this.cancelled = new MpscChunkedArrayQueue<TimedTask>();
+        this.pending = new AtomicLong();
+        this.startNanos = System.nanoTime();
+        this.thread = threadFactory.newThread(this);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the shared timing wheel, creating it if necessary.
+     * @return the shared timing wheel
+     */
+    public static HashedWheelTimer shared() {
+        for (;;) {
+            HashedWheelTimer curr = SHARED.get();
+            if (curr != null) {
+                return curr;
+            }
+            HashedWheelTimer next = new HashedWheelTimer(new RxThreadFactory(THREAD_NAME_PREFIX, Thread.MAX_PRIORITY, true),
+                    TICK_MICROS, TimeUnit.MICROSECONDS, SIZE);
+            if (SHARED.compareAndSet(null, next)) {
+                return next;
+            }
+            next.shutdown();
+        }
+    }
+
+    /**
+     * Returns the shared timing wheel if the standard schedulers are configured to use it.
+     * @return the shared timing wheel or null if disabled
+     */
+    public static HashedWheelTimer sharedIfEnabled() {
+        return ENABLED ? shared() : null;
+    }
+
+    /**
+     * Stops the shared timing wheel; the next {@link #shared()} call creates a fresh one.
+     */
+    public static void shutdownShared() {
+        HashedWheelTimer curr = SHARED.getAndSet(null);
+        if (curr != null) {
+            curr.shutdown();
+        }
+    }
+
+    /**
+     * Hands off the task to the executor after the given delay.
+     * @param task the task to submit to the executor
+     * @param executor the target executor
+     * @param delay the delay amount
+     * @param unit the delay time unit
+     * @return the Future that cancels the task in the wheel or in the executor
+     * @throws RejectedExecutionException if this timer has been shut down
+     */
+    public Future<Object> schedule(Callable<?> task, ExecutorService executor, long delay, TimeUnit unit) {
+        return add(new TimedTask(this, task, executor, deadline(delay, unit), 0L));
+    }
+
+    /**
+     * Hands off the task to the executor after the given initial delay and then periodically,
+     * at a fixed rate.
+     * @param task the task to submit to the executor
+     * @param executor the target executor
+     * @param initialDelay the initial delay amount
+     * @param period the period amount, positive
+     * @param unit the time unit of the initial delay and period
+     * @return the Future that cancels the task in the wheel or in the executor
+     * @throws RejectedExecutionException if this timer has been shut down
+     */
+    public Future<Object> schedulePeriodic(Runnable task, ExecutorService executor, long initialDelay, long period, TimeUnit unit) {
+        return add(new TimedTask(this, Executors.callable(task), executor, deadline(initialDelay, unit), Math.max(1L, unit.toNanos(period))));
+    }
+
+    long deadline(long delay, TimeUnit unit) {
+        return System.nanoTime() - startNanos + Math.max(0L, unit.toNanos(delay));
+    }
+
+    TimedTask add(TimedTask t) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Timer has been shut down");
+        }
+        added.offer(t);
+        if (pending.getAndIncrement() == 0L) {
+            LockSupport.unpark(thread);
+        }
+        return t;
+    }
+
+    /**
+     * Stops the timer thread and drops all pending tasks.
+     */
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Returns the number of tasks waiting to be handed off.
+     * @return the number of tasks waiting to be handed off
+     */
+    public long size() {
+        return pending.get();
+    }
+
+    @Override
+    public void run() {
+        final long tn = tickNanos;
+        while (!shutdown) {
+            removeCancelled();
+
+            if (pending.get() == 0L) {
+                LockSupport.park(this);
+                if (shutdown) {
+                    break;
+                }
+                removeCancelled();
+                // the wheel is empty, skip the ticks elapsed while idle
+                tick = (System.nanoTime() - startNanos) / tn;
+            }
+
+            long deadline = startNanos + (tick + 1) * tn;
+            for (;;) {
+                long sleep = deadline - System.nanoTime();
+                if (sleep <= 0L || shutdown) {
+                    break;
+                }
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (shutdown) {
+                break;
+            }
+
+            removeCancelled();
+            transferAdded();
+            expire(wheel[(int)(tick & mask)]);
+            tick++;
+        }
+        added.clear();
+        cancelled.clear();
+    }
+
+    void removeCancelled() {
+        for (;;) {
+            TimedTask t = cancelled.poll();
+            if (t == null) {
+                break;
+            }
+            Bucket b = t.bucket;
+            if (b != null) {
+                b.remove(t);
+            }
+        }
+    }
+
+    void transferAdded() {
+        final long tn = tickNanos;
+        for (;;) {
+            TimedTask t = added.poll();
+            if (t == null) {
+                break;
+            }
+            if (t.phase() != TimedTask.WAITING) {
+                continue;
+            }
+            long calculated = t.deadline / tn;
+            t.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int)(ticks & mask)].add(t);
+        }
+    }
+
+    void expire(Bucket bucket) {
+        TimedTask t = bucket.head;
+        while (t != null) {
+            TimedTask next = t.next;
+            if (t.phase() != TimedTask.WAITING) {
+                bucket.remove(t);
+            } else if (t.remainingRounds <= 0L) {
+                bucket.remove(t);
+                t.fire();
+            } else {
+                t.remainingRounds--;
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * A doubly-linked list of tasks, accessed by the timer thread only.
+     */
+    static final class Bucket {
+        TimedTask head;
+
+        TimedTask tail;
+
+        void add(TimedTask t) {
+            t.bucket = this;
+            if (head == null) {
+                head = t;
+                tail = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+                tail = t;
+            }
+        }
+
+        void remove(TimedTask t) {
+            TimedTask p = t.prev;
+            TimedTask n = t.next;
+            if (p != null) {
+                p.next = n;
+            } else {
+                head = n;
+            }
+            if (n != null) {
+                n.prev = p;
+            } else {
+                tail = p;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+    }
+
+    /**
+     * A task waiting in the wheel; also acts as the Future of the task once
+     * handed off to the executor.
+     * <p>
+     * The outcome of a one-shot task is that of the executor's Future once handed off;
+     * a periodic task is only done when cancelled or when one of its runs fails.
+     * <p>
+     * The phase of the task, whether it has settled and whether a thread waits in {@code get()}
+     * share a single state word so that a task allocates nothing beyond itself.
+     */
+    static final class TimedTask implements Future<Object>, Callable<Object> {
+
+        static final int WAITING = 0;
+        static final int HANDED_OFF = 1;
+        static final int CANCELLED = 2;
+        static final int INTERRUPTED = 3;
+
+        static final int PHASE = 3;
+
+        /**
+         * Set once the task won't be handed off again: when a one-shot task is handed off,
+         * when a periodic run fails, or when the task is cancelled or rejected.
+         */
+        static final int SETTLED = 4;
+
+        /** Set if a thread waits in {@code get()} for the task to settle. */
+        static final int WAITERS = 8;
+
+        static final AtomicIntegerFieldUpdater<TimedTask> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(TimedTask.class, "state");
+
+        final HashedWheelTimer timer;
+
+        final Callable<?> task;
+
+        final ExecutorService executor;
+
+        final long period;
+
+        volatile int state;
+
+        /** The executor's Future of the last hand-off, set by the timer thread. */
+        volatile Future<?> handoff;
+
+        /** The failure of a periodic run, visible once settled. */
+        Throwable failure;
+
+        /** The deadline relative to the start of the timer, in nanoseconds. */
+        long deadline;
+
+        long remainingRounds;
+
+        TimedTask prev;
+
+        TimedTask next;
+
+        Bucket bucket;
+
+        TimedTask(HashedWheelTimer timer, Callable<?> task, ExecutorService executor, long deadline, long period) {
+            this.timer = timer;
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        int phase() {
+            return state & PHASE;
+        }
+
+        boolean casPhase(int expected, int phase) {
+            for (;;) {
+                int s = state;
+                if ((s & PHASE) != expected) {
+                    return false;
+                }
+                if (STATE.compareAndSet(this, s, (s & ~PHASE) | phase)) {
+                    return true;
+                }
+            }
+        }
+
+        void setPhase(int phase) {
+            for (;;) {
+                int s = state;
+                if (STATE.compareAndSet(this, s, (s & ~PHASE) | phase)) {
+                    return;
+                }
+            }
+        }
+
+        void settle() {
+            for (;;) {
+                int s = state;
+                if ((s & SETTLED) != 0) {
+                    return;
+                }
+                if (STATE.compareAndSet(this, s, s | SETTLED)) {
+                    if ((s & WAITERS) != 0) {
+                        synchronized (this) {
+                            notifyAll();
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Waits for the task to settle.
+         * @param timed if true, wait at most the given time
+         * @param nanos the maximum time to wait if timed
+         * @return false if the time has elapsed before the task settled
+         * @throws InterruptedException if the current thread has been interrupted while waiting
+         */
+        boolean awaitSettled(boolean timed, long nanos) throws InterruptedException {
+            for (;;) {
+                int s = state;
+                if ((s & SETTLED) != 0) {
+                    return true;
+                }
+                if ((s & WAITERS) != 0 || STATE.compareAndSet(this, s, s | WAITERS)) {
+                    break;
+                }
+            }
+            long end = System.nanoTime() + nanos;
+            synchronized (this) {
+                while ((state & SETTLED) == 0) {
+                    if (timed) {
+                        long left = end - System.nanoTime();
+                        if (left <= 0L) {
+                            return false;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    } else {
+                        wait();
+                    }
+                }
+            }
+            return true;
+        }
+
+        void fire() {
+            if (casPhase(WAITING, HANDED_OFF)) {
+                timer.pending.decrementAndGet();
+                Callable<?> c = period == 0L ? task : this;
+                Future<?> f;
+                try {
+                    f = executor.submit(c);
+                } catch (RejectedExecutionException ex) {
+                    // the target executor has been shut down, drop the task
+                    setPhase(CANCELLED);
+                    settle();
+                    return;
+                }
+                handoff = f;
+                int p = phase();
+                if (p == CANCELLED || p == INTERRUPTED) {
+                    f.cancel(p == INTERRUPTED);
+                }
+                if (period == 0L) {
+                    settle();
+                }
+            }
+        }
+
+        @Override
+        public Object call() throws Exception {
+            // periodic run on the target executor
+            Throwable error = null;
+            try {
+                task.call();
+            } catch (Throwable ex) {
+                error = ex;
+            }
+            if (error != null) {
+                // get() reports the failure, the handoff may not have been published yet
+                failure = error;
+                settle();
+                if (error instanceof Exception) {
+                    throw (Exception)error;
+                }
+                throw (Error)error;
+            }
+            if (casPhase(HANDED_OFF, WAITING)) {
+                deadline += period;
+                try {
+                    timer.add(this);
+                } catch (RejectedExecutionException ex) {
+                    setPhase(CANCELLED);
+                    settle();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            int target = mayInterruptIfRunning ? INTERRUPTED : CANCELLED;
+            for (;;) {
+                int s = state;
+                int p = s & PHASE;
+                if (p == CANCELLED || p == INTERRUPTED) {
+                    return false;
+                }
+                if (p == HANDED_OFF) {
+                    if (period == 0L) {
+                        Future<?> f = handoff;
+                        if (f != null) {
+                            // the executor knows whether the task has completed already
+                            return f.cancel(mayInterruptIfRunning);
+                        }
+                    } else if ((s & SETTLED) != 0) {
+                        // a periodic run has failed
+                        return false;
+                    }
+                }
+                if (STATE.compareAndSet(this, s, (s & ~PHASE) | target)) {
+                    if (p == WAITING) {
+                        timer.pending.decrementAndGet();
+                        timer.cancelled.offer(this);
+                    } else {
+                        Future<?> f = handoff;
+                        if (f != null) {
+                            f.cancel(mayInterruptIfRunning);
+                        }
+                    }
+                    settle();
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            int p = phase();
+            if (p == CANCELLED || p == INTERRUPTED) {
+                return true;
+            }
+            if (period == 0L) {
+                Future<?> f = handoff;
+                return f != null && f.isCancelled();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            if ((state & SETTLED) == 0) {
+                return false;
+            }
+            // a settled one-shot task has been handed off unless cancelled
+            return isCancelled() || period != 0L || handoff.isDone();
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            awaitSettled(false, 0L);
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            if (period != 0L) {
+                throw new ExecutionException(failure);
+            }
+            return handoff.get();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long nanos = unit.toNanos(timeout);
+            long end = System.nanoTime() + nanos;
+            if (!awaitSettled(true, nanos)) {
+                throw new TimeoutException();
+            }
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            if (period != 0L) {
+                throw new ExecutionException(failure);
+            }
+            return handoff.get(end - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
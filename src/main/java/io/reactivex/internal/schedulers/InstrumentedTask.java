@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.*;
+
+/**
+ * Wraps a task queued on an event loop and reports its lifecycle to the {@link SchedulerInstrumentation}.
+ * <p>
+ * The task leaves the queue depth of its event loop exactly once per run, by starting, getting
+ * disposed or getting rejected, whichever happens first.
+ */
+final class InstrumentedTask extends AtomicInteger implements Runnable, SchedulerRunnableIntrospection {
+
+    private static final long serialVersionUID = -3417458283553307012L;
+
+    static final int WAITING = 0;
+    static final int RUNNING = 1;
+    static final int FINISHED = 2;
+
+    final Runnable actual;
+
+    final SchedulerInstrumentation instrumentation;
+
+    final Object eventLoop;
+
+    final AtomicInteger queueDepth;
+
+    final long period;
+
+    long due;
+
+    InstrumentedTask(Runnable actual, SchedulerInstrumentation instrumentation, Object eventLoop,
+            AtomicInteger queueDepth, long due, long period) {
+        this.actual = actual;
+        this.instrumentation = instrumentation;
+        this.eventLoop = eventLoop;
+        this.queueDepth = queueDepth;
+        this.due = due;
+        this.period = period;
+    }
+
+    /**
+     * Wraps the non-delayed task if there is a {@link SchedulerInstrumentation} set
+     * and reports it as enqueued.
+     * @param run the task
+     * @param eventLoop the event loop the task is going to be queued on
+     * @param queueDepth the queue depth counter of the event loop
+     * @return the wrapped task or {@code run} if there is no instrumentation
+     */
+    static Runnable wrap(Runnable run, Object eventLoop, AtomicInteger queueDepth) {
+        return wrap(run, eventLoop, queueDepth, 0L, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wraps the task if there is a {@link SchedulerInstrumentation} set
+     * and reports it as enqueued.
+     * @param run the task
+     * @param eventLoop the event loop the task is going to be queued on
+     * @param queueDepth the queue depth counter of the event loop
+     * @param delay the initial delay of the task
+     * @param period the period of a periodic task, zero for one-time tasks
+     * @param unit the unit of the delay and period, may be null if both are non-positive
+     * @return the wrapped task or {@code run} if there is no instrumentation
+     */
+    static Runnable wrap(Runnable run, Object eventLoop, AtomicInteger queueDepth, long delay, long period, TimeUnit unit) {
+        SchedulerInstrumentation si = RxJavaPlugins.getSchedulerInstrumentation();
+        if (si == null) {
+            return run;
+        }
+        long due = System.nanoTime() + (delay > 0L ? unit.toNanos(delay) : 0L);
+        InstrumentedTask task = new InstrumentedTask(run, si, eventLoop, queueDepth, due, period > 0L ? unit.toNanos(period) : 0L);
+        si.onEnqueue(eventLoop, run, due, queueDepth.incrementAndGet());
+        return task;
+    }
+
+    /**
+     * Reports the task as disposed if it is an instrumented task that hasn't started yet.
+     * @param run the task, possibly instrumented
+     */
+    static void disposed(Runnable run) {
+        if (run instanceof InstrumentedTask) {
+            ((InstrumentedTask)run).dispose();
+        }
+    }
+
+    /**
+     * Reports the task as rejected if it is an instrumented task.
+     * @param run the task, possibly instrumented
+     */
+    static void rejected(Runnable run) {
+        if (run instanceof InstrumentedTask) {
+            ((InstrumentedTask)run).reject();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!compareAndSet(WAITING, RUNNING)) {
+            // disposed but the executor run it anyway
+            actual.run();
+            return;
+        }
+        queueDepth.decrementAndGet();
+        SchedulerInstrumentation si = instrumentation;
+        long start = System.nanoTime();
+        si.onStart(eventLoop, actual, due, start);
+        try {
+            actual.run();
+        } finally {
+            si.onEnd(eventLoop, actual, start, System.nanoTime());
+            if (period == 0L) {
+                lazySet(FINISHED);
+            } else {
+                due += period;
+                int depth = queueDepth.incrementAndGet();
+                if (compareAndSet(RUNNING, WAITING)) {
+                    si.onEnqueue(eventLoop, actual, due, depth);
+                } else {
+                    queueDepth.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    void dispose() {
+        for (;;) {
+            int s = get();
+            if (s == WAITING) {
+                if (compareAndSet(WAITING, FINISHED)) {
+                    queueDepth.decrementAndGet();
+                    instrumentation.onDisposed(eventLoop, actual);
+                    return;
+                }
+            } else if (s == RUNNING && period != 0L) {
+                // stop the periodic task from being enqueued again
+                if (compareAndSet(RUNNING, FINISHED)) {
+                    instrumentation.onDisposed(eventLoop, actual);
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    void reject() {
+        if (compareAndSet(WAITING, FINISHED)) {
+            queueDepth.decrementAndGet();
+            instrumentation.onRejected(eventLoop, actual);
+        }
+    }
+
+    @Override
+    public Runnable getWrappedRunnable() {
+        return actual;
+    }
+}
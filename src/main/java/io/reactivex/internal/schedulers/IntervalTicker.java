@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * A periodic task shared by the {@code interval} sequences of the same {@link Scheduler} and period,
+ * used when {@link RxJavaPlugins#isSharedIntervalTicks()} is enabled.
+ * <p>
+ * Each tick hands the registered tick handlers off to their own workers of the scheduler, so a slow
+ * handler neither delays the others nor the next tick, and the handlers run in parallel like the
+ * unshared sequences would. The ticker starts with its first handler and stops with its last one.
+ * A late tick doesn't lead to a burst of catch-up ticks: the next tick is scheduled for the next
+ * period boundary still ahead.
+ */
+public final class IntervalTicker implements Runnable {
+
+    /** The active tickers, keyed by scheduler and period. */
+    static final ConcurrentMap<Key, IntervalTicker> TICKERS = new ConcurrentHashMap<Key, IntervalTicker>();
+
+    static final TickHandle[] EMPTY = new TickHandle[0];
+
+    final Key key;
+
+    final long period;
+
+    /** The current tick handlers, replaced while holding this ticker's lock. */
+    volatile TickHandle[] handlers;
+
+    /** Set once the last handler has been removed; a terminated ticker can't be restarted. */
+    boolean terminated;
+
+    Worker worker;
+
+    /** The due time of the next tick in nanoseconds, accessed by the ticking thread only. */
+    long deadline;
+
+    IntervalTicker(Key key) {
+        this.key = key;
+        this.period = key.period;
+        this.handlers = EMPTY;
+    }
+
+    /**
+     * Registers the handler to be run on each tick of the shared periodic task of the given scheduler and
+     * period, starting the task if needed.
+     * <p>
+     * The first tick the handler sees is the next tick of the shared task, at most one period away.
+     * The handler runs on its own worker of the scheduler, one tick at a time.
+     * @param scheduler the scheduler to tick on
+     * @param period the period, positive
+     * @param unit the unit of the period
+     * @param handler the handler to run on each tick
+     * @return the Disposable that removes the handler and stops the task with the last handler
+     */
+    public static Disposable add(Scheduler scheduler, long period, TimeUnit unit, Runnable handler) {
+        Key key = new Key(scheduler, unit.toNanos(period));
+        TickHandle h = new TickHandle(handler, scheduler.createWorker());
+        for (;;) {
+            IntervalTicker t = TICKERS.get(key);
+            if (t == null) {
+                t = new IntervalTicker(key);
+                IntervalTicker prev = TICKERS.putIfAbsent(key, t);
+                if (prev != null) {
+                    t = prev;
+                }
+            }
+            if (t.addHandler(h)) {
+                return h;
+            }
+            TICKERS.remove(key, t);
+        }
+    }
+
+    synchronized boolean addHandler(TickHandle handler) {
+        if (terminated) {
+            return false;
+        }
+        handler.ticker = this;
+        TickHandle[] a = handlers;
+        int n = a.length;
+        TickHandle[] b = new TickHandle[n + 1];
+        System.arraycopy(a, 0, b, 0, n);
+        b[n] = handler;
+        handlers = b;
+
+        if (n == 0) {
+            Worker w = key.scheduler.createWorker();
+            worker = w;
+            deadline = w.now(TimeUnit.NANOSECONDS) + period;
+            w.schedule(this, period, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    synchronized void removeHandler(TickHandle handler) {
+        TickHandle[] a = handlers;
+        int n = a.length;
+        int j = -1;
+        for (int i = 0; i < n; i++) {
+            if (a[i] == handler) {
+                j = i;
+                break;
+            }
+        }
+        if (j < 0) {
+            return;
+        }
+        if (n == 1) {
+            handlers = EMPTY;
+            terminated = true;
+            TICKERS.remove(key, this);
+            worker.dispose();
+            return;
+        }
+        TickHandle[] b = new TickHandle[n - 1];
+        System.arraycopy(a, 0, b, 0, j);
+        System.arraycopy(a, j + 1, b, j, n - j - 1);
+        handlers = b;
+    }
+
+    @Override
+    public void run() {
+        for (TickHandle h : handlers) {
+            if (!h.isDisposed()) {
+                h.worker.schedule(h);
+            }
+        }
+
+        Worker w = worker;
+        long now = w.now(TimeUnit.NANOSECONDS);
+        long next = nextDeadline(deadline, now, period);
+        deadline = next;
+        w.schedule(this, next - now, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the due time of the tick after the one due at the given deadline; if that time
+     * has already passed, the missed ticks are coalesced into the next period boundary still ahead.
+     * @param deadline the due time of the current tick
+     * @param now the current time
+     * @param period the period
+     * @return the due time of the next tick, after now
+     */
+    static long nextDeadline(long deadline, long now, long period) {
+        long next = deadline + period;
+        if (next <= now) {
+            next = now + period - (now - deadline) % period;
+        }
+        return next;
+    }
+
+    /**
+     * Returns the number of active tickers, for testing purposes.
+     * @return the number of active tickers
+     */
+    public static int activeTickers() {
+        return TICKERS.size();
+    }
+
+    static final class Key {
+
+        final Scheduler scheduler;
+
+        final long period;
+
+        Key(Scheduler scheduler, long period) {
+            this.scheduler = scheduler;
+            this.period = period;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key k = (Key)o;
+                return scheduler == k.scheduler && period == k.period;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(scheduler) * 31 + (int)(period ^ (period >>> 32));
+        }
+    }
+
+    /**
+     * A registered tick handler and its worker; runs the handler on each tick handed off to the worker.
+     */
+    static final class TickHandle extends AtomicBoolean implements Disposable, Runnable {
+
+        private static final long serialVersionUID = -5517262542539618224L;
+
+        final Runnable handler;
+
+        final Worker worker;
+
+        /** The ticker the handler was added to, set while holding the ticker's lock. */
+        IntervalTicker ticker;
+
+        TickHandle(Runnable handler, Worker worker) {
+            this.handler = handler;
+            this.worker = worker;
+        }
+
+        @Override
+        public void run() {
+            if (!get()) {
+                try {
+                    handler.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                ticker.removeHandler(this);
+                worker.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+}
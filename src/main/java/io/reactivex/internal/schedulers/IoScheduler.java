@@ -17,10 +17,11 @@
 package io.reactivex.internal.schedulers;
 
 import io.reactivex.Scheduler;
-import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.*;
 import io.reactivex.disposables.*;
 import io.reactivex.internal.disposables.EmptyDisposable;
 
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
@@ -41,8 +42,26 @@ public final class IoScheduler extends Scheduler {
     private static final long KEEP_ALIVE_TIME;
     private static final TimeUnit KEEP_ALIVE_UNIT = TimeUnit.SECONDS;
 
+    /**
+     * The name of the system property for setting the maximum number of threads of this Scheduler;
+     * zero or negative values mean unbounded.
+     */
+    private static final String KEY_MAX_THREADS = "rx2.io-max-threads";
+
+    static final int MAX_THREADS;
+
+    /**
+     * The name of the system property for reusing the most recently released worker first,
+     * letting the rarely used workers expire.
+     */
+    private static final String KEY_REUSE_LIFO = "rx2.io-reuse-lifo";
+
+    static final boolean REUSE_LIFO;
+
     static final ThreadWorker SHUTDOWN_THREAD_WORKER;
     final ThreadFactory threadFactory;
+    final int maxThreads;
+    final boolean reuseLifo;
     final AtomicReference<CachedWorkerPool> pool;
 
     /** The name of the system property for setting the thread priority for this Scheduler. */
@@ -53,7 +72,11 @@ public final class IoScheduler extends Scheduler {
     static {
         KEEP_ALIVE_TIME = Long.getLong(KEY_KEEP_ALIVE_TIME, KEEP_ALIVE_TIME_DEFAULT);
 
-        SHUTDOWN_THREAD_WORKER = new ThreadWorker(new RxThreadFactory("RxCachedThreadSchedulerShutdown"));
+        MAX_THREADS = Math.max(0, Integer.getInteger(KEY_MAX_THREADS, 0));
+
+        REUSE_LIFO = Boolean.getBoolean(KEY_REUSE_LIFO);
+
+        SHUTDOWN_THREAD_WORKER = new ThreadWorker(new RxThreadFactory("RxCachedThreadSchedulerShutdown"), null);
         SHUTDOWN_THREAD_WORKER.dispose();
 
         int priority = Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY,
@@ -68,27 +91,60 @@ public final class IoScheduler extends Scheduler {
     }
 
     static final class CachedWorkerPool implements Runnable {
-        private final long keepAliveTime;
-        private final ConcurrentLinkedQueue<ThreadWorker> expiringWorkerQueue;
+        final long keepAliveTime;
+        final ExpiringWorkerQueue expiringWorkerQueue;
         final CompositeDisposable allWorkers;
-        private final ScheduledExecutorService evictorService;
-        private final Future<?> evictorTask;
+        /** The evictor, started when the first worker is released, guarded by this. */
+        private ScheduledExecutorService evictorService;
+        private Future<?> evictorTask;
+        /** Indicates the evictor has been started or the pool has been shut down. */
+        volatile boolean evictorStarted;
+        private final TimeUnit keepAliveUnit;
         private final ThreadFactory threadFactory;
+        private final HashedWheelTimer timer;
+        /** The maximum number of live threads, zero means unbounded. */
+        final int maxThreads;
+        /** The number of live and reserved threads. */
+        final AtomicInteger threadCount;
+        /** The live workers, guarded by itself. */
+        final List<ThreadWorker> liveWorkers;
 
         CachedWorkerPool(long keepAliveTime, TimeUnit unit, ThreadFactory threadFactory) {
+            this(keepAliveTime, unit, threadFactory, null, 0, false);
+        }
+
+        CachedWorkerPool(long keepAliveTime, TimeUnit unit, ThreadFactory threadFactory, HashedWheelTimer timer,
+                int maxThreads, boolean reuseLifo) {
             this.keepAliveTime = unit != null ? unit.toNanos(keepAliveTime) : 0L;
-            this.expiringWorkerQueue = new ConcurrentLinkedQueue<ThreadWorker>();
+            this.expiringWorkerQueue = new ExpiringWorkerQueue(reuseLifo);
             this.allWorkers = new CompositeDisposable();
             this.threadFactory = threadFactory;
+            this.timer = timer;
+            this.maxThreads = maxThreads;
+            this.threadCount = new AtomicInteger();
+            this.liveWorkers = new ArrayList<ThreadWorker>();
+            this.keepAliveUnit = unit;
+        }
 
-            ScheduledExecutorService evictor = null;
-            Future<?> task = null;
-            if (unit != null) {
-                evictor = Executors.newScheduledThreadPool(1, EVICTOR_THREAD_FACTORY);
-                task = evictor.scheduleWithFixedDelay(this, this.keepAliveTime, this.keepAliveTime, TimeUnit.NANOSECONDS);
+        /**
+         * Starts the periodic eviction of the expired workers if it hasn't been started yet;
+         * there is nothing to evict before a worker gets released.
+         */
+        void startEvictor() {
+            if (evictorStarted) {
+                return;
+            }
+            synchronized (this) {
+                if (evictorStarted) {
+                    return;
+                }
+                evictorStarted = true;
+                if (keepAliveUnit != null) {
+                    ScheduledExecutorService evictor = Executors.newScheduledThreadPool(1, EVICTOR_THREAD_FACTORY);
+                    evictorTask = evictor.scheduleWithFixedDelay(this, keepAliveTime, keepAliveTime, TimeUnit.NANOSECONDS);
+                    evictorService = evictor;
+                }
             }
-            evictorService = evictor;
-            evictorTask = task;
         }
 
         @Override
@@ -97,44 +153,101 @@ public final class IoScheduler extends Scheduler {
         }
 
         ThreadWorker get() {
-            if (allWorkers.isDisposed()) {
-                return SHUTDOWN_THREAD_WORKER;
-            }
-            while (!expiringWorkerQueue.isEmpty()) {
+            for (;;) {
+                if (allWorkers.isDisposed()) {
+                    return SHUTDOWN_THREAD_WORKER;
+                }
                 ThreadWorker threadWorker = expiringWorkerQueue.poll();
                 if (threadWorker != null) {
+                    threadWorker.users.set(1);
                     return threadWorker;
                 }
+
+                if (reserve()) {
+                    // No cached worker found, so create a new one.
+                    ThreadWorker w = new ThreadWorker(threadFactory, timer);
+                    w.users.set(1);
+                    synchronized (liveWorkers) {
+                        liveWorkers.add(w);
+                    }
+                    allWorkers.add(w);
+                    return w;
+                }
+
+                // At the thread limit, share the least used busy thread.
+                ThreadWorker w = share();
+                if (w != null) {
+                    return w;
+                }
+                // all live workers are being released or evicted, retry
             }
+        }
+
+        boolean reserve() {
+            for (;;) {
+                int c = threadCount.get();
+                if (maxThreads > 0 && c >= maxThreads) {
+                    return false;
+                }
+                if (threadCount.compareAndSet(c, c + 1)) {
+                    return true;
+                }
+            }
+        }
 
-            // No cached worker found, so create a new one.
-            ThreadWorker w = new ThreadWorker(threadFactory);
-            allWorkers.add(w);
-            return w;
+        ThreadWorker share() {
+            synchronized (liveWorkers) {
+                ThreadWorker best = null;
+                int min = Integer.MAX_VALUE;
+                for (ThreadWorker w : liveWorkers) {
+                    int u = w.users.get();
+                    if (u > 0 && u < min) {
+                        min = u;
+                        best = w;
+                    }
+                }
+                // workers with no users are in the expiring queue and may only be taken from there
+                if (best != null && best.users.compareAndSet(min, min + 1)) {
+                    return best;
+                }
+            }
+            return null;
         }
 
         void release(ThreadWorker threadWorker) {
-            // Refresh expire time before putting worker back in pool
-            threadWorker.setExpirationTime(now() + keepAliveTime);
+            if (threadWorker.users.decrementAndGet() == 0) {
+                startEvictor();
+                expiringWorkerQueue.offer(threadWorker, this);
+            }
+        }
 
-            expiringWorkerQueue.offer(threadWorker);
+        void evict(ThreadWorker threadWorker) {
+            allWorkers.remove(threadWorker);
+            synchronized (liveWorkers) {
+                liveWorkers.remove(threadWorker);
+            }
+            threadCount.decrementAndGet();
+        }
+
+        long queuedTasks() {
+            long n = 0L;
+            synchronized (liveWorkers) {
+                for (ThreadWorker w : liveWorkers) {
+                    n += w.queueSize();
+                }
+            }
+            return n;
         }
 
         void evictExpiredWorkers() {
-            if (!expiringWorkerQueue.isEmpty()) {
-                long currentTimestamp = now();
-
-                for (ThreadWorker threadWorker : expiringWorkerQueue) {
-                    if (threadWorker.getExpirationTime() <= currentTimestamp) {
-                        if (expiringWorkerQueue.remove(threadWorker)) {
-                            allWorkers.remove(threadWorker);
-                        }
-                    } else {
-                        // Queue is ordered with the worker that will expire first in the beginning, so when we
-                        // find a non-expired worker we can stop evicting.
-                        break;
-                    }
+            long currentTimestamp = now();
+            // the oldest worker is evicted first and the first non-expired worker stops the eviction
+            for (;;) {
+                ThreadWorker threadWorker = expiringWorkerQueue.pollExpired(currentTimestamp);
+                if (threadWorker == null) {
+                    break;
                 }
+                evict(threadWorker);
             }
         }
 
@@ -144,11 +257,17 @@ public final class IoScheduler extends Scheduler {
 
         void shutdown() {
             allWorkers.dispose();
-            if (evictorTask != null) {
-                evictorTask.cancel(true);
+            synchronized (liveWorkers) {
+                liveWorkers.clear();
             }
-            if (evictorService != null) {
-                evictorService.shutdownNow();
+            synchronized (this) {
+                evictorStarted = true;
+                if (evictorTask != null) {
+                    evictorTask.cancel(true);
+                }
+                if (evictorService != null) {
+                    evictorService.shutdownNow();
+                }
             }
         }
     }
@@ -163,14 +282,41 @@ public final class IoScheduler extends Scheduler {
      *                      system properties for configuring new thread creation. Cannot be null.
      */
     public IoScheduler(ThreadFactory threadFactory) {
+        this(threadFactory, MAX_THREADS, REUSE_LIFO);
+    }
+
+    /**
+     * Constructs an IoScheduler with the given thread factory and thread limit and starts the pool of workers.
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param maxThreads the maximum number of live threads, beyond which new workers share the existing
+     *                   threads in a FIFO manner; zero or negative means unbounded
+     */
+    public IoScheduler(ThreadFactory threadFactory, int maxThreads) {
+        this(threadFactory, maxThreads, REUSE_LIFO);
+    }
+
+    /**
+     * Constructs an IoScheduler with the given thread factory, thread limit and reuse order and starts the pool of workers.
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param maxThreads the maximum number of live threads, beyond which new workers share the existing
+     *                   threads in a FIFO manner; zero or negative means unbounded
+     * @param reuseLifo if true, the most recently released worker thread is reused first, otherwise
+     *                  the least recently released one
+     */
+    public IoScheduler(ThreadFactory threadFactory, int maxThreads, boolean reuseLifo) {
         this.threadFactory = threadFactory;
+        this.maxThreads = Math.max(0, maxThreads);
+        this.reuseLifo = reuseLifo;
         this.pool = new AtomicReference<CachedWorkerPool>(NONE);
         start();
     }
 
     @Override
     public void start() {
-        CachedWorkerPool update = new CachedWorkerPool(KEEP_ALIVE_TIME, KEEP_ALIVE_UNIT, threadFactory);
+        CachedWorkerPool update = new CachedWorkerPool(KEEP_ALIVE_TIME, KEEP_ALIVE_UNIT, threadFactory,
+                HashedWheelTimer.sharedIfEnabled(), maxThreads, reuseLifo);
         if (!pool.compareAndSet(NONE, update)) {
             update.shutdown();
         }
@@ -200,6 +346,15 @@ public final class IoScheduler extends Scheduler {
         return pool.get().allWorkers.size();
     }
 
+    /**
+     * Returns the number of tasks waiting for execution on the live threads of this scheduler,
+     * including the delayed tasks.
+     * @return the number of queued tasks
+     */
+    public long queuedTasks() {
+        return pool.get().queuedTasks();
+    }
+
     static final class EventLoopWorker extends Scheduler.Worker {
         private final CompositeDisposable tasks;
         private final CachedWorkerPool pool;
@@ -238,13 +393,88 @@ public final class IoScheduler extends Scheduler {
 
             return threadWorker.scheduleActual(action, delayTime, unit, tasks);
         }
+
+        @NonNull
+        @Override
+        public Disposable scheduleAll(@NonNull Runnable[] actions) {
+            if (tasks.isDisposed()) {
+                NewThreadWorker.verifyTasks(actions);
+                return EmptyDisposable.INSTANCE;
+            }
+
+            return threadWorker.scheduleAllActual(actions, tasks);
+        }
+
+        @Override
+        public boolean runsOnCurrentThread() {
+            return !tasks.isDisposed() && threadWorker.runsOnCurrentThread();
+        }
+
+        @NonNull
+        @Override
+        public ReusableTask createReusableTask(@NonNull Runnable run) {
+            if (!ReusableScheduledTask.canDecorateOnce()) {
+                return super.createReusableTask(run);
+            }
+            return threadWorker.createReusableActual(run, tasks);
+        }
+    }
+
+    /**
+     * The idle workers ordered by their expiration time, the oldest first.
+     * Workers are reused from the newest end in LIFO mode and from the oldest end otherwise,
+     * and are always evicted from the oldest end.
+     */
+    static final class ExpiringWorkerQueue {
+        final ArrayDeque<ThreadWorker> workers;
+        final boolean lifo;
+
+        ExpiringWorkerQueue(boolean lifo) {
+            this.workers = new ArrayDeque<ThreadWorker>();
+            this.lifo = lifo;
+        }
+
+        @Nullable
+        ThreadWorker poll() {
+            synchronized (this) {
+                return lifo ? workers.pollLast() : workers.pollFirst();
+            }
+        }
+
+        void offer(ThreadWorker threadWorker, CachedWorkerPool pool) {
+            synchronized (this) {
+                // Refresh expire time before putting worker back in pool, inside the lock to keep the order
+                threadWorker.setExpirationTime(pool.now() + pool.keepAliveTime);
+                workers.offerLast(threadWorker);
+            }
+        }
+
+        @Nullable
+        ThreadWorker pollExpired(long now) {
+            synchronized (this) {
+                ThreadWorker threadWorker = workers.peekFirst();
+                if (threadWorker != null && threadWorker.getExpirationTime() <= now) {
+                    return workers.pollFirst();
+                }
+                return null;
+            }
+        }
+
+        int size() {
+            synchronized (this) {
+                return workers.size();
+            }
+        }
     }
 
     static final class ThreadWorker extends NewThreadWorker {
         private long expirationTime;
 
-        ThreadWorker(ThreadFactory threadFactory) {
-            super(threadFactory);
+        /** The number of EventLoopWorkers using this thread, zero while cached. */
+        final AtomicInteger users = new AtomicInteger();
+
+        ThreadWorker(ThreadFactory threadFactory, HashedWheelTimer timer) {
+            super(threadFactory, timer);
             this.expirationTime = 0L;
         }
 
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
+import io.reactivex.internal.schedulers.ExecutorScheduler.ExecutorWorker.BooleanRunnable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Limits the number of tasks running at once on an underlying Scheduler,
+ * across all of its workers.
+ * <p>
+ * A worker with queued tasks enters a shared, lock-free ready queue. A task of a ready
+ * worker is run by a dispatcher on the underlying Scheduler; a dispatcher is started only
+ * if it can take one of the {@code maxConcurrency} permits, and it keeps taking ready workers
+ * until the ready queue is empty, so a burst of tasks costs one hop to the underlying Scheduler
+ * per permit instead of one per task. A worker runs one task per turn and is in the ready
+ * queue at most once, which keeps its tasks in order and non-overlapping.
+ * <p>
+ * Unlike {@link SchedulerWhen} with a {@code merge(maxConcurrency)} combinator, a task doesn't
+ * allocate a {@code Completable} and isn't routed through processors.
+ */
+public final class LimitedScheduler extends Scheduler {
+
+    final Scheduler actual;
+
+    final int maxConcurrency;
+
+    /** The workers with queued tasks; a worker is in it at most once. */
+    final ConcurrentLinkedQueue<LimitedWorker> ready;
+
+    /** The number of permits taken by the dispatchers scheduled or running on the underlying Scheduler. */
+    final AtomicInteger active;
+
+    final Runnable dispatcher;
+
+    public LimitedScheduler(Scheduler actual, int maxConcurrency) {
+        this.actual = ObjectHelper.requireNonNull(actual, "actual is null");
+        this.maxConcurrency = ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        this.ready = new ConcurrentLinkedQueue<LimitedWorker>();
+        this.active = new AtomicInteger();
+        this.dispatcher = new Dispatcher();
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new LimitedWorker(this);
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        return actual.now(unit);
+    }
+
+    void makeReady(LimitedWorker w) {
+        ready.offer(w);
+        if (tryAcquire()) {
+            try {
+                actual.scheduleDirect(dispatcher);
+            } catch (Throwable ex) {
+                active.decrementAndGet();
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+    }
+
+    boolean tryAcquire() {
+        for (;;) {
+            int n = active.get();
+            if (n >= maxConcurrency) {
+                return false;
+            }
+            if (active.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    final class Dispatcher implements Runnable {
+        @Override
+        public void run() {
+            final ConcurrentLinkedQueue<LimitedWorker> q = ready;
+            for (;;) {
+                LimitedWorker w = q.poll();
+                if (w == null) {
+                    active.decrementAndGet();
+                    // a worker may have become ready after the poll but before the release
+                    if (q.isEmpty() || !tryAcquire()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (w.runOne()) {
+                    q.offer(w);
+                }
+            }
+        }
+    }
+
+    static final class LimitedWorker extends Scheduler.Worker {
+
+        final LimitedScheduler parent;
+
+        final MpscChunkedArrayQueue<Runnable> queue;
+
+        /** The number of queued tasks; the worker is in the ready queue while non-zero. */
+        final AtomicInteger wip;
+
+        final CompositeDisposable tasks;
+
+        volatile boolean disposed;
+
+        LimitedWorker(LimitedScheduler parent) {
+            this.parent = parent;
+            this.queue = new MpscChunkedArrayQueue<Runnable>();
+            this.wip = new AtomicInteger();
+            this.tasks = new CompositeDisposable();
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            return enqueue(RxJavaPlugins.onSchedule(run));
+        }
+
+        Disposable enqueue(Runnable decoratedRun) {
+            BooleanRunnable task = new BooleanRunnable(decoratedRun);
+            queue.offer(task);
+            if (wip.getAndIncrement() == 0) {
+                parent.makeReady(this);
+            }
+            return task;
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (delay <= 0L) {
+                return schedule(run);
+            }
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            DelayedTask task = new DelayedTask(this, RxJavaPlugins.onSchedule(run));
+            tasks.add(task);
+
+            Disposable d = parent.actual.scheduleDirect(task, delay, unit);
+            if (!task.compareAndSet(null, d) && task.get() == DisposableHelper.DISPOSED) {
+                d.dispose();
+            }
+            return task;
+        }
+
+        /**
+         * Runs the next queued task on the current dispatcher.
+         * @return true if the worker has more tasks queued
+         */
+        boolean runOne() {
+            Runnable task = queue.poll();
+            if (!disposed) {
+                try {
+                    task.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+            return wip.decrementAndGet() != 0;
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return parent.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                tasks.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Holds the timer of the underlying Scheduler until the task is due,
+     * then the task queued in the worker.
+     */
+    static final class DelayedTask extends AtomicReference<Disposable> implements Runnable, Disposable {
+
+        private static final long serialVersionUID = 2236185457512096542L;
+
+        final LimitedWorker worker;
+
+        final Runnable run;
+
+        DelayedTask(LimitedWorker worker, Runnable run) {
+            this.worker = worker;
+            this.run = run;
+        }
+
+        @Override
+        public void run() {
+            worker.tasks.delete(this);
+            if (worker.disposed || get() == DisposableHelper.DISPOSED) {
+                return;
+            }
+            DisposableHelper.replace(this, worker.enqueue(run));
+        }
+
+        @Override
+        public void dispose() {
+            if (DisposableHelper.dispose(this)) {
+                worker.tasks.delete(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(get());
+        }
+    }
+}
@@ -28,17 +28,26 @@ public final class NewThreadScheduler extends Scheduler {
 
     final ThreadFactory threadFactory;
 
+    final WaitStrategy waitStrategy;
+
     private static final String THREAD_NAME_PREFIX = "RxNewThreadScheduler";
     private static final RxThreadFactory THREAD_FACTORY;
 
     /** The name of the system property for setting the thread priority for this Scheduler. */
     private static final String KEY_NEWTHREAD_PRIORITY = "rx2.newthread-priority";
 
+    /** The name of the system property for setting how the threads of this Scheduler wait for tasks. */
+    private static final String KEY_NEWTHREAD_WAIT_STRATEGY = "rx2.newthread-wait-strategy";
+
+    private static final WaitStrategy WAIT_STRATEGY;
+
     static {
         int priority = Math.max(Thread.MIN_PRIORITY, Math.min(Thread.MAX_PRIORITY,
                 Integer.getInteger(KEY_NEWTHREAD_PRIORITY, Thread.NORM_PRIORITY)));
 
         THREAD_FACTORY = new RxThreadFactory(THREAD_NAME_PREFIX, priority);
+
+        WAIT_STRATEGY = WaitStrategy.fromName(System.getProperty(KEY_NEWTHREAD_WAIT_STRATEGY));
     }
 
     public NewThreadScheduler() {
@@ -46,12 +55,22 @@ public final class NewThreadScheduler extends Scheduler {
     }
 
     public NewThreadScheduler(ThreadFactory threadFactory) {
+        this(threadFactory, WAIT_STRATEGY);
+    }
+
+    /**
+     * Constructs a NewThreadScheduler whose worker threads wait for tasks according to the given strategy.
+     * @param threadFactory the factory for the worker threads
+     * @param waitStrategy the way the worker threads wait for tasks
+     */
+    public NewThreadScheduler(ThreadFactory threadFactory, WaitStrategy waitStrategy) {
         this.threadFactory = threadFactory;
+        this.waitStrategy = waitStrategy;
     }
 
     @NonNull
     @Override
     public Worker createWorker() {
-        return new NewThreadWorker(threadFactory);
+        return new NewThreadWorker(threadFactory, null, waitStrategy);
     }
 }
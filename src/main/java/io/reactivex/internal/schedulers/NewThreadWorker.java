@@ -14,26 +14,91 @@
 package io.reactivex.internal.schedulers;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.ReusableTask;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.*;
 import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * Base class that manages a single-threaded ScheduledExecutorService as a
  * worker but doesn't perform task-tracking operations.
- *
+ * <p>
+ * The delayed tasks are either scheduled on the executor itself or
+ * on an optional {@link HashedWheelTimer} that hands them off to the executor when due.
+ * With a spinning {@link WaitStrategy}, the executor is a {@link SpinningEventLoop}
+ * and the delayed tasks are always timed by a {@link HashedWheelTimer}.
  */
 public class NewThreadWorker extends Scheduler.Worker implements Disposable {
-    private final ScheduledExecutorService executor;
+    /** A ScheduledExecutorService if {@link #timer} is null. */
+    private final ExecutorService executor;
+
+    @Nullable
+    private final HashedWheelTimer timer;
+
+    /** The number of queued tasks while a {@link io.reactivex.schedulers.SchedulerInstrumentation} is set. */
+    final AtomicInteger queueDepth = new AtomicInteger();
 
     volatile boolean disposed;
 
+    /** The thread of the executor, set when the executor creates it. */
+    volatile Thread thread;
+
+    /** The time a parked thread pool keeps its idle thread alive. */
+    static final long PARKED_KEEP_ALIVE_SECONDS = 60L;
+
     public NewThreadWorker(ThreadFactory threadFactory) {
-        executor = SchedulerPoolFactory.create(threadFactory);
+        this(threadFactory, null);
+    }
+
+    /**
+     * Constructs a NewThreadWorker with the given thread factory and optional timer.
+     * @param threadFactory the factory for the backing thread
+     * @param timer the timer for the delayed and periodic tasks, if null, the executor is used
+     */
+    public NewThreadWorker(ThreadFactory threadFactory, @Nullable HashedWheelTimer timer) {
+        this(threadFactory, timer, WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * Constructs a NewThreadWorker with the given thread factory, optional timer and wait strategy.
+     * @param threadFactory the factory for the backing thread
+     * @param timer the timer for the delayed and periodic tasks, if null, the executor is used
+     *              with the {@link WaitStrategy#BLOCKING} strategy and the shared timer otherwise
+     * @param waitStrategy the way the backing thread waits for tasks
+     */
+    public NewThreadWorker(ThreadFactory threadFactory, @Nullable HashedWheelTimer timer, WaitStrategy waitStrategy) {
+        this(threadFactory, timer, waitStrategy, false);
+    }
+
+    /**
+     * Constructs a NewThreadWorker with the given thread factory, optional timer and wait strategy,
+     * optionally keeping track of whether the backing thread is idle.
+     * @param threadFactory the factory for the backing thread
+     * @param timer the timer for the delayed and periodic tasks, if null, the executor is used
+     *              with the {@link WaitStrategy#BLOCKING} strategy and the shared timer otherwise
+     * @param waitStrategy the way the backing thread waits for tasks
+     * @param trackIdle if true, {@link #isIdle()} also reports whether the thread of the {@link WaitStrategy#BLOCKING}
+     *              strategy runs a task, at the cost of two volatile writes per task
+     */
+    NewThreadWorker(ThreadFactory threadFactory, @Nullable HashedWheelTimer timer, WaitStrategy waitStrategy, boolean trackIdle) {
+        ThreadFactory ownThreadFactory = new OwnThreadFactory(threadFactory);
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            if (trackIdle) {
+                executor = SchedulerPoolFactory.configure(new IdleTrackingExecutor(ownThreadFactory));
+            } else {
+                executor = SchedulerPoolFactory.create(ownThreadFactory);
+            }
+            this.timer = timer;
+        } else {
+            executor = new SpinningEventLoop(ownThreadFactory, waitStrategy);
+            this.timer = timer != null ? timer : HashedWheelTimer.shared();
+        }
     }
 
     @NonNull
@@ -51,6 +116,34 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
         return scheduleActual(action, delayTime, unit, null);
     }
 
+    @NonNull
+    @Override
+    public Disposable scheduleAll(@NonNull Runnable[] tasks) {
+        if (disposed) {
+            verifyTasks(tasks);
+            return EmptyDisposable.INSTANCE;
+        }
+        return scheduleAllActual(tasks, null);
+    }
+
+    @Override
+    public boolean runsOnCurrentThread() {
+        return !disposed && Thread.currentThread() == thread;
+    }
+
+    @NonNull
+    @Override
+    public ReusableTask createReusableTask(@NonNull Runnable run) {
+        if (!ReusableScheduledTask.canDecorateOnce()) {
+            return super.createReusableTask(run);
+        }
+        ReusableTask task = createReusableActual(run, null);
+        if (disposed) {
+            task.dispose();
+        }
+        return task;
+    }
+
     /**
      * Schedules the given runnable on the underlying executor directly and
      * returns its future wrapped into a Disposable.
@@ -60,17 +153,21 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
      * @return the ScheduledRunnable instance
      */
     public Disposable scheduleDirect(final Runnable run, long delayTime, TimeUnit unit) {
-        ScheduledDirectTask task = new ScheduledDirectTask(RxJavaPlugins.onSchedule(run));
+        ScheduledDirectTask task = new ScheduledDirectTask(
+                InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), this, queueDepth, delayTime, 0L, unit));
         try {
             Future<?> f;
             if (delayTime <= 0L) {
                 f = executor.submit(task);
+            } else if (timer != null) {
+                f = timer.schedule(task, executor, delayTime, unit);
             } else {
-                f = executor.schedule(task, delayTime, unit);
+                f = ((ScheduledExecutorService)executor).schedule(task, delayTime, unit);
             }
             task.setFuture(f);
             return task;
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
             RxJavaPlugins.onError(ex);
             return EmptyDisposable.INSTANCE;
         }
@@ -94,8 +191,10 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
                 Future<?> f;
                 if (initialDelay <= 0L) {
                     f = executor.submit(periodicWrapper);
+                } else if (timer != null) {
+                    f = timer.schedule(periodicWrapper, executor, initialDelay, unit);
                 } else {
-                    f = executor.schedule(periodicWrapper, initialDelay, unit);
+                    f = ((ScheduledExecutorService)executor).schedule(periodicWrapper, initialDelay, unit);
                 }
                 periodicWrapper.setFirst(f);
             } catch (RejectedExecutionException ex) {
@@ -105,12 +204,19 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
 
             return periodicWrapper;
         }
-        ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(decoratedRun);
+        ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(
+                InstrumentedTask.wrap(decoratedRun, this, queueDepth, initialDelay, period, unit));
         try {
-            Future<?> f = executor.scheduleAtFixedRate(task, initialDelay, period, unit);
+            Future<?> f;
+            if (timer != null) {
+                f = timer.schedulePeriodic(task, executor, initialDelay, period, unit);
+            } else {
+                f = ((ScheduledExecutorService)executor).scheduleAtFixedRate(task, initialDelay, period, unit);
+            }
             task.setFuture(f);
             return task;
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
             RxJavaPlugins.onError(ex);
             return EmptyDisposable.INSTANCE;
         }
@@ -129,12 +235,13 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
      */
     @NonNull
     public ScheduledRunnable scheduleActual(final Runnable run, long delayTime, @NonNull TimeUnit unit, @Nullable DisposableContainer parent) {
-        Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
+        Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), this, queueDepth, delayTime, 0L, unit);
 
         ScheduledRunnable sr = new ScheduledRunnable(decoratedRun, parent);
 
         if (parent != null) {
             if (!parent.add(sr)) {
+                InstrumentedTask.disposed(decoratedRun);
                 return sr;
             }
         }
@@ -143,11 +250,14 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
         try {
             if (delayTime <= 0) {
                 f = executor.submit((Callable<Object>)sr);
+            } else if (timer != null) {
+                f = timer.schedule(sr, executor, delayTime, unit);
             } else {
-                f = executor.schedule((Callable<Object>)sr, delayTime, unit);
+                f = ((ScheduledExecutorService)executor).schedule((Callable<Object>)sr, delayTime, unit);
             }
             sr.setFuture(f);
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(decoratedRun);
             if (parent != null) {
                 parent.remove(sr);
             }
@@ -157,6 +267,154 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
         return sr;
     }
 
+    /**
+     * Wraps the given runnables into ScheduledRunnables and submits them
+     * to the underlying executor as a single task running them in order.
+     * <p>The ScheduledRunnables disposed before their turn are skipped; they are not interrupted
+     * when disposed while running.
+     * @param tasks the runnables to execute, not null and not containing nulls
+     * @param parent the optional tracker parent to add the created ScheduledRunnable instances to before they get scheduled
+     * @return the Disposable of the whole batch
+     */
+    @NonNull
+    public Disposable scheduleAllActual(Runnable[] tasks, @Nullable DisposableContainer parent) {
+        int n = verifyTasks(tasks);
+        if (n == 0) {
+            return EmptyDisposable.INSTANCE;
+        }
+        ScheduledRunnable[] srs = new ScheduledRunnable[n];
+        for (int i = 0; i < n; i++) {
+            Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(tasks[i]), this, queueDepth);
+
+            ScheduledRunnable sr = new ScheduledRunnable(decoratedRun, parent);
+
+            if (parent != null) {
+                if (!parent.add(sr)) {
+                    // the parent disposed the tasks added so far
+                    InstrumentedTask.disposed(decoratedRun);
+                    return EmptyDisposable.INSTANCE;
+                }
+            }
+            srs[i] = sr;
+        }
+
+        ScheduledBatch batch = new ScheduledBatch(srs);
+        try {
+            batch.setFuture(executor.submit((Callable<Object>)batch));
+        } catch (RejectedExecutionException ex) {
+            for (ScheduledRunnable sr : srs) {
+                InstrumentedTask.rejected(sr.actual);
+                if (parent != null) {
+                    parent.remove(sr);
+                }
+            }
+            RxJavaPlugins.onError(ex);
+        }
+        return batch;
+    }
+
+    /**
+     * Creates a task handle that submits itself to the underlying executor on each schedule,
+     * without allocating a ScheduledRunnable per execution.
+     * <p>If the parent has been disposed already, the returned handle is disposed as well.
+     * @param run the runnable instance
+     * @param parent the optional tracker parent to add the handle to
+     * @return the {@link ReusableScheduledTask} instance
+     */
+    @NonNull
+    public ReusableTask createReusableActual(Runnable run, @Nullable DisposableContainer parent) {
+        ObjectHelper.requireNonNull(run, "run is null");
+        ReusableScheduledTask task = new ReusableScheduledTask(this, RxJavaPlugins.onSchedule(run), parent);
+        if (parent != null && !parent.add(task)) {
+            task.disposed = true;
+        }
+        return task;
+    }
+
+    /**
+     * Verifies the array of tasks and its elements are not null.
+     * @param tasks the array of tasks
+     * @return the number of tasks
+     * @throws NullPointerException if the array or any of its elements is null
+     */
+    static int verifyTasks(Runnable[] tasks) {
+        ObjectHelper.requireNonNull(tasks, "tasks is null");
+        int n = tasks.length;
+        for (int i = 0; i < n; i++) {
+            ObjectHelper.requireNonNull(tasks[i], "The tasks array contains a null");
+        }
+        return n;
+    }
+
+    /**
+     * Submits the given task to the underlying executor without decorating
+     * or tracking it.
+     * @param run the task to execute
+     * @return the Future of the task
+     * @throws RejectedExecutionException if the executor has been shut down
+     */
+    Future<?> submitRaw(Runnable run) {
+        return executor.submit(run);
+    }
+
+    /**
+     * Hands the given task to the underlying executor without decorating,
+     * tracking or returning a Future for it.
+     * @param run the task to execute
+     * @throws RejectedExecutionException if the executor has been shut down
+     */
+    void executeRaw(Runnable run) {
+        executor.execute(run);
+    }
+
+    /**
+     * Returns the number of tasks waiting in the queue of the underlying executor,
+     * including the delayed tasks.
+     * @return the number of queued tasks
+     */
+    int queueSize() {
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor)executor).getQueue().size();
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true if the backing thread is waiting for tasks, as far as this worker keeps track of it:
+     * a spinning event loop always does, a blocking one only if constructed to do so;
+     * otherwise the thread is reported idle.
+     * @return true if the backing thread is waiting for tasks
+     */
+    boolean isIdle() {
+        ExecutorService exec = executor;
+        if (exec instanceof IdleTrackingExecutor) {
+            return ((IdleTrackingExecutor)exec).idle;
+        }
+        if (exec instanceof SpinningEventLoop) {
+            return ((SpinningEventLoop)exec).isIdle();
+        }
+        return true;
+    }
+
+    /**
+     * Lets the backing thread go idle while no new work is assigned to this worker:
+     * a thread pool lets its thread exit after being idle for a while and creates a new one
+     * for the next task, a spinning event loop blocks instead of spinning while its queue is empty.
+     * @param parked true to park the worker, false to restore the normal waiting behavior
+     */
+    void park(boolean parked) {
+        ExecutorService exec = executor;
+        if (exec instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor tpe = (ThreadPoolExecutor)exec;
+            if (parked) {
+                tpe.setKeepAliveTime(PARKED_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            }
+            tpe.allowCoreThreadTimeOut(parked);
+        } else if (exec instanceof SpinningEventLoop) {
+            ((SpinningEventLoop)exec).parked = parked;
+        }
+    }
+
     @Override
     public void dispose() {
         if (!disposed) {
@@ -179,4 +437,46 @@ public class NewThreadWorker extends Scheduler.Worker implements Disposable {
     public boolean isDisposed() {
         return disposed;
     }
+
+    /**
+     * Remembers the thread created for the executor; the executor replaces its thread
+     * through the factory if it dies.
+     */
+    final class OwnThreadFactory implements ThreadFactory {
+        final ThreadFactory actual;
+
+        OwnThreadFactory(ThreadFactory actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = actual.newThread(r);
+            thread = t;
+            return t;
+        }
+    }
+
+    /**
+     * A single-threaded ScheduledThreadPoolExecutor that clears its idle flag while its thread runs a task.
+     */
+    static final class IdleTrackingExecutor extends ScheduledThreadPoolExecutor {
+
+        volatile boolean idle;
+
+        IdleTrackingExecutor(ThreadFactory threadFactory) {
+            super(1, threadFactory);
+            this.idle = true;
+        }
+
+        @Override
+        protected void beforeExecute(Thread t, Runnable r) {
+            idle = false;
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            idle = true;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import io.reactivex.Scheduler.ReusableTask;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.internal.disposables.DisposableContainer;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.SchedulerRunnableIntrospection;
+
+/**
+ * A {@link ReusableTask} of a {@link NewThreadWorker} that hands itself to the executor on each
+ * {@link #schedule()} instead of a new {@link ScheduledRunnable}.
+ * <p>
+ * The task is added to its parent container once, when created, and removed when disposed.
+ * Disposing it doesn't interrupt a running execution; a pending execution is skipped
+ * when the executor gets to it.
+ */
+final class ReusableScheduledTask implements ReusableTask, Runnable, SchedulerRunnableIntrospection {
+
+    final NewThreadWorker worker;
+
+    final Runnable decoratedRun;
+
+    @Nullable
+    final DisposableContainer parent;
+
+    volatile boolean disposed;
+
+    ReusableScheduledTask(NewThreadWorker worker, Runnable decoratedRun, @Nullable DisposableContainer parent) {
+        this.worker = worker;
+        this.decoratedRun = decoratedRun;
+        this.parent = parent;
+    }
+
+    /**
+     * Returns true if a reusable task may apply {@link RxJavaPlugins#onSchedule(Runnable)} only once, when
+     * created; otherwise a schedule handler or a {@link io.reactivex.schedulers.CpuAccounting CpuAccounting} is
+     * installed and expects to see each schedule, so the Worker's default per-schedule handle has to be used.
+     * @return true if the task may be decorated once
+     */
+    static boolean canDecorateOnce() {
+        return RxJavaPlugins.getScheduleHandler() == null && RxJavaPlugins.getCpuAccounting() == null;
+    }
+
+    @Override
+    public void schedule() {
+        if (disposed || worker.disposed) {
+            return;
+        }
+        // wrapping only allocates while a SchedulerInstrumentation is set
+        Runnable task = InstrumentedTask.wrap(this, worker, worker.queueDepth);
+        try {
+            worker.executeRaw(task);
+        } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task);
+            dispose();
+            RxJavaPlugins.onError(ex);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (disposed) {
+            return;
+        }
+        try {
+            decoratedRun.run();
+        } catch (Throwable e) {
+            // Exceptions.throwIfFatal(e); nowhere to go
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            DisposableContainer p = parent;
+            if (p != null) {
+                p.delete(this);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    @Override
+    public Runnable getWrappedRunnable() {
+        return decoratedRun;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Runs a batch of {@link ScheduledRunnable}s submitted to an executor as a single task,
+ * skipping the ones disposed before their turn.
+ * <p>
+ * Disposing the batch disposes all of its tasks and cancels the batch's future without
+ * interrupting it. The individual tasks don't have a future of their own and are not
+ * interrupted when disposed while running.
+ */
+final class ScheduledBatch extends AtomicReference<Object> implements Callable<Object>, Disposable {
+
+    private static final long serialVersionUID = -4315318356389441306L;
+
+    static final Object DONE = new Object();
+
+    static final Object DISPOSED = new Object();
+
+    final ScheduledRunnable[] tasks;
+
+    ScheduledBatch(ScheduledRunnable[] tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public Object call() {
+        for (ScheduledRunnable sr : tasks) {
+            if (get() == DISPOSED) {
+                break;
+            }
+            if (!sr.isCancelled()) {
+                sr.run();
+            }
+        }
+        for (;;) {
+            Object o = get();
+            if (o == DISPOSED || compareAndSet(o, DONE)) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    void setFuture(Future<?> f) {
+        for (;;) {
+            Object o = get();
+            if (o == DONE) {
+                return;
+            }
+            if (o == DISPOSED) {
+                f.cancel(false);
+                return;
+            }
+            if (compareAndSet(o, f)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        Object o = get();
+        if (o != DONE && o != DISPOSED) {
+            o = getAndSet(DISPOSED);
+            if (o != DONE && o != DISPOSED) {
+                for (ScheduledRunnable sr : tasks) {
+                    sr.dispose();
+                }
+                if (o != null) {
+                    ((Future<?>)o).cancel(false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        Object o = get();
+        return o == DONE || o == DISPOSED;
+    }
+}
@@ -116,6 +116,7 @@ implements Runnable, Callable<Object>, Disposable {
                 if (o != null) {
                     ((Future<?>)o).cancel(async);
                 }
+                InstrumentedTask.disposed(actual);
                 break;
             }
         }
@@ -132,6 +133,15 @@ implements Runnable, Callable<Object>, Disposable {
         }
     }
 
+    /**
+     * Returns true if this task has been disposed before it completed.
+     * @return true if this task has been disposed before it completed
+     */
+    boolean isCancelled() {
+        Object o = get(FUTURE_INDEX);
+        return o == SYNC_DISPOSED || o == ASYNC_DISPOSED;
+    }
+
     @Override
     public boolean isDisposed() {
         Object o = get(PARENT_INDEX);
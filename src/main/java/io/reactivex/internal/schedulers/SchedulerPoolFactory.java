@@ -16,12 +16,18 @@
 
 package io.reactivex.internal.schedulers;
 
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manages the creating of ScheduledExecutorServices and sets up purging.
+ * <p>
+ * The ScheduledExecutorServices are created with the remove-on-cancel policy enabled
+ * where the runtime supports it (Java 7+ and Android API 21+) so that cancelled delayed tasks
+ * leave the work queue immediately. The periodic purge thread is only started for the
+ * pools that couldn't be switched to this policy.
  */
 public final class SchedulerPoolFactory {
     /** Utility class. */
@@ -43,6 +49,12 @@ public final class SchedulerPoolFactory {
      */
     public static final int PURGE_PERIOD_SECONDS;
 
+    /**
+     * The {@code ScheduledThreadPoolExecutor.setRemoveOnCancelPolicy} method or null
+     * if the runtime doesn't support it.
+     */
+    static final Method SET_REMOVE_ON_CANCEL_POLICY = findRemoveOnCancelPolicy();
+
     static final AtomicReference<ScheduledExecutorService> PURGE_THREAD =
             new AtomicReference<ScheduledExecutorService>();
 
@@ -52,10 +64,11 @@ public final class SchedulerPoolFactory {
             new ConcurrentHashMap<ScheduledThreadPoolExecutor, Object>();
 
     /**
-     * Starts the purge thread if not already started.
+     * Starts the purge thread if not already started and the runtime doesn't
+     * support removing cancelled tasks eagerly.
      */
     public static void start() {
-        tryStart(PURGE_ENABLED);
+        tryStart(PURGE_ENABLED && SET_REMOVE_ON_CANCEL_POLICY == null);
     }
 
     static void tryStart(boolean purgeEnabled) {
@@ -132,11 +145,51 @@ public final class SchedulerPoolFactory {
      * @return the ScheduledExecutorService
      */
     public static ScheduledExecutorService create(ThreadFactory factory) {
-        final ScheduledExecutorService exec = Executors.newScheduledThreadPool(1, factory);
-        tryPutIntoPool(PURGE_ENABLED, exec);
+        return configure(Executors.newScheduledThreadPool(1, factory));
+    }
+
+    /**
+     * Makes the given ScheduledExecutorService remove its cancelled tasks, either immediately
+     * or by purging it periodically.
+     * @param <T> the executor type
+     * @param exec the ScheduledExecutorService to configure
+     * @return the exec
+     */
+    static <T extends ScheduledExecutorService> T configure(T exec) {
+        if (!tryEnableRemoveOnCancel(SET_REMOVE_ON_CANCEL_POLICY, exec)) {
+            tryPutIntoPool(PURGE_ENABLED, exec);
+        }
         return exec;
     }
 
+    static Method findRemoveOnCancelPolicy() {
+        try {
+            return ScheduledThreadPoolExecutor.class.getMethod("setRemoveOnCancelPolicy", Boolean.TYPE);
+        } catch (Throwable ex) {
+            // Java 6 or older Android, the pools have to be purged periodically
+            return null;
+        }
+    }
+
+    /**
+     * Tries to make the given ScheduledExecutorService remove its cancelled tasks from
+     * its work queue immediately.
+     * @param method the setRemoveOnCancelPolicy method, null if not supported
+     * @param exec the ScheduledExecutorService to configure
+     * @return true if the policy was enabled and the executor doesn't need purging
+     */
+    static boolean tryEnableRemoveOnCancel(Method method, ScheduledExecutorService exec) {
+        if (method != null && exec instanceof ScheduledThreadPoolExecutor) {
+            try {
+                method.invoke(exec, true);
+                return true;
+            } catch (Throwable ex) {
+                // fall back to purging
+            }
+        }
+        return false;
+    }
+
     static void tryPutIntoPool(boolean purgeEnabled, ScheduledExecutorService exec) {
         if (purgeEnabled && exec instanceof ScheduledThreadPoolExecutor) {
             ScheduledThreadPoolExecutor e = (ScheduledThreadPoolExecutor) exec;
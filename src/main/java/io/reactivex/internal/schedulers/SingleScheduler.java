@@ -14,12 +14,13 @@ package io.reactivex.internal.schedulers;
 
 import io.reactivex.Scheduler;
 import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.*;
 import io.reactivex.internal.disposables.EmptyDisposable;
 import io.reactivex.plugins.RxJavaPlugins;
 
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
 
 /**
  * A scheduler with a shared, single threaded underlying ScheduledExecutorService.
@@ -29,6 +30,10 @@ public final class SingleScheduler extends Scheduler {
 
     final ThreadFactory threadFactory;
     final AtomicReference<ScheduledExecutorService> executor = new AtomicReference<ScheduledExecutorService>();
+    /** If true, the delayed and periodic tasks are timed by the shared {@link HashedWheelTimer}. */
+    final boolean useTimer;
+    /** The number of queued tasks while a {@link io.reactivex.schedulers.SchedulerInstrumentation} is set. */
+    final AtomicInteger queueDepth = new AtomicInteger();
 
     /** The name of the system property for setting the thread priority for this Scheduler. */
     private static final String KEY_SINGLE_PRIORITY = "rx2.single-priority";
@@ -59,10 +64,28 @@ public final class SingleScheduler extends Scheduler {
      *                      system properties for configuring new thread creation. Cannot be null.
      */
     public SingleScheduler(ThreadFactory threadFactory) {
+        this(threadFactory, HashedWheelTimer.ENABLED);
+    }
+
+    /**
+     * Constructs a SingleScheduler with the given ThreadFactory and prepares the
+     * single scheduler thread.
+     * @param threadFactory thread factory to use for creating worker threads. Note that this takes precedence over any
+     *                      system properties for configuring new thread creation. Cannot be null.
+     * @param useTimer if true, the delayed and periodic tasks are timed by the shared {@link HashedWheelTimer}
+     *                 instead of the underlying executor
+     */
+    public SingleScheduler(ThreadFactory threadFactory, boolean useTimer) {
         this.threadFactory = threadFactory;
+        this.useTimer = useTimer;
         executor.lazySet(createExecutor(threadFactory));
     }
 
+    @Nullable
+    HashedWheelTimer timer() {
+        return useTimer ? HashedWheelTimer.shared() : null;
+    }
+
     static ScheduledExecutorService createExecutor(ThreadFactory threadFactory) {
         return SchedulerPoolFactory.create(threadFactory);
     }
@@ -102,23 +125,29 @@ public final class SingleScheduler extends Scheduler {
     @NonNull
     @Override
     public Worker createWorker() {
-        return new ScheduledWorker(executor.get());
+        return new ScheduledWorker(executor.get(), timer(), queueDepth);
     }
 
     @NonNull
     @Override
     public Disposable scheduleDirect(@NonNull Runnable run, long delay, TimeUnit unit) {
-        ScheduledDirectTask task = new ScheduledDirectTask(RxJavaPlugins.onSchedule(run));
+        ScheduledExecutorService exec = executor.get();
+        ScheduledDirectTask task = new ScheduledDirectTask(
+                InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), exec, queueDepth, delay, 0L, unit));
         try {
             Future<?> f;
+            HashedWheelTimer timer = timer();
             if (delay <= 0L) {
-                f = executor.get().submit(task);
+                f = exec.submit(task);
+            } else if (timer != null) {
+                f = timer.schedule(task, exec, delay, unit);
             } else {
-                f = executor.get().schedule(task, delay, unit);
+                f = exec.schedule(task, delay, unit);
             }
             task.setFuture(f);
             return task;
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
             RxJavaPlugins.onError(ex);
             return EmptyDisposable.INSTANCE;
         }
@@ -131,12 +160,15 @@ public final class SingleScheduler extends Scheduler {
         if (period <= 0L) {
 
             ScheduledExecutorService exec = executor.get();
+            HashedWheelTimer timer = timer();
 
             InstantPeriodicTask periodicWrapper = new InstantPeriodicTask(decoratedRun, exec);
             Future<?> f;
             try {
                 if (initialDelay <= 0L) {
                     f = exec.submit(periodicWrapper);
+                } else if (timer != null) {
+                    f = timer.schedule(periodicWrapper, exec, initialDelay, unit);
                 } else {
                     f = exec.schedule(periodicWrapper, initialDelay, unit);
                 }
@@ -148,12 +180,21 @@ public final class SingleScheduler extends Scheduler {
 
             return periodicWrapper;
         }
-        ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(decoratedRun);
+        ScheduledExecutorService exec = executor.get();
+        ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(
+                InstrumentedTask.wrap(decoratedRun, exec, queueDepth, initialDelay, period, unit));
         try {
-            Future<?> f = executor.get().scheduleAtFixedRate(task, initialDelay, period, unit);
+            Future<?> f;
+            HashedWheelTimer timer = timer();
+            if (timer != null) {
+                f = timer.schedulePeriodic(task, exec, initialDelay, period, unit);
+            } else {
+                f = exec.scheduleAtFixedRate(task, initialDelay, period, unit);
+            }
             task.setFuture(f);
             return task;
         } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
             RxJavaPlugins.onError(ex);
             return EmptyDisposable.INSTANCE;
         }
@@ -163,12 +204,19 @@ public final class SingleScheduler extends Scheduler {
 
         final ScheduledExecutorService executor;
 
+        @Nullable
+        final HashedWheelTimer timer;
+
+        final AtomicInteger queueDepth;
+
         final CompositeDisposable tasks;
 
         volatile boolean disposed;
 
-        ScheduledWorker(ScheduledExecutorService executor) {
+        ScheduledWorker(ScheduledExecutorService executor, @Nullable HashedWheelTimer timer, AtomicInteger queueDepth) {
             this.executor = executor;
+            this.timer = timer;
+            this.queueDepth = queueDepth;
             this.tasks = new CompositeDisposable();
         }
 
@@ -179,7 +227,7 @@ public final class SingleScheduler extends Scheduler {
                 return EmptyDisposable.INSTANCE;
             }
 
-            Runnable decoratedRun = RxJavaPlugins.onSchedule(run);
+            Runnable decoratedRun = InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), executor, queueDepth, delay, 0L, unit);
 
             ScheduledRunnable sr = new ScheduledRunnable(decoratedRun, tasks);
             tasks.add(sr);
@@ -188,12 +236,15 @@ public final class SingleScheduler extends Scheduler {
                 Future<?> f;
                 if (delay <= 0L) {
                     f = executor.submit((Callable<Object>)sr);
+                } else if (timer != null) {
+                    f = timer.schedule(sr, executor, delay, unit);
                 } else {
                     f = executor.schedule((Callable<Object>)sr, delay, unit);
                 }
 
                 sr.setFuture(f);
             } catch (RejectedExecutionException ex) {
+                InstrumentedTask.rejected(decoratedRun);
                 dispose();
                 RxJavaPlugins.onError(ex);
                 return EmptyDisposable.INSTANCE;
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * A single-threaded executor running its tasks in FIFO order from a lock-free
+ * multi-producer queue and waiting for new tasks according to a {@link WaitStrategy}.
+ * <p>
+ * Submitting a task doesn't take any lock and only unparks the thread if it is actually parked.
+ * The thread is started when the first task is submitted. Delayed tasks are not supported
+ * directly and should be timed by a {@link HashedWheelTimer} handing them off to this executor.
+ */
+final class SpinningEventLoop extends AbstractExecutorService implements Runnable {
+
+    static final int RUNNING = 0;
+    static final int SHUTDOWN = 1;
+    static final int STOP = 2;
+
+    final MpscChunkedArrayQueue<Runnable> queue;
+
+    final WaitStrategy waitStrategy;
+
+    final Thread thread;
+
+    final AtomicBoolean started;
+
+    final CountDownLatch terminated;
+
+    volatile int state;
+
+    /** Set by the event loop thread before it parks, producers unpark it only if set. */
+    volatile boolean waiting;
+
+    /** If set, the thread blocks while the queue is empty regardless of the wait strategy. */
+    volatile boolean parked;
+
+    /** Set while the thread finds the queue empty, written only when it changes. */
+    volatile boolean idling;
+
+    SpinningEventLoop(ThreadFactory threadFactory, WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        this.queue = new MpscChunkedArrayQueue<Runnable>(Flowable.bufferSize());
+        this.started = new AtomicBoolean();
+        this.terminated = new CountDownLatch(1);
+        this.thread = threadFactory.newThread(this);
+        this.idling = true;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("command is null");
+        }
+        if (state != RUNNING) {
+            throw new RejectedExecutionException("Event loop has been shut down");
+        }
+        queue.offer(command);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            thread.start();
+        } else if (waiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        final MpscChunkedArrayQueue<Runnable> q = queue;
+        final WaitStrategy ws = waitStrategy;
+        int idle = 0;
+        try {
+            for (;;) {
+                int s = state;
+                if (s == STOP) {
+                    break;
+                }
+                Runnable r = q.poll();
+                if (r != null) {
+                    if (idling) {
+                        idling = false;
+                    }
+                    idle = 0;
+                    // clear the interrupt of a task cancelled after it completed
+                    Thread.interrupted();
+                    try {
+                        r.run();
+                    } catch (Throwable ex) {
+                        RxJavaPlugins.onError(ex);
+                    }
+                } else {
+                    if (s != RUNNING) {
+                        break;
+                    }
+                    if (!idling) {
+                        idling = true;
+                    }
+                    idle = parked ? WaitStrategy.BLOCKING.idle(this, idle) : ws.idle(this, idle);
+                }
+            }
+        } finally {
+            q.clear();
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Returns true if the event loop thread is waiting for tasks or hasn't started yet.
+     * @return true if the event loop is idle
+     */
+    boolean isIdle() {
+        return idling && queue.isEmpty();
+    }
+
+    /**
+     * Parks the event loop thread until a task is submitted or the event loop is shut down.
+     */
+    void park() {
+        Thread.interrupted();
+        waiting = true;
+        if (queue.isEmpty() && state == RUNNING) {
+            LockSupport.park(this);
+        }
+        waiting = false;
+    }
+
+    @Override
+    public void shutdown() {
+        terminate(SHUTDOWN);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        terminate(STOP);
+        // the queue has a single consumer, the event loop thread clears it
+        return Collections.emptyList();
+    }
+
+    void terminate(int target) {
+        if (state < target) {
+            state = target;
+        }
+        if (started.compareAndSet(false, true)) {
+            queue.clear();
+            terminated.countDown();
+        } else {
+            if (target == STOP) {
+                thread.interrupt();
+            }
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0L;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+}
@@ -16,8 +16,9 @@
 
 package io.reactivex.internal.schedulers;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.*;
 
 import io.reactivex.Scheduler;
 import io.reactivex.annotations.NonNull;
@@ -69,21 +70,58 @@ public final class TrampolineScheduler extends Scheduler {
     static final class TrampolineWorker extends Scheduler.Worker implements Disposable {
         final PriorityBlockingQueue<TimedRunnable> queue = new PriorityBlockingQueue<TimedRunnable>();
 
+        /** The non-delayed tasks scheduled from within the running tasks, accessed by the draining thread only. */
+        final ArrayDeque<ImmediateTask> immediateQueue = new ArrayDeque<ImmediateTask>();
+
         private final AtomicInteger wip = new AtomicInteger();
 
         final AtomicInteger counter = new AtomicInteger();
 
+        /** The thread currently draining this worker, null if there is none. */
+        volatile Thread drainer;
+
+        /** The value of {@link #wip} when {@link #earliestDue} was last read, accessed by the draining thread only. */
+        int wipSeen;
+
+        /** The execution time of the head of the timed queue, {@link Long#MAX_VALUE} if none, accessed by the draining thread only. */
+        long earliestDue;
+
         volatile boolean disposed;
 
         @NonNull
         @Override
         public Disposable schedule(@NonNull Runnable action) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            if (drainer == Thread.currentThread()) {
+                // scheduled from within a running task, no other thread touches the immediate queue;
+                // a due timed task runs first though, so the task takes its turn in the timed queue then
+                if (!timedDue()) {
+                    ImmediateTask task = new ImmediateTask(action);
+                    immediateQueue.offer(task);
+                    return task;
+                }
+                return enqueue(action, now(TimeUnit.MILLISECONDS));
+            }
+            if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                // the timed queue is empty when nobody drains it
+                wipSeen = 1;
+                earliestDue = Long.MAX_VALUE;
+                drainer = Thread.currentThread();
+                action.run();
+                drain();
+                return EmptyDisposable.INSTANCE;
+            }
             return enqueue(action, now(TimeUnit.MILLISECONDS));
         }
 
         @NonNull
         @Override
         public Disposable schedule(@NonNull Runnable action, long delayTime, @NonNull TimeUnit unit) {
+            if (delayTime <= 0L) {
+                return schedule(action);
+            }
             long execTime = now(TimeUnit.MILLISECONDS) + unit.toMillis(delayTime);
 
             return enqueue(new SleepingRunnable(action, this, execTime), execTime);
@@ -97,31 +135,71 @@ public final class TrampolineScheduler extends Scheduler {
             queue.add(timedRunnable);
 
             if (wip.getAndIncrement() == 0) {
-                int missed = 1;
+                drainer = Thread.currentThread();
+                drain();
+                return EmptyDisposable.INSTANCE;
+            } else {
+                // queue wasn't empty, a parent is already processing so we just add to the end of the queue
+                return Disposables.fromRunnable(new AppendToQueueTask(timedRunnable));
+            }
+        }
+
+        /**
+         * Returns true if the timed queue has a task due; called by the draining thread only.
+         * <p>
+         * Every enqueue increments {@link #wip} after adding to the timed queue, so the queue is
+         * only looked at if the counter changed since the last call or a timed task was taken
+         * from the queue; the clock is only read if there is a timed task.
+         * @return true if a timed task is due
+         */
+        boolean timedDue() {
+            int w = wip.get();
+            if (w != wipSeen) {
+                wipSeen = w;
+                TimedRunnable head = queue.peek();
+                earliestDue = head != null ? head.execTime : Long.MAX_VALUE;
+            }
+            return earliestDue != Long.MAX_VALUE && earliestDue <= now(TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Runs the immediate tasks first, then the timed tasks in the order of their execution time,
+         * until both queues are empty.
+         * <p>
+         * A task enters the immediate queue only while no timed task is due, so the tasks still
+         * run in the order of their execution time.
+         */
+        void drain() {
+            int missed = 1;
+            final ArrayDeque<ImmediateTask> iq = immediateQueue;
+            for (;;) {
                 for (;;) {
-                    for (;;) {
-                        if (disposed) {
-                            queue.clear();
-                            return EmptyDisposable.INSTANCE;
-                        }
-                        final TimedRunnable polled = queue.poll();
-                        if (polled == null) {
-                            break;
-                        }
-                        if (!polled.disposed) {
-                            polled.run.run();
-                        }
+                    if (disposed) {
+                        iq.clear();
+                        queue.clear();
+                        return;
+                    }
+                    final ImmediateTask task = iq.poll();
+                    if (task != null) {
+                        task.run();
+                        continue;
                     }
-                    missed = wip.addAndGet(-missed);
-                    if (missed == 0) {
+                    final TimedRunnable polled = queue.poll();
+                    if (polled == null) {
                         break;
                     }
+                    // wip is never 0 while draining, the next timedDue looks at the timed queue again
+                    wipSeen = 0;
+                    if (!polled.disposed) {
+                        polled.run.run();
+                    }
                 }
-
-                return EmptyDisposable.INSTANCE;
-            } else {
-                // queue wasn't empty, a parent is already processing so we just add to the end of the queue
-                return Disposables.fromRunnable(new AppendToQueueTask(timedRunnable));
+                drainer = null;
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+                drainer = Thread.currentThread();
             }
         }
 
@@ -150,6 +228,36 @@ public final class TrampolineScheduler extends Scheduler {
         }
     }
 
+    /**
+     * A non-delayed task scheduled from within a running task of the same worker.
+     */
+    static final class ImmediateTask extends AtomicReference<Runnable> implements Disposable {
+
+        private static final long serialVersionUID = -3302745183434620493L;
+
+        ImmediateTask(Runnable run) {
+            lazySet(run);
+        }
+
+        void run() {
+            Runnable r = get();
+            if (r != null) {
+                lazySet(null);
+                r.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            lazySet(null);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == null;
+        }
+    }
+
     static final class TimedRunnable implements Comparable<TimedRunnable> {
         final Runnable run;
         final long execTime;
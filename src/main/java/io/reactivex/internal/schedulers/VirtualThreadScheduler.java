@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.EmptyDisposable;
+import io.reactivex.internal.schedulers.ExecutorScheduler.ExecutorWorker;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * A scheduler that runs its tasks on virtual threads when running on Java 21 or newer
+ * and on a cached pool of daemon threads otherwise.
+ * <p>
+ * Each worker executes its tasks in a FIFO order, one at a time, on a thread it starts on demand,
+ * therefore blocked workers don't hold on to platform threads. Delays are timed by the shared
+ * {@link HashedWheelTimer}.
+ */
+public final class VirtualThreadScheduler extends Scheduler {
+
+    private static final String THREAD_NAME_PREFIX = "RxVirtualThreadScheduler";
+
+    static final ExecutorService SHUTDOWN;
+    static {
+        SHUTDOWN = Executors.newCachedThreadPool();
+        SHUTDOWN.shutdown();
+    }
+
+    final AtomicReference<ExecutorService> executor;
+
+    /** The number of queued tasks while a {@link io.reactivex.schedulers.SchedulerInstrumentation} is set. */
+    final AtomicInteger queueDepth = new AtomicInteger();
+
+    public VirtualThreadScheduler() {
+        this.executor = new AtomicReference<ExecutorService>(createExecutor());
+    }
+
+    /**
+     * Returns true if the tasks of this scheduler run on virtual threads.
+     * @return true if the tasks run on virtual threads
+     */
+    public static boolean isVirtual() {
+        return VirtualThreads.isSupported();
+    }
+
+    static ExecutorService createExecutor() {
+        return VirtualThreads.newExecutor(THREAD_NAME_PREFIX);
+    }
+
+    @Override
+    public void start() {
+        ExecutorService next = null;
+        for (;;) {
+            ExecutorService current = executor.get();
+            if (current != SHUTDOWN) {
+                if (next != null) {
+                    next.shutdown();
+                }
+                return;
+            }
+            if (next == null) {
+                next = createExecutor();
+            }
+            if (executor.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        ExecutorService current = executor.get();
+        if (current != SHUTDOWN) {
+            current = executor.getAndSet(SHUTDOWN);
+            if (current != SHUTDOWN) {
+                current.shutdownNow();
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new ExecutorWorker(executor.get(), true, true, queueDepth);
+    }
+
+    @NonNull
+    @Override
+    public Disposable scheduleDirect(@NonNull Runnable run, long delay, TimeUnit unit) {
+        ExecutorService exec = executor.get();
+        ScheduledDirectTask task = new ScheduledDirectTask(
+                InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), exec, queueDepth, delay, 0L, unit));
+        try {
+            Future<?> f;
+            if (delay <= 0L) {
+                f = exec.submit(task);
+            } else {
+                f = HashedWheelTimer.shared().schedule(task, exec, delay, unit);
+            }
+            task.setFuture(f);
+            return task;
+        } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
+            RxJavaPlugins.onError(ex);
+            return EmptyDisposable.INSTANCE;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Disposable schedulePeriodicallyDirect(@NonNull Runnable run, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0L) {
+            return super.schedulePeriodicallyDirect(run, initialDelay, period, unit);
+        }
+        ExecutorService exec = executor.get();
+        ScheduledDirectPeriodicTask task = new ScheduledDirectPeriodicTask(
+                InstrumentedTask.wrap(RxJavaPlugins.onSchedule(run), exec, queueDepth, initialDelay, period, unit));
+        try {
+            Future<?> f = HashedWheelTimer.shared().schedulePeriodic(task, exec, initialDelay, period, unit);
+            task.setFuture(f);
+            return task;
+        } catch (RejectedExecutionException ex) {
+            InstrumentedTask.rejected(task.runnable);
+            RxJavaPlugins.onError(ex);
+            return EmptyDisposable.INSTANCE;
+        }
+    }
+}
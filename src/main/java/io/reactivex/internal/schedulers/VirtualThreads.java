@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+
+/**
+ * Creates the {@link ExecutorService} backing the {@link VirtualThreadScheduler}.
+ * <p>
+ * This is the baseline variant: virtual threads are not available, therefore the tasks
+ * run on a cached pool of daemon platform threads. The multi-release jar replaces this
+ * class on Java 21+ with the variant under {@code src/main/java21} which starts a new
+ * virtual thread for each task.
+ */
+final class VirtualThreads {
+
+    /** Utility class. */
+    private VirtualThreads() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns true if the executors created by this class run their tasks on virtual threads.
+     * @return true if virtual threads are used
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates a new unbounded executor whose threads are named after the given prefix.
+     * @param threadNamePrefix the thread name prefix
+     * @return the new ExecutorService
+     */
+    static ExecutorService newExecutor(String threadNamePrefix) {
+        return Executors.newCachedThreadPool(new RxThreadFactory(threadNamePrefix, Thread.NORM_PRIORITY, true));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+/**
+ * Determines how the thread of an event loop waits for new tasks.
+ * <p>
+ * The spinning strategies run the event loop on a lock-free queue instead of a
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}, trading CPU time for lower
+ * wakeup latency, and time the delayed tasks with a {@link HashedWheelTimer}.
+ */
+public enum WaitStrategy {
+    /**
+     * Uses a {@link java.util.concurrent.ScheduledThreadPoolExecutor} which parks its thread
+     * whenever its queue is empty; the default.
+     */
+    BLOCKING {
+        @Override
+        int idle(SpinningEventLoop loop, int idleCount) {
+            loop.park();
+            return 0;
+        }
+    },
+    /**
+     * Polls the queue in a tight loop, occupying a CPU even when there is nothing to do.
+     */
+    BUSY_SPIN {
+        @Override
+        int idle(SpinningEventLoop loop, int idleCount) {
+            return idleCount;
+        }
+    },
+    /**
+     * Spins for a while, then yields the CPU between polls.
+     */
+    SPIN_YIELD {
+        @Override
+        int idle(SpinningEventLoop loop, int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                return idleCount + 1;
+            }
+            Thread.yield();
+            return idleCount;
+        }
+    },
+    /**
+     * Spins for a while, then yields for a while, then parks the thread until a new task arrives.
+     */
+    SPIN_PARK {
+        @Override
+        int idle(SpinningEventLoop loop, int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                return idleCount + 1;
+            }
+            if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+                return idleCount + 1;
+            }
+            loop.park();
+            return 0;
+        }
+    };
+
+    /** The number of empty polls before starting to yield. */
+    static final int SPIN_TRIES = 100;
+
+    /** The number of yields before parking. */
+    static final int YIELD_TRIES = 100;
+
+    /**
+     * Called by the event loop thread after an empty poll of its queue.
+     * @param loop the event loop, {@link SpinningEventLoop#park()} blocks until the next task arrives
+     * @param idleCount the number of consecutive empty polls so far, as returned by the previous call
+     * @return the new idle count
+     */
+    abstract int idle(SpinningEventLoop loop, int idleCount);
+
+    /**
+     * Returns the wait strategy for the given name ({@code blocking}, {@code busy-spin},
+     * {@code spin-yield} or {@code spin-park}) or {@link #BLOCKING} if the name is null or not recognized.
+     * @param name the name of the wait strategy
+     * @return the wait strategy
+     */
+    public static WaitStrategy fromName(String name) {
+        if ("busy-spin".equals(name)) {
+            return BUSY_SPIN;
+        }
+        if ("spin-yield".equals(name)) {
+            return SPIN_YIELD;
+        }
+        if ("spin-park".equals(name)) {
+            return SPIN_PARK;
+        }
+        return BLOCKING;
+    }
+}
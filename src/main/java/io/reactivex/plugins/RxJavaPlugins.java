@@ -27,7 +27,7 @@ import io.reactivex.internal.schedulers.*;
 import io.reactivex.internal.util.ExceptionHelper;
 import io.reactivex.observables.ConnectableObservable;
 import io.reactivex.parallel.ParallelFlowable;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.*;
 /**
  * Utility class to inject handlers to certain standard RxJava operations.
  */
@@ -38,6 +38,15 @@ public final class RxJavaPlugins {
     @Nullable
     static volatile Function<? super Runnable, ? extends Runnable> onScheduleHandler;
 
+    @Nullable
+    static volatile SchedulerInstrumentation schedulerInstrumentation;
+
+    @Nullable
+    static volatile CpuAccounting cpuAccounting;
+
+    @Nullable
+    static volatile SchedulerClock schedulerClock;
+
     @Nullable
     static volatile Function<? super Callable<Scheduler>, ? extends Scheduler> onInitComputationHandler;
 
@@ -50,6 +59,9 @@ public final class RxJavaPlugins {
     @Nullable
     static volatile Function<? super Callable<Scheduler>, ? extends Scheduler> onInitNewThreadHandler;
 
+    @Nullable
+    static volatile Function<? super Callable<Scheduler>, ? extends Scheduler> onInitVirtualHandler;
+
     @Nullable
     static volatile Function<? super Scheduler, ? extends Scheduler> onComputationHandler;
 
@@ -62,6 +74,9 @@ public final class RxJavaPlugins {
     @Nullable
     static volatile Function<? super Scheduler, ? extends Scheduler> onNewThreadHandler;
 
+    @Nullable
+    static volatile Function<? super Scheduler, ? extends Scheduler> onVirtualHandler;
+
     @SuppressWarnings("rawtypes")
     @Nullable
     static volatile Function<? super Flowable, ? extends Flowable> onFlowableAssembly;
@@ -124,6 +139,16 @@ public final class RxJavaPlugins {
      */
     static volatile boolean failNonBlockingScheduler;
 
+    /**
+     * If true, the {@code interval} sequences of the same scheduler and period share one periodic task.
+     */
+    static volatile boolean sharedIntervalTicks;
+
+    /**
+     * If true, {@code observeOn} runs its drain inline when emitted to on the thread of its worker.
+     */
+    static volatile boolean inlineObserveOn;
+
     /**
      * Prevents changing the plugins from then on.
      * <p>This allows container-like environments to prevent clients
@@ -168,6 +193,70 @@ public final class RxJavaPlugins {
         return failNonBlockingScheduler;
     }
 
+    /**
+     * Enables or disables sharing one periodic task among the {@code Flowable.interval} and
+     * {@code Observable.interval} sequences with the same {@link Scheduler} and period.
+     * <p>
+     * Only the sequences whose initial delay equals their period and which are subscribed
+     * while the feature is enabled share the task. Such a sequence emits its first value on the next tick of
+     * the shared task, at most one period after the subscription, and a tick that runs late
+     * doesn't lead to a burst of catch-up ticks. A {@code Flowable.interval} skips the ticks
+     * its downstream has not requested instead of signalling a {@code MissingBackpressureException}.
+     * Only the timer is shared: each tick is handed off to a worker of the scheduler per sequence,
+     * so the sequences still emit in parallel and a slow consumer doesn't delay the others.
+     * @param enable enable or disable the feature
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static void setSharedIntervalTicks(boolean enable) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        sharedIntervalTicks = enable;
+    }
+
+    /**
+     * Enables or disables running the drain of the {@code Flowable.observeOn} and {@code Observable.observeOn}
+     * operators inline when the upstream emits on the thread of their worker while no drain is pending,
+     * instead of scheduling the drain to run next on that same thread.
+     * <p>
+     * This saves a task handoff per batch in pipelines hopping between operators on the same event loop, but
+     * the downstream then runs within the upstream's emission: a producer on that thread, such as a timed
+     * or periodic source, is held up by a slow consumer instead of overflowing the {@code observeOn} queue,
+     * and disposing the sequence doesn't interrupt an inline drain. Only the sequences subscribed
+     * while the feature is enabled are affected.
+     * @param enable enable or disable the feature
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static void setInlineObserveOn(boolean enable) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        inlineObserveOn = enable;
+    }
+
+    /**
+     * Returns true if {@code observeOn} runs its drain inline when emitted to on the thread of its worker.
+     * @return true if {@code observeOn} may run its drain inline
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static boolean isInlineObserveOn() {
+        return inlineObserveOn;
+    }
+
+    /**
+     * Returns true if the {@code interval} sequences of the same scheduler and period
+     * share one periodic task.
+     * @return true if the {@code interval} sequences share one periodic task
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static boolean isSharedIntervalTicks() {
+        return sharedIntervalTicks;
+    }
+
     /**
      * Returns the current hook function.
      * @return the hook function, may be null
@@ -222,6 +311,15 @@ public final class RxJavaPlugins {
         return onInitSingleHandler;
     }
 
+    /**
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    @Nullable
+    public static Function<? super Callable<Scheduler>, ? extends Scheduler> getInitVirtualSchedulerHandler() {
+        return onInitVirtualHandler;
+    }
+
     /**
      * Returns the current hook function.
      * @return the hook function, may be null
@@ -240,6 +338,15 @@ public final class RxJavaPlugins {
         return onNewThreadHandler;
     }
 
+    /**
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    @Nullable
+    public static Function<? super Scheduler, ? extends Scheduler> getVirtualSchedulerHandler() {
+        return onVirtualHandler;
+    }
+
     /**
      * Returns the current hook function.
      * @return the hook function, may be null
@@ -249,6 +356,39 @@ public final class RxJavaPlugins {
         return onScheduleHandler;
     }
 
+    /**
+     * Returns the current CPU time accounting.
+     * @return the CPU time accounting, may be null
+     * @since 2.2.8 - experimental
+     */
+    @Nullable
+    @Experimental
+    public static CpuAccounting getCpuAccounting() {
+        return cpuAccounting;
+    }
+
+    /**
+     * Returns the current clock of the schedulers.
+     * @return the clock, may be null
+     * @since 2.2.8 - experimental
+     */
+    @Nullable
+    @Experimental
+    public static SchedulerClock getSchedulerClock() {
+        return schedulerClock;
+    }
+
+    /**
+     * Returns the current scheduler instrumentation.
+     * @return the scheduler instrumentation, may be null
+     * @since 2.2.8 - experimental
+     */
+    @Nullable
+    @Experimental
+    public static SchedulerInstrumentation getSchedulerInstrumentation() {
+        return schedulerInstrumentation;
+    }
+
     /**
      * Returns the current hook function.
      * @return the hook function, may be null
@@ -322,6 +462,22 @@ public final class RxJavaPlugins {
         return applyRequireNonNull(f, defaultScheduler);
     }
 
+    /**
+     * Calls the associated hook function.
+     * @param defaultScheduler a {@link Callable} which returns the hook's input value
+     * @return the value returned by the hook, not null
+     * @throws NullPointerException if the callable parameter or its result are null
+     */
+    @NonNull
+    public static Scheduler initVirtualScheduler(@NonNull Callable<Scheduler> defaultScheduler) {
+        ObjectHelper.requireNonNull(defaultScheduler, "Scheduler Callable can't be null");
+        Function<? super Callable<Scheduler>, ? extends Scheduler> f = onInitVirtualHandler;
+        if (f == null) {
+            return callRequireNonNull(defaultScheduler);
+        }
+        return applyRequireNonNull(f, defaultScheduler);
+    }
+
     /**
      * Calls the associated hook function.
      * @param defaultScheduler the hook's input value
@@ -467,10 +623,14 @@ public final class RxJavaPlugins {
         ObjectHelper.requireNonNull(run, "run is null");
 
         Function<? super Runnable, ? extends Runnable> f = onScheduleHandler;
-        if (f == null) {
-            return run;
+        if (f != null) {
+            run = apply(f, run);
+        }
+        CpuAccounting a = cpuAccounting;
+        if (a != null) {
+            run = a.wrap(run);
         }
-        return apply(f, run);
+        return run;
     }
 
     /**
@@ -487,12 +647,29 @@ public final class RxJavaPlugins {
         return apply(f, defaultScheduler);
     }
 
+    /**
+     * Calls the associated hook function.
+     * @param defaultScheduler the hook's input value
+     * @return the value returned by the hook
+     */
+    @NonNull
+    public static Scheduler onVirtualScheduler(@NonNull Scheduler defaultScheduler) {
+        Function<? super Scheduler, ? extends Scheduler> f = onVirtualHandler;
+        if (f == null) {
+            return defaultScheduler;
+        }
+        return apply(f, defaultScheduler);
+    }
+
     /**
      * Removes all handlers and resets to default behavior.
      */
     public static void reset() {
         setErrorHandler(null);
         setScheduleHandler(null);
+        setSchedulerInstrumentation(null);
+        setCpuAccounting(null);
+        setSchedulerClock(null);
 
         setComputationSchedulerHandler(null);
         setInitComputationSchedulerHandler(null);
@@ -506,6 +683,9 @@ public final class RxJavaPlugins {
         setNewThreadSchedulerHandler(null);
         setInitNewThreadSchedulerHandler(null);
 
+        setVirtualSchedulerHandler(null);
+        setInitVirtualSchedulerHandler(null);
+
         setOnFlowableAssembly(null);
         setOnFlowableSubscribe(null);
 
@@ -527,6 +707,8 @@ public final class RxJavaPlugins {
         setOnParallelAssembly(null);
 
         setFailOnNonBlockingScheduler(false);
+        setSharedIntervalTicks(false);
+        setInlineObserveOn(false);
         setOnBeforeBlocking(null);
     }
 
@@ -596,6 +778,17 @@ public final class RxJavaPlugins {
         onInitSingleHandler = handler;
     }
 
+    /**
+     * Sets the specific hook function.
+     * @param handler the hook function to set, null allowed, but the function may not return null
+     */
+    public static void setInitVirtualSchedulerHandler(@Nullable Function<? super Callable<Scheduler>, ? extends Scheduler> handler) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        onInitVirtualHandler = handler;
+    }
+
     /**
      * Sets the specific hook function.
      * @param handler the hook function to set, null allowed
@@ -629,6 +822,49 @@ public final class RxJavaPlugins {
         onScheduleHandler = handler;
     }
 
+    /**
+     * Sets the accounting that attributes the time of the scheduled tasks to the tags of their pipelines.
+     * <p>Only the tasks scheduled while an accounting is set are accounted.
+     * @param accounting the accounting to set, null disables the accounting
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static void setCpuAccounting(@Nullable CpuAccounting accounting) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        cpuAccounting = accounting;
+    }
+
+    /**
+     * Sets the source of the current time of the schedulers that don't override their
+     * {@code now(TimeUnit)} methods, which covers the standard schedulers.
+     * @param clock the clock to set, null restores {@link System#currentTimeMillis()}
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static void setSchedulerClock(@Nullable SchedulerClock clock) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        schedulerClock = clock;
+    }
+
+    /**
+     * Sets the instrumentation that receives the lifecycle events of the tasks
+     * submitted to the standard schedulers.
+     * <p>Only the tasks scheduled while an instrumentation is set are reported.
+     * @param instrumentation the instrumentation to set, null disables the instrumentation
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static void setSchedulerInstrumentation(@Nullable SchedulerInstrumentation instrumentation) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        schedulerInstrumentation = instrumentation;
+    }
+
     /**
      * Sets the specific hook function.
      * @param handler the hook function to set, null allowed
@@ -640,6 +876,17 @@ public final class RxJavaPlugins {
         onSingleHandler = handler;
     }
 
+    /**
+     * Sets the specific hook function.
+     * @param handler the hook function to set, null allowed
+     */
+    public static void setVirtualSchedulerHandler(@Nullable Function<? super Scheduler, ? extends Scheduler> handler) {
+        if (lockdown) {
+            throw new IllegalStateException("Plugins can't be changed anymore");
+        }
+        onVirtualHandler = handler;
+    }
+
     /**
      * Revokes the lockdown, only for testing purposes.
      */
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.annotations.*;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.schedulers.*;
+
+/**
+ * A {@link SchedulerClock} that caches {@link System#currentTimeMillis()} in a volatile field,
+ * refreshed by a background daemon thread at the given resolution.
+ * <p>
+ * Reading the time is a single volatile load, at the cost of the time lagging behind by up to the
+ * resolution. Delays and periods computed from the {@code Scheduler}'s time inherit this error, so
+ * the resolution should stay well below the timespans used by the timed operators.
+ * <pre><code>
+ * CoarseClock clock = new CoarseClock(1, TimeUnit.MILLISECONDS);
+ * RxJavaPlugins.setSchedulerClock(clock);
+ * </code></pre>
+ * Once disposed, the clock stops its thread and reads {@link System#currentTimeMillis()} directly.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public final class CoarseClock implements SchedulerClock, Disposable {
+
+    /** The name prefix of the thread refreshing the time. */
+    static final String THREAD_NAME_PREFIX = "RxCoarseClock";
+
+    static final RxThreadFactory THREAD_FACTORY = new RxThreadFactory(THREAD_NAME_PREFIX, Thread.MAX_PRIORITY);
+
+    /** Indicates the clock has been disposed. */
+    static final long DISPOSED = Long.MIN_VALUE;
+
+    final ScheduledExecutorService executor;
+
+    /** The cached time in milliseconds or {@link #DISPOSED}. */
+    final AtomicLong millis;
+
+    /**
+     * Constructs a CoarseClock and starts refreshing its time.
+     * @param resolution the time between refreshes, positive
+     * @param unit the unit of the resolution, not null
+     */
+    public CoarseClock(long resolution, @NonNull TimeUnit unit) {
+        ObjectHelper.verifyPositive(resolution, "resolution");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        this.millis = new AtomicLong(System.currentTimeMillis());
+        this.executor = SchedulerPoolFactory.create(THREAD_FACTORY);
+        executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                long m = millis.get();
+                if (m != DISPOSED) {
+                    millis.compareAndSet(m, System.currentTimeMillis());
+                }
+            }
+        }, resolution, resolution, unit);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        long m = millis.get();
+        return m != DISPOSED ? m : System.currentTimeMillis();
+    }
+
+    @Override
+    public void dispose() {
+        if (millis.getAndSet(DISPOSED) != DISPOSED) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return millis.get() == DISPOSED;
+    }
+}
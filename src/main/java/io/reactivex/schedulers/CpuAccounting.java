@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.schedulers;
+
+import java.lang.management.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.annotations.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Attributes the CPU and wall-clock time of the scheduled tasks to the tags of the pipelines
+ * they run on behalf of.
+ * <p>
+ * A pipeline is tagged by composing it with {@link #tag(String)}: the tag is current on the
+ * subscribing thread while the pipeline gets subscribed, and each task scheduled while a tag is current
+ * runs with that tag current. This covers the {@code subscribeOn} subscriptions, the {@code observeOn}
+ * drains and the timed callbacks scheduled by the pipeline's operators, as long as they get scheduled while
+ * subscribing or from within another tagged task; the values emitted by an untagged thread, such as the
+ * caller of a {@code Subject}, are not attributed.
+ * <pre><code>
+ * CpuAccounting accounting = new CpuAccounting();
+ * RxJavaPlugins.setCpuAccounting(accounting);
+ *
+ * source.observeOn(Schedulers.computation()).map(...)
+ *     .compose(CpuAccounting.&lt;Integer&gt;tag("pricing"))
+ *     .subscribe(...);
+ *
+ * long cpu = accounting.usage("pricing").cpuNanos();
+ * </code></pre>
+ * The tasks are wrapped by {@link RxJavaPlugins#onSchedule(Runnable)} only while an instance is set via
+ * {@link RxJavaPlugins#setCpuAccounting(CpuAccounting)} and only if a tag is current; otherwise neither
+ * scheduling nor subscribing does anything extra. The CPU time of the current thread is sampled around
+ * each tagged task where the runtime supports it (not on Android); a task run synchronously from within
+ * another tagged task is counted towards both tags.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public final class CpuAccounting {
+
+    /** The tag of the pipeline the current thread works on behalf of. */
+    static final ThreadLocal<String> CURRENT = new ThreadLocal<String>();
+
+    /** Indicates the CPU time of the current thread can be sampled. */
+    static final boolean CPU_TIME_SUPPORTED;
+
+    static {
+        boolean supported;
+        try {
+            supported = CpuClock.BEAN != null;
+        } catch (Throwable ex) {
+            // java.lang.management is not available
+            supported = false;
+        }
+        CPU_TIME_SUPPORTED = supported;
+    }
+
+    final ConcurrentHashMap<String, Usage> usages;
+
+    /**
+     * Constructs an empty CpuAccounting instance.
+     */
+    public CpuAccounting() {
+        this.usages = new ConcurrentHashMap<String, Usage>();
+    }
+
+    /**
+     * Returns a transformer tagging the Flowable or Observable pipeline it is composed with.
+     * @param <T> the value type
+     * @param tag the tag, not null
+     * @return the transformer to pass to {@code compose}
+     */
+    @NonNull
+    public static <T> Tagger<T> tag(@NonNull String tag) {
+        return new Tagger<T>(ObjectHelper.requireNonNull(tag, "tag is null"));
+    }
+
+    /**
+     * Returns the tag current on the calling thread.
+     * @return the tag or null if the thread doesn't work on behalf of a tagged pipeline
+     */
+    @Nullable
+    public static String currentTag() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns true if the runtime supports sampling the CPU time of the current thread;
+     * otherwise only the wall-clock time is accounted.
+     * @return true if the CPU time is accounted
+     */
+    public static boolean isCpuTimeSupported() {
+        return CPU_TIME_SUPPORTED;
+    }
+
+    /**
+     * Wraps the task into one accounting its execution towards the current tag, if any;
+     * called by {@link RxJavaPlugins#onSchedule(Runnable)}.
+     * @param run the task
+     * @return the wrapped task or {@code run} if there is no current tag
+     */
+    @NonNull
+    public Runnable wrap(@NonNull Runnable run) {
+        String tag = CURRENT.get();
+        if (tag == null) {
+            return run;
+        }
+        return new AccountedTask(run, tag, usageOf(tag));
+    }
+
+    Usage usageOf(String tag) {
+        Usage u = usages.get(tag);
+        if (u == null) {
+            u = new Usage();
+            Usage prev = usages.putIfAbsent(tag, u);
+            if (prev != null) {
+                u = prev;
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Returns the usage accounted towards the given tag.
+     * @param tag the tag, not null
+     * @return the usage or null if no task has been scheduled with the tag
+     */
+    @Nullable
+    public Usage usage(@NonNull String tag) {
+        return usages.get(tag);
+    }
+
+    /**
+     * Returns a snapshot of the tags and their usage.
+     * @return the map of the tags and their usage
+     */
+    @NonNull
+    public Map<String, Usage> usages() {
+        return Collections.unmodifiableMap(new HashMap<String, Usage>(usages));
+    }
+
+    /**
+     * Forgets all tags and their usage.
+     */
+    public void reset() {
+        usages.clear();
+    }
+
+    static long cpuTime() {
+        return CPU_TIME_SUPPORTED ? CpuClock.BEAN.getCurrentThreadCpuTime() : 0L;
+    }
+
+    static String enter(String tag) {
+        String prev = CURRENT.get();
+        CURRENT.set(tag);
+        return prev;
+    }
+
+    static void exit(String prev) {
+        if (prev == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(prev);
+        }
+    }
+
+    /**
+     * The cumulative time accounted towards a tag.
+     */
+    public static final class Usage {
+
+        final AtomicLong cpuNanos = new AtomicLong();
+
+        final AtomicLong wallNanos = new AtomicLong();
+
+        final AtomicLong tasks = new AtomicLong();
+
+        Usage() {
+        }
+
+        /**
+         * Returns the CPU time of the tagged tasks, zero if the runtime doesn't support sampling it.
+         * @return the CPU time in nanoseconds
+         */
+        public long cpuNanos() {
+            return cpuNanos.get();
+        }
+
+        /**
+         * Returns the wall-clock time of the tagged tasks.
+         * @return the wall-clock time in nanoseconds
+         */
+        public long wallNanos() {
+            return wallNanos.get();
+        }
+
+        /**
+         * Returns the number of tagged task executions.
+         * @return the number of task executions
+         */
+        public long tasks() {
+            return tasks.get();
+        }
+
+        void add(long cpu, long wall) {
+            cpuNanos.addAndGet(cpu);
+            wallNanos.addAndGet(wall);
+            tasks.getAndIncrement();
+        }
+
+        @Override
+        public String toString() {
+            return "Usage[cpuNanos=" + cpuNanos() + ", wallNanos=" + wallNanos() + ", tasks=" + tasks() + "]";
+        }
+    }
+
+    /**
+     * Tags the Flowable or Observable pipeline it is composed with.
+     * @param <T> the value type
+     */
+    public static final class Tagger<T> implements FlowableTransformer<T, T>, ObservableTransformer<T, T> {
+
+        final String tag;
+
+        Tagger(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public Publisher<T> apply(Flowable<T> upstream) {
+            return new TaggedFlowable<T>(upstream, tag);
+        }
+
+        @Override
+        public ObservableSource<T> apply(Observable<T> upstream) {
+            return new TaggedObservable<T>(upstream, tag);
+        }
+    }
+
+    static final class TaggedFlowable<T> extends Flowable<T> {
+
+        final Flowable<T> source;
+
+        final String tag;
+
+        TaggedFlowable(Flowable<T> source, String tag) {
+            this.source = source;
+            this.tag = tag;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super T> s) {
+            if (RxJavaPlugins.getCpuAccounting() == null) {
+                source.subscribe(s);
+                return;
+            }
+            String prev = enter(tag);
+            try {
+                source.subscribe(s);
+            } finally {
+                exit(prev);
+            }
+        }
+    }
+
+    static final class TaggedObservable<T> extends Observable<T> {
+
+        final Observable<T> source;
+
+        final String tag;
+
+        TaggedObservable(Observable<T> source, String tag) {
+            this.source = source;
+            this.tag = tag;
+        }
+
+        @Override
+        protected void subscribeActual(Observer<? super T> observer) {
+            if (RxJavaPlugins.getCpuAccounting() == null) {
+                source.subscribe(observer);
+                return;
+            }
+            String prev = enter(tag);
+            try {
+                source.subscribe(observer);
+            } finally {
+                exit(prev);
+            }
+        }
+    }
+
+    static final class AccountedTask implements Runnable, SchedulerRunnableIntrospection {
+
+        final Runnable actual;
+
+        final String tag;
+
+        final Usage usage;
+
+        AccountedTask(Runnable actual, String tag, Usage usage) {
+            this.actual = actual;
+            this.tag = tag;
+            this.usage = usage;
+        }
+
+        @Override
+        public void run() {
+            String prev = enter(tag);
+            long cpu = cpuTime();
+            long start = System.nanoTime();
+            try {
+                actual.run();
+            } finally {
+                usage.add(cpuTime() - cpu, System.nanoTime() - start);
+                exit(prev);
+            }
+        }
+
+        @Override
+        public Runnable getWrappedRunnable() {
+            return actual;
+        }
+    }
+
+    /**
+     * Isolates the java.lang.management dependency, which is not available on all platforms.
+     */
+    static final class CpuClock {
+
+        static final ThreadMXBean BEAN;
+
+        static {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!bean.isCurrentThreadCpuTimeSupported()) {
+                bean = null;
+            } else if (!bean.isThreadCpuTimeEnabled()) {
+                bean.setThreadCpuTimeEnabled(true);
+            }
+            BEAN = bean;
+        }
+
+        /** Utility class. */
+        private CpuClock() {
+            throw new IllegalStateException("No instances!");
+        }
+    }
+}
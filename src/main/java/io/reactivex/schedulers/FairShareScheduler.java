@@ -0,0 +1,490 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.schedulers;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.*;
+import io.reactivex.disposables.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * A Scheduler decorator that shares a limited number of threads of an underlying
+ * Scheduler among named, weighted lanes.
+ * <p>
+ * Each {@link Lane} is a Scheduler itself; the workers created by it queue their tasks
+ * in the lane. At most {@code parallelism} dispatchers, running on the underlying Scheduler,
+ * take the tasks from the lanes with a deficit round robin: a lane with a weight of {@code w}
+ * gets {@code w} tasks executed per round, so under contention the lanes receive throughput
+ * proportional to their weights and a burst in a low-weight lane can't monopolize the threads.
+ * The tasks of the same worker still run one at a time and in order; the workers of a lane
+ * take turns.
+ * <p>
+ * The delayed tasks are timed by the underlying Scheduler and enter their lane when they become due.
+ * <pre><code>
+ * FairShareScheduler shared = new FairShareScheduler(Schedulers.computation(), 4);
+ * Scheduler interactive = shared.lane("interactive", 8);
+ * Scheduler batch = shared.lane("batch", 1);
+ * </code></pre>
+ * A dispatcher keeps running on its underlying thread while there are tasks queued in any lane.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public final class FairShareScheduler extends Scheduler implements Disposable {
+
+    /** The name of the lane the workers of {@link #createWorker()} belong to. */
+    public static final String DEFAULT_LANE = "default";
+
+    final Scheduler actual;
+
+    final int parallelism;
+
+    /** The number of dispatchers scheduled or running on the underlying Scheduler. */
+    final AtomicInteger dispatchers;
+
+    final Runnable dispatcher;
+
+    /** The lanes with ready workers in their round robin order, guarded by this. */
+    final ArrayDeque<Lane> activeLanes;
+
+    /** The lanes by name, guarded by itself. */
+    final Map<String, Lane> lanes;
+
+    final Lane defaultLane;
+
+    volatile boolean disposed;
+
+    /**
+     * Constructs a FairShareScheduler on top of the given Scheduler.
+     * @param actual the underlying Scheduler to run the tasks on
+     * @param parallelism the maximum number of underlying threads the tasks of all lanes use at once, positive
+     */
+    public FairShareScheduler(@NonNull Scheduler actual, int parallelism) {
+        this.actual = ObjectHelper.requireNonNull(actual, "actual is null");
+        this.parallelism = ObjectHelper.verifyPositive(parallelism, "parallelism");
+        this.dispatchers = new AtomicInteger();
+        this.dispatcher = new Dispatcher();
+        this.activeLanes = new ArrayDeque<Lane>();
+        this.lanes = new LinkedHashMap<String, Lane>();
+        this.defaultLane = lane(DEFAULT_LANE, 1);
+    }
+
+    /**
+     * Returns the lane with the given name, creating it with the given weight
+     * if it doesn't exist yet.
+     * @param name the name of the lane, not null
+     * @param weight the number of tasks the lane runs per round, positive
+     * @return the lane
+     * @throws IllegalArgumentException if the lane already exists with a different weight
+     */
+    @NonNull
+    public Lane lane(@NonNull String name, int weight) {
+        ObjectHelper.requireNonNull(name, "name is null");
+        ObjectHelper.verifyPositive(weight, "weight");
+        synchronized (lanes) {
+            Lane lane = lanes.get(name);
+            if (lane == null) {
+                lane = new Lane(name, weight);
+                lanes.put(name, lane);
+            } else if (lane.weight != weight) {
+                throw new IllegalArgumentException("Lane " + name + " already exists with weight " + lane.weight);
+            }
+            return lane;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the lanes in the order they were created, starting with the default lane.
+     * @return the list of lanes
+     */
+    @NonNull
+    public List<Lane> lanes() {
+        synchronized (lanes) {
+            return new ArrayList<Lane>(lanes.values());
+        }
+    }
+
+    /**
+     * Returns the maximum number of underlying threads the tasks of all lanes use at once.
+     * @return the parallelism
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Creates a worker in the {@link #DEFAULT_LANE default lane} with a weight of 1.
+     */
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return defaultLane.createWorker();
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        return actual.now(unit);
+    }
+
+    /**
+     * Stops dispatching; the queued and future tasks of the lanes won't run.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    void makeReady(LaneWorker w) {
+        offerReady(w);
+
+        for (;;) {
+            int n = dispatchers.get();
+            if (n >= parallelism) {
+                return;
+            }
+            if (dispatchers.compareAndSet(n, n + 1)) {
+                startDispatcher();
+                return;
+            }
+        }
+    }
+
+    void startDispatcher() {
+        try {
+            actual.scheduleDirect(dispatcher);
+        } catch (Throwable ex) {
+            dispatchers.decrementAndGet();
+            Exceptions.throwIfFatal(ex);
+            RxJavaPlugins.onError(ex);
+        }
+    }
+
+    synchronized void offerReady(LaneWorker w) {
+        Lane lane = w.lane;
+        lane.ready.offer(w);
+        if (!lane.active) {
+            lane.active = true;
+            activeLanes.offer(lane);
+        }
+    }
+
+    /**
+     * Picks the next worker to run a task of with a deficit round robin over the active lanes.
+     * @return the worker or null if no lane has a ready worker
+     */
+    synchronized LaneWorker pollReady() {
+        Lane lane;
+        while ((lane = activeLanes.peek()) != null) {
+            LaneWorker w = lane.ready.poll();
+            if (w == null) {
+                activeLanes.poll();
+                lane.active = false;
+                lane.deficit = 0;
+                continue;
+            }
+            if (lane.deficit == 0) {
+                lane.deficit = lane.weight;
+            }
+            if (--lane.deficit == 0) {
+                // the lane used up its quantum, move it to the end of the round
+                activeLanes.poll();
+                activeLanes.offer(lane);
+            }
+            return w;
+        }
+        return null;
+    }
+
+    synchronized boolean hasReady() {
+        return !activeLanes.isEmpty();
+    }
+
+    final class Dispatcher implements Runnable {
+        @Override
+        public void run() {
+            for (;;) {
+                LaneWorker w = disposed ? null : pollReady();
+                if (w == null) {
+                    dispatchers.decrementAndGet();
+                    // a worker may have become ready while this dispatcher was counted as running
+                    if (disposed || !hasReady()) {
+                        return;
+                    }
+                    int n = dispatchers.get();
+                    if (n >= parallelism || !dispatchers.compareAndSet(n, n + 1)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (w.runOne()) {
+                    offerReady(w);
+                }
+            }
+        }
+    }
+
+    /**
+     * A named, weighted lane of a {@link FairShareScheduler}; its workers share the
+     * lane's portion of the underlying threads.
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public final class Lane extends Scheduler {
+
+        final String name;
+
+        final int weight;
+
+        /** The number of tasks queued by the workers of this lane, including the disposed ones not yet dequeued. */
+        final AtomicLong backlog;
+
+        /** The workers with queued tasks, guarded by the parent scheduler. */
+        final ArrayDeque<LaneWorker> ready;
+
+        /** The number of tasks the lane can still run in the current round, guarded by the parent scheduler. */
+        int deficit;
+
+        /** Indicates the lane is in the active lanes, guarded by the parent scheduler. */
+        boolean active;
+
+        Lane(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+            this.backlog = new AtomicLong();
+            this.ready = new ArrayDeque<LaneWorker>();
+        }
+
+        /**
+         * Returns the name of this lane.
+         * @return the name
+         */
+        @NonNull
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the number of tasks this lane runs per round.
+         * @return the weight
+         */
+        public int weight() {
+            return weight;
+        }
+
+        /**
+         * Returns the number of tasks queued in this lane and waiting for a dispatcher;
+         * the delayed tasks are counted once they become due.
+         * @return the backlog
+         */
+        public long backlog() {
+            return backlog.get();
+        }
+
+        @NonNull
+        @Override
+        public Worker createWorker() {
+            return new LaneWorker(this);
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return actual.now(unit);
+        }
+
+        @Override
+        public String toString() {
+            return "Lane[" + name + ", weight=" + weight + ", backlog=" + backlog.get() + "]";
+        }
+    }
+
+    final class LaneWorker extends Worker {
+
+        final Lane lane;
+
+        final MpscChunkedArrayQueue<LaneTask> queue;
+
+        /** The number of queued tasks; the worker is in its lane's ready queue while non-zero. */
+        final AtomicInteger wip;
+
+        final CompositeDisposable tasks;
+
+        volatile boolean disposed;
+
+        LaneWorker(Lane lane) {
+            this.lane = lane;
+            this.queue = new MpscChunkedArrayQueue<LaneTask>();
+            this.wip = new AtomicInteger();
+            this.tasks = new CompositeDisposable();
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run) {
+            if (disposed || FairShareScheduler.this.disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            return enqueue(RxJavaPlugins.onSchedule(run));
+        }
+
+        Disposable enqueue(Runnable decoratedRun) {
+            LaneTask task = new LaneTask(decoratedRun);
+            queue.offer(task);
+            lane.backlog.getAndIncrement();
+            if (wip.getAndIncrement() == 0) {
+                makeReady(this);
+            }
+            return task;
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (delay <= 0L) {
+                return schedule(run);
+            }
+            if (disposed || FairShareScheduler.this.disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            DelayedTask task = new DelayedTask(this, RxJavaPlugins.onSchedule(run));
+            tasks.add(task);
+
+            Disposable d = actual.scheduleDirect(task, delay, unit);
+            if (!task.compareAndSet(null, d) && task.get() == DisposableHelper.DISPOSED) {
+                d.dispose();
+            }
+            return task;
+        }
+
+        /**
+         * Runs the next queued task on the current dispatcher.
+         * @return true if the worker has more tasks queued
+         */
+        boolean runOne() {
+            LaneTask task = queue.poll();
+            lane.backlog.getAndDecrement();
+            if (!disposed) {
+                try {
+                    task.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+            }
+            return wip.decrementAndGet() != 0;
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return actual.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                tasks.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    static final class LaneTask extends AtomicBoolean implements Runnable, Disposable {
+
+        private static final long serialVersionUID = 3425546206385009212L;
+
+        final Runnable actual;
+
+        LaneTask(Runnable actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void run() {
+            if (get()) {
+                return;
+            }
+            try {
+                actual.run();
+            } finally {
+                lazySet(true);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            lazySet(true);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+
+    /**
+     * Holds the timer of the underlying Scheduler until the task is due,
+     * then the task queued in the lane.
+     */
+    static final class DelayedTask extends AtomicReference<Disposable> implements Runnable, Disposable {
+
+        private static final long serialVersionUID = -6418386287316437734L;
+
+        final LaneWorker worker;
+
+        final Runnable run;
+
+        DelayedTask(LaneWorker worker, Runnable run) {
+            this.worker = worker;
+            this.run = run;
+        }
+
+        @Override
+        public void run() {
+            worker.tasks.delete(this);
+            if (worker.disposed || get() == DisposableHelper.DISPOSED) {
+                return;
+            }
+            DisposableHelper.replace(this, worker.enqueue(run));
+        }
+
+        @Override
+        public void dispose() {
+            if (DisposableHelper.dispose(this)) {
+                worker.tasks.delete(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return DisposableHelper.isDisposed(get());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import io.reactivex.annotations.Experimental;
+
+/**
+ * The source of the current time of the {@link io.reactivex.Scheduler}s and {@link io.reactivex.Scheduler.Worker}s
+ * that don't override their {@code now(TimeUnit)} methods, which covers the standard schedulers.
+ * <p>
+ * Set an instance via {@link io.reactivex.plugins.RxJavaPlugins#setSchedulerClock(SchedulerClock)}; without
+ * one, the current time is {@link System#currentTimeMillis()}. The timed operators, such as {@code timestamp()},
+ * {@code timeInterval()} or the time-bound {@code replay} and {@code takeLast} variants, read the time once
+ * per item, so the clock should be cheap to read; see {@link CoarseClock}.
+ * <p>
+ * The method is called concurrently from any thread and should not block or throw.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public interface SchedulerClock {
+
+    /**
+     * Returns the current time as the difference to the midnight of January 1, 1970 UTC.
+     * @return the current time in milliseconds
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.schedulers;
+
+import io.reactivex.annotations.*;
+
+/**
+ * Receives the lifecycle events of the tasks submitted to the standard schedulers
+ * ({@link Schedulers#computation()}, {@link Schedulers#io()}, {@link Schedulers#single()},
+ * {@link Schedulers#newThread()} and {@link Schedulers#from(java.util.concurrent.Executor)}).
+ * <p>
+ * Set an instance via {@link io.reactivex.plugins.RxJavaPlugins#setSchedulerInstrumentation(SchedulerInstrumentation)}.
+ * The tasks are only tracked while an instance is set; without one, scheduling doesn't
+ * allocate anything extra per task.
+ * <p>
+ * The event loop is the object the task has been queued on: the worker object owning a thread of the
+ * computation, io and newThread schedulers, the executor of the single scheduler and the
+ * {@code Executor} wrapped by {@code Schedulers.from}. Each task is reported via exactly one of
+ * {@link #onStart}, {@link #onDisposed} or {@link #onRejected} after its {@link #onEnqueue};
+ * periodic tasks are enqueued again after each run. All times are in {@link System#nanoTime()} units.
+ * <p>
+ * The methods are called on the scheduling, executing or disposing threads and should not block or throw.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public interface SchedulerInstrumentation {
+
+    /**
+     * Called when a task has been queued on an event loop.
+     * @param eventLoop the event loop the task has been queued on
+     * @param task the task, after the {@link io.reactivex.plugins.RxJavaPlugins#onSchedule(Runnable)} hook
+     * @param dueNanos the time when the task becomes due: the current time plus its delay, if any
+     * @param queueDepth the number of tasks queued on the event loop, including this one and the delayed tasks
+     */
+    void onEnqueue(@NonNull Object eventLoop, @NonNull Runnable task, long dueNanos, int queueDepth);
+
+    /**
+     * Called on the executing thread before the task runs.
+     * @param eventLoop the event loop the task has been queued on
+     * @param task the task
+     * @param dueNanos the time when the task became due; the difference to {@code startNanos} is the queueing delay
+     * @param startNanos the time the task started
+     */
+    void onStart(@NonNull Object eventLoop, @NonNull Runnable task, long dueNanos, long startNanos);
+
+    /**
+     * Called on the executing thread after the task has run, even if it crashed.
+     * @param eventLoop the event loop the task has been queued on
+     * @param task the task
+     * @param startNanos the time the task started
+     * @param endNanos the time the task ended
+     */
+    void onEnd(@NonNull Object eventLoop, @NonNull Runnable task, long startNanos, long endNanos);
+
+    /**
+     * Called when the event loop rejected the task, i.e., it has been shut down.
+     * @param eventLoop the event loop the task has been submitted to
+     * @param task the task
+     */
+    void onRejected(@NonNull Object eventLoop, @NonNull Runnable task);
+
+    /**
+     * Called when a queued task has been disposed before it could run.
+     * @param eventLoop the event loop the task has been queued on
+     * @param task the task
+     */
+    void onDisposed(@NonNull Object eventLoop, @NonNull Runnable task);
+}
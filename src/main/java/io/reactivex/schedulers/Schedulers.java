@@ -31,12 +31,24 @@ import io.reactivex.plugins.RxJavaPlugins;
  * <ul>
  * <li>{@code rx2.io-keep-alive-time} (long): sets the keep-alive time of the {@link #io()} Scheduler workers, default is {@link IoScheduler#KEEP_ALIVE_TIME_DEFAULT}</li>
  * <li>{@code rx2.io-priority} (int): sets the thread priority of the {@link #io()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+ * <li>{@code rx2.io-max-threads} (int): sets the maximum number of threads of the {@link #io()} Scheduler beyond which new workers share the existing threads, default is 0 (unbounded)</li>
+ * <li>{@code rx2.io-reuse-lifo} (boolean): reuses the most recently released thread of the {@link #io()} Scheduler first so that rarely used threads can expire, default is false</li>
  * <li>{@code rx2.computation-threads} (int): sets the number of threads in the {@link #computation()} Scheduler, default is the number of available CPUs</li>
+ * <li>{@code rx2.computation-threads-cgroup} (boolean): derives the number of available CPUs for the {@link #computation()} Scheduler from the cgroup CPU quota of the process, default is false</li>
  * <li>{@code rx2.computation-priority} (int): sets the thread priority of the {@link #computation()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+ * <li>{@code rx2.computation-work-stealing} (boolean): allows idle threads of the {@link #computation()} Scheduler to execute the non-delayed direct tasks of busy threads, default is false</li>
+ * <li>{@code rx2.computation-selector} (String): sets how the {@link #computation()} Scheduler assigns its threads to workers, {@code round-robin} or {@code least-loaded}, default is {@code round-robin}</li>
+ * <li>{@code rx2.computation-wait-strategy} (String): sets how the threads of the {@link #computation()} Scheduler wait for tasks, {@code blocking}, {@code busy-spin}, {@code spin-yield} or {@code spin-park}, default is {@code blocking}</li>
  * <li>{@code rx2.newthread-priority} (int): sets the thread priority of the {@link #newThread()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+ * <li>{@code rx2.newthread-wait-strategy} (String): sets how the threads of the {@link #newThread()} Scheduler wait for tasks, {@code blocking}, {@code busy-spin}, {@code spin-yield} or {@code spin-park}, default is {@code blocking}</li>
  * <li>{@code rx2.single-priority} (int): sets the thread priority of the {@link #single()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
- * <li>{@code rx2.purge-enabled} (boolean): enables periodic purging of all Scheduler's backing thread pools, default is false</li>
- * <li>{@code rx2.purge-period-seconds} (int): specifies the periodic purge interval of all Scheduler's backing thread pools, default is 1 second</li>
+ * <li>{@code rx2.purge-enabled} (boolean): enables periodic purging of the Scheduler's backing thread pools on runtimes that can't remove cancelled tasks eagerly (Java 6, Android before API 21), default is true</li>
+ * <li>{@code rx2.purge-period-seconds} (int): specifies the periodic purge interval of the Scheduler's backing thread pools on such runtimes, default is 1 second</li>
+ * <li>{@code rx2.timer-wheel} (boolean): times the delayed and periodic tasks of the {@link #computation()}, {@link #io()} and {@link #single()} Schedulers with a shared hashed timing wheel instead of their backing thread pools, default is false</li>
+ * <li>{@code rx2.timer-wheel-tick-micros} (long): specifies the tick resolution of the shared timing wheel in microseconds, default is 1000</li>
+ * <li>{@code rx2.timer-wheel-size} (int): specifies the number of buckets of the shared timing wheel, default is 512</li>
+ * <li>{@code rx2.drain-budget-items} (long): limits the number of items or tasks the {@code observeOn} drain loops and the {@link #from(Executor)} workers run before rescheduling themselves, default is 0 (unlimited)</li>
+ * <li>{@code rx2.drain-budget-nanos} (long): limits the time in nanoseconds the {@code observeOn} drain loops and the {@link #from(Executor)} workers run before rescheduling themselves, default is 0 (unlimited)</li>
  * </ul>
  */
 public final class Schedulers {
@@ -55,6 +67,9 @@ public final class Schedulers {
     @NonNull
     static final Scheduler NEW_THREAD;
 
+    @NonNull
+    static final Scheduler VIRTUAL;
+
     static final class SingleHolder {
         static final Scheduler DEFAULT = new SingleScheduler();
     }
@@ -71,6 +86,10 @@ public final class Schedulers {
         static final Scheduler DEFAULT = new NewThreadScheduler();
     }
 
+    static final class VirtualHolder {
+        static final Scheduler DEFAULT = new VirtualThreadScheduler();
+    }
+
     static {
         SINGLE = RxJavaPlugins.initSingleScheduler(new SingleTask());
 
@@ -81,6 +100,8 @@ public final class Schedulers {
         TRAMPOLINE = TrampolineScheduler.instance();
 
         NEW_THREAD = RxJavaPlugins.initNewThreadScheduler(new NewThreadTask());
+
+        VIRTUAL = RxJavaPlugins.initVirtualScheduler(new VirtualTask());
     }
 
     /** Utility class. */
@@ -112,7 +133,11 @@ public final class Schedulers {
      * <p><strong>Supported system properties ({@code System.getProperty()}):</strong>
      * <ul>
      * <li>{@code rx2.computation-threads} (int): sets the number of threads in the {@link #computation()} Scheduler, default is the number of available CPUs</li>
+     * <li>{@code rx2.computation-threads-cgroup} (boolean): derives the number of available CPUs for the {@link #computation()} Scheduler from the cgroup CPU quota of the process, default is false</li>
      * <li>{@code rx2.computation-priority} (int): sets the thread priority of the {@link #computation()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+     * <li>{@code rx2.computation-work-stealing} (boolean): allows idle threads of the {@link #computation()} Scheduler to execute the non-delayed direct tasks of busy threads, default is false</li>
+     * <li>{@code rx2.computation-selector} (String): sets how the {@link #computation()} Scheduler assigns its threads to workers, {@code round-robin} or {@code least-loaded}, default is {@code round-robin}</li>
+     * <li>{@code rx2.computation-wait-strategy} (String): sets how the threads of the {@link #computation()} Scheduler wait for tasks, {@code blocking}, {@code busy-spin}, {@code spin-yield} or {@code spin-park}, default is {@code blocking}</li>
      * </ul>
      * <p>
      * The default value of this scheduler can be overridden at initialization time via the
@@ -147,6 +172,8 @@ public final class Schedulers {
      * {@link ScheduledExecutorService} instance. Note that this scheduler may create an unbounded number
      * of worker threads that can result in system slowdowns or {@code OutOfMemoryError}. Therefore, for casual uses
      * or when implementing an operator, the Worker instances must be disposed via {@link io.reactivex.Scheduler.Worker#dispose()}.
+     * The number of threads can be limited via the {@code rx2.io-max-threads} system property, in which case
+     * the workers created beyond the limit share the least used threads and their tasks wait in FIFO order.
      * <p>
      * It is not recommended to perform computational work on this scheduler. Use {@link #computation()} instead.
      * <p>
@@ -158,6 +185,8 @@ public final class Schedulers {
      * <ul>
      * <li>{@code rx2.io-keep-alive-time} (long): sets the keep-alive time of the {@link #io()} Scheduler workers, default is {@link IoScheduler#KEEP_ALIVE_TIME_DEFAULT}</li>
      * <li>{@code rx2.io-priority} (int): sets the thread priority of the {@link #io()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+     * <li>{@code rx2.io-max-threads} (int): sets the maximum number of threads of the {@link #io()} Scheduler beyond which new workers share the existing threads, default is 0 (unbounded)</li>
+     * <li>{@code rx2.io-reuse-lifo} (boolean): reuses the most recently released thread of the {@link #io()} Scheduler first so that rarely used threads can expire, default is false</li>
      * </ul>
      * <p>
      * The default value of this scheduler can be overridden at initialization time via the
@@ -216,6 +245,7 @@ public final class Schedulers {
      * <p><strong>Supported system properties ({@code System.getProperty()}):</strong>
      * <ul>
      * <li>{@code rx2.newthread-priority} (int): sets the thread priority of the {@link #newThread()} Scheduler, default is {@link Thread#NORM_PRIORITY}</li>
+     * <li>{@code rx2.newthread-wait-strategy} (String): sets how the threads of the {@link #newThread()} Scheduler wait for tasks, {@code blocking}, {@code busy-spin}, {@code spin-yield} or {@code spin-park}, default is {@code blocking}</li>
      * </ul>
      * <p>
      * The default value of this scheduler can be overridden at initialization time via the
@@ -239,6 +269,73 @@ public final class Schedulers {
         return RxJavaPlugins.onNewThreadScheduler(NEW_THREAD);
     }
 
+    /**
+     * Changes the number of threads the {@link #computation()} Scheduler assigns its new workers
+     * and direct tasks to, for example after the CPU quota of the container has changed.
+     * <p>
+     * The existing workers keep running on their threads. When shrinking, the removed threads
+     * finish the tasks already assigned to them, then go idle and are reused first when growing again.
+     * {@link #availableProcessors()} returns the CPU count derived from the
+     * cgroup CPU quota of the process.
+     * <p>
+     * Has no effect if the {@link #computation()} Scheduler has been replaced by one not
+     * created via {@link RxJavaPlugins#createComputationScheduler(ThreadFactory)}.
+     * @param threads the new number of threads, positive
+     * @return true if the {@link #computation()} Scheduler supports resizing
+     * @throws IllegalArgumentException if {@code threads} is not positive
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static boolean resizeComputation(int threads) {
+        Scheduler s = computation();
+        if (s instanceof ComputationScheduler) {
+            ((ComputationScheduler)s).resize(threads);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of CPUs available to the process according to its cgroup CPU quota,
+     * capped by {@link Runtime#availableProcessors()}.
+     * <p>
+     * The quota is read on each call, so the result can be passed to {@link #resizeComputation(int)}
+     * after the quota of the container has changed.
+     * @return the number of CPUs, at least 1
+     * @since 2.2.8 - experimental
+     */
+    @Experimental
+    public static int availableProcessors() {
+        return CgroupCpuQuota.availableProcessors();
+    }
+
+    /**
+     * Returns a default, shared {@link Scheduler} instance intended for blocking work that
+     * runs each {@link io.reactivex.Scheduler.Worker} on a virtual thread.
+     * <p>
+     * When running on Java 21 or newer, the workers execute their tasks in FIFO order on virtual
+     * threads started on demand, therefore a large number of blocked workers doesn't hold on to
+     * as many platform threads as with {@link #io()}. On older Java versions, the workers
+     * run on a cached pool of platform threads instead.
+     * <p>
+     * Delayed and periodic tasks are timed by a shared, hashed timing wheel thread.
+     * <p>
+     * Unhandled errors will be delivered to the scheduler Thread's {@link java.lang.Thread.UncaughtExceptionHandler}.
+     * <p>
+     * The default value of this scheduler can be overridden at initialization time via the
+     * {@link RxJavaPlugins#setInitVirtualSchedulerHandler(io.reactivex.functions.Function)} plugin method.
+     * Note that due to possible initialization cycles, using any of the other scheduler-returning methods will
+     * result in a {@code NullPointerException}.
+     * Once the {@link Schedulers} class has been initialized, you can override the returned {@link Scheduler} instance
+     * via the {@link RxJavaPlugins#setVirtualSchedulerHandler(io.reactivex.functions.Function)} method.
+     * @return a {@link Scheduler} that runs its workers on virtual threads
+     */
+    @NonNull
+    @Experimental
+    public static Scheduler virtual() {
+        return RxJavaPlugins.onVirtualScheduler(VIRTUAL);
+    }
+
     /**
      * Returns a default, shared, single-thread-backed {@link Scheduler} instance for work
      * requiring strongly-sequential execution on the same background thread.
@@ -414,8 +511,10 @@ public final class Schedulers {
         computation().shutdown();
         io().shutdown();
         newThread().shutdown();
+        virtual().shutdown();
         single().shutdown();
         trampoline().shutdown();
+        HashedWheelTimer.shutdownShared();
         SchedulerPoolFactory.shutdown();
     }
 
@@ -427,6 +526,7 @@ public final class Schedulers {
         computation().start();
         io().start();
         newThread().start();
+        virtual().start();
         single().start();
         trampoline().start();
         SchedulerPoolFactory.start();
@@ -446,6 +546,13 @@ public final class Schedulers {
         }
     }
 
+    static final class VirtualTask implements Callable<Scheduler> {
+        @Override
+        public Scheduler call() throws Exception {
+            return VirtualHolder.DEFAULT;
+        }
+    }
+
     static final class SingleTask implements Callable<Scheduler> {
         @Override
         public Scheduler call() throws Exception {
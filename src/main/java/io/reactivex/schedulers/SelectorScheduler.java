@@ -0,0 +1,630 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.schedulers;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.annotations.*;
+import io.reactivex.disposables.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscChunkedArrayQueue;
+import io.reactivex.internal.schedulers.RxThreadFactory;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * A Scheduler whose threads each run an event loop around their own NIO {@link Selector},
+ * executing the scheduled tasks and signaling the readiness of the registered channels
+ * on the same thread.
+ * <p>
+ * The workers and the {@link #readiness(SelectableChannel, int)} sequences are assigned to the
+ * event loops in a round-robin fashion. A channel read or written in the {@code onNext} of its
+ * readiness sequence is therefore served without a thread hop, and tasks scheduled on a worker
+ * of the same event loop run in between the selections.
+ * <p>
+ * The event loop blocks in {@link Selector#select(long)} until the next delayed task is due; a
+ * task submitted from another thread wakes it up via {@link Selector#wakeup()} only if the
+ * event loop is actually about to select or selecting.
+ * <pre><code>
+ * SelectorScheduler loops = new SelectorScheduler(2);
+ * loops.readiness(socketChannel, SelectionKey.OP_READ)
+ *     .subscribe(ops -&gt; socketChannel.read(buffer));
+ * </code></pre>
+ * The scheduler can't be restarted once shut down.
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public final class SelectorScheduler extends Scheduler implements Disposable {
+
+    static final String THREAD_NAME_PREFIX = "RxSelectorThread";
+
+    /** The maximum number of queued tasks an event loop runs before checking the channels again. */
+    static final int TASK_BUDGET = 1024;
+
+    final SelectorLoop[] loops;
+
+    volatile boolean disposed;
+
+    int index;
+
+    /**
+     * Constructs a SelectorScheduler with the given number of event loops and daemon threads.
+     * @param loops the number of event loops, positive
+     */
+    public SelectorScheduler(int loops) {
+        this(loops, new RxThreadFactory(THREAD_NAME_PREFIX, Thread.NORM_PRIORITY, true));
+    }
+
+    /**
+     * Constructs a SelectorScheduler with the given number of event loops and thread factory.
+     * @param loops the number of event loops, positive
+     * @param threadFactory the factory for the threads of the event loops, not null
+     */
+    public SelectorScheduler(int loops, @NonNull ThreadFactory threadFactory) {
+        ObjectHelper.verifyPositive(loops, "loops");
+        ObjectHelper.requireNonNull(threadFactory, "threadFactory is null");
+        this.loops = new SelectorLoop[loops];
+        for (int i = 0; i < loops; i++) {
+            SelectorLoop loop;
+            try {
+                loop = new SelectorLoop(Selector.open(), threadFactory);
+            } catch (IOException ex) {
+                for (int j = 0; j < i; j++) {
+                    this.loops[j].shutdown();
+                }
+                throw ExceptionHelper.wrapOrThrow(ex);
+            }
+            this.loops[i] = loop;
+            loop.thread.start();
+        }
+    }
+
+    SelectorLoop next() {
+        SelectorLoop[] a = loops;
+        return a[(index++ & Integer.MAX_VALUE) % a.length];
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new SelectorWorker(next());
+    }
+
+    /**
+     * Registers the given channel with one of the event loops and signals its ready operations
+     * each time the channel is ready for any of the given operations.
+     * <p>
+     * The channel is put into non-blocking mode. The signals are emitted on the thread of the event loop;
+     * while there is no outstanding request, the channel is not selected. As the readiness is level-triggered,
+     * the channel keeps being signaled until the operations are performed. Cancelling the sequence
+     * cancels the registration but doesn't close the channel. The sequence completes when the channel is
+     * found closed while updating its registration or when the scheduler shuts down, and fails if the
+     * channel can't be registered.
+     * @param channel the channel to register, not null
+     * @param interestOps the {@link SelectionKey} operations to watch
+     * @return the Flowable of the ready operation sets
+     */
+    @NonNull
+    public Flowable<Integer> readiness(@NonNull SelectableChannel channel, int interestOps) {
+        ObjectHelper.requireNonNull(channel, "channel is null");
+        if ((interestOps & ~channel.validOps()) != 0 || interestOps == 0) {
+            throw new IllegalArgumentException("Invalid interestOps: " + interestOps);
+        }
+        return RxJavaPlugins.onAssembly(new ChannelReadiness(this, channel, interestOps));
+    }
+
+    /**
+     * Returns the number of event loops.
+     * @return the number of event loops
+     */
+    public int loops() {
+        return loops.length;
+    }
+
+    @Override
+    public void shutdown() {
+        dispose();
+    }
+
+    @Override
+    public void dispose() {
+        if (!disposed) {
+            disposed = true;
+            for (SelectorLoop loop : loops) {
+                loop.shutdown();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    static final class SelectorLoop implements Runnable {
+
+        final Selector selector;
+
+        final Thread thread;
+
+        final MpscChunkedArrayQueue<Runnable> queue;
+
+        /** The delayed tasks ordered by their due time, accessed by the event loop thread only. */
+        final PriorityQueue<LoopTask> timed;
+
+        /** Set while the event loop is not going to select, so submitters don't need to wake it up. */
+        final AtomicBoolean awake;
+
+        /** The number of delayed tasks disposed since the last purge of {@link #timed}. */
+        final AtomicInteger cancelledTimed;
+
+        volatile boolean shutdown;
+
+        long sequence;
+
+        SelectorLoop(Selector selector, ThreadFactory threadFactory) {
+            this.selector = selector;
+            this.queue = new MpscChunkedArrayQueue<Runnable>(Flowable.bufferSize());
+            this.timed = new PriorityQueue<LoopTask>();
+            this.awake = new AtomicBoolean(true);
+            this.cancelledTimed = new AtomicInteger();
+            this.thread = threadFactory.newThread(this);
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        boolean execute(Runnable task) {
+            if (shutdown) {
+                return false;
+            }
+            queue.offer(task);
+            if (!inLoop() && !awake.get() && awake.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+            return true;
+        }
+
+        void shutdown() {
+            shutdown = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown) {
+                    boolean more = runQueued();
+
+                    long timeout = runDue();
+
+                    if (shutdown) {
+                        break;
+                    }
+
+                    awake.set(false);
+                    if (more || !queue.isEmpty()) {
+                        selector.selectNow();
+                    } else if (timeout < 0L) {
+                        selector.select();
+                    } else {
+                        selector.select(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(timeout + 999999L)));
+                    }
+                    awake.set(true);
+
+                    processSelected();
+                }
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            } finally {
+                terminate();
+            }
+        }
+
+        /**
+         * Runs the queued tasks up to the budget.
+         * @return true if the budget ran out
+         */
+        boolean runQueued() {
+            MpscChunkedArrayQueue<Runnable> q = queue;
+            for (int i = 0; i < TASK_BUDGET; i++) {
+                Runnable r = q.poll();
+                if (r == null) {
+                    return false;
+                }
+                if (r instanceof LoopTask) {
+                    LoopTask t = (LoopTask)r;
+                    if (t.deadline != 0L && t.deadline - System.nanoTime() > 0L) {
+                        t.sequence = sequence++;
+                        timed.offer(t);
+                        continue;
+                    }
+                }
+                runSafe(r);
+            }
+            return true;
+        }
+
+        /**
+         * Runs the due delayed tasks.
+         * @return the nanoseconds until the next delayed task is due or -1 if there are none
+         */
+        long runDue() {
+            PriorityQueue<LoopTask> h = timed;
+            if (h.isEmpty()) {
+                return -1L;
+            }
+            int c = cancelledTimed.get();
+            if (c > 64 && c > h.size() >> 1) {
+                cancelledTimed.addAndGet(-c);
+                Iterator<LoopTask> it = h.iterator();
+                while (it.hasNext()) {
+                    if (it.next().get()) {
+                        it.remove();
+                    }
+                }
+            }
+            long now = System.nanoTime();
+            for (;;) {
+                LoopTask t = h.peek();
+                if (t == null) {
+                    return -1L;
+                }
+                if (!t.get()) {
+                    long d = t.deadline - now;
+                    if (d > 0L) {
+                        return d;
+                    }
+                }
+                h.poll();
+                runSafe(t);
+            }
+        }
+
+        static void runSafe(Runnable r) {
+            try {
+                r.run();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+
+        void processSelected() {
+            Set<SelectionKey> keys = selector.selectedKeys();
+            if (keys.isEmpty()) {
+                return;
+            }
+            Iterator<SelectionKey> it = keys.iterator();
+            while (it.hasNext()) {
+                SelectionKey k = it.next();
+                it.remove();
+                ((ReadinessSubscription)k.attachment()).onReady(k);
+            }
+        }
+
+        void terminate() {
+            queue.clear();
+            timed.clear();
+            try {
+                for (SelectionKey k : selector.keys()) {
+                    ((ReadinessSubscription)k.attachment()).onShutdown();
+                }
+                selector.close();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
+            }
+        }
+    }
+
+    static final class LoopTask extends AtomicBoolean implements Runnable, Disposable, Comparable<LoopTask> {
+
+        private static final long serialVersionUID = -3601487347446426409L;
+
+        final Runnable run;
+
+        final SelectorLoop loop;
+
+        /** The System.nanoTime() the task is due at or 0 if not delayed. */
+        final long deadline;
+
+        final DisposableContainer parent;
+
+        /** Orders the tasks with the same deadline, set by the event loop thread. */
+        long sequence;
+
+        LoopTask(Runnable run, SelectorLoop loop, long deadline, DisposableContainer parent) {
+            this.run = run;
+            this.loop = loop;
+            this.deadline = deadline;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            if (!get()) {
+                try {
+                    run.run();
+                } finally {
+                    lazySet(true);
+                    parent.delete(this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                parent.delete(this);
+                if (deadline != 0L) {
+                    loop.cancelledTimed.getAndIncrement();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+
+        @Override
+        public int compareTo(LoopTask o) {
+            long d = deadline - o.deadline;
+            if (d == 0L) {
+                d = sequence - o.sequence;
+            }
+            return d < 0L ? -1 : (d > 0L ? 1 : 0);
+        }
+    }
+
+    static final class SelectorWorker extends Scheduler.Worker {
+
+        final SelectorLoop loop;
+
+        final CompositeDisposable tasks;
+
+        volatile boolean disposed;
+
+        SelectorWorker(SelectorLoop loop) {
+            this.loop = loop;
+            this.tasks = new CompositeDisposable();
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            long deadline = 0L;
+            if (delay > 0L) {
+                // 0 marks the non-delayed tasks
+                deadline = (System.nanoTime() + unit.toNanos(delay)) | 1L;
+            }
+            LoopTask task = new LoopTask(RxJavaPlugins.onSchedule(run), loop, deadline, tasks);
+            if (!tasks.add(task)) {
+                return EmptyDisposable.INSTANCE;
+            }
+            if (!loop.execute(task)) {
+                tasks.delete(task);
+                RxJavaPlugins.onError(new RejectedExecutionException("The SelectorScheduler has been shut down"));
+                return EmptyDisposable.INSTANCE;
+            }
+            return task;
+        }
+
+        @Override
+        public boolean runsOnCurrentThread() {
+            return !disposed && loop.inLoop();
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                tasks.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    static final class ChannelReadiness extends Flowable<Integer> {
+
+        final SelectorScheduler parent;
+
+        final SelectableChannel channel;
+
+        final int interestOps;
+
+        ChannelReadiness(SelectorScheduler parent, SelectableChannel channel, int interestOps) {
+            this.parent = parent;
+            this.channel = channel;
+            this.interestOps = interestOps;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super Integer> s) {
+            if (parent.disposed) {
+                EmptySubscription.error(new RejectedExecutionException("The SelectorScheduler has been shut down"), s);
+                return;
+            }
+            ReadinessSubscription rs = new ReadinessSubscription(s, parent.next(), channel, interestOps);
+            s.onSubscribe(rs);
+            rs.update();
+        }
+    }
+
+    /**
+     * Registers a channel with an event loop and keeps its interest set in sync with the
+     * outstanding requests; the registration, the interest changes and the signals all
+     * happen on the thread of the event loop.
+     */
+    static final class ReadinessSubscription extends AtomicLong implements Subscription, Runnable {
+
+        private static final long serialVersionUID = 8233570373958231567L;
+
+        final Subscriber<? super Integer> downstream;
+
+        final SelectorLoop loop;
+
+        final SelectableChannel channel;
+
+        final int interestOps;
+
+        final AtomicInteger wip;
+
+        volatile boolean cancelled;
+
+        /** Accessed by the event loop thread only. */
+        SelectionKey key;
+
+        /** Accessed by the event loop thread only. */
+        boolean done;
+
+        ReadinessSubscription(Subscriber<? super Integer> downstream, SelectorLoop loop,
+                SelectableChannel channel, int interestOps) {
+            this.downstream = downstream;
+            this.loop = loop;
+            this.channel = channel;
+            this.interestOps = interestOps;
+            this.wip = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                if (BackpressureHelper.add(this, n) == 0L) {
+                    update();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                update();
+            }
+        }
+
+        void update() {
+            if (wip.getAndIncrement() == 0) {
+                if (!loop.execute(this)) {
+                    cancelled = true;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                sync();
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        void sync() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                done = true;
+                if (key != null) {
+                    key.cancel();
+                }
+                return;
+            }
+            try {
+                if (key == null) {
+                    channel.configureBlocking(false);
+                    key = channel.register(loop.selector, 0, this);
+                }
+                key.interestOps(get() != 0L ? interestOps : 0);
+            } catch (CancelledKeyException ex) {
+                done = true;
+                downstream.onComplete();
+            } catch (ClosedChannelException ex) {
+                done = true;
+                downstream.onComplete();
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                done = true;
+                if (key != null) {
+                    key.cancel();
+                }
+                downstream.onError(ex);
+            }
+        }
+
+        void onReady(SelectionKey k) {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                sync();
+                return;
+            }
+            try {
+                int ready = k.readyOps();
+                if (get() == 0L) {
+                    k.interestOps(0);
+                    return;
+                }
+                downstream.onNext(ready);
+                if (cancelled) {
+                    sync();
+                    return;
+                }
+                if (get() != Long.MAX_VALUE && decrementAndGet() == 0L) {
+                    // a request arriving from now on schedules a sync restoring the interest set
+                    k.interestOps(0);
+                }
+            } catch (CancelledKeyException ex) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+
+        void onShutdown() {
+            if (!done) {
+                done = true;
+                if (!cancelled) {
+                    downstream.onComplete();
+                }
+            }
+        }
+    }
+}
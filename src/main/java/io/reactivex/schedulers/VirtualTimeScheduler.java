@@ -0,0 +1,456 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.*;
+import io.reactivex.annotations.*;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.disposables.EmptyDisposable;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * A single-threaded scheduler with a virtual clock, meant for replaying recorded data
+ * through pipelines at the highest possible rate, such as in historical backtesting.
+ * <p>
+ * Unlike the {@link TestScheduler}, this scheduler doesn't synchronize at all: the tasks must be
+ * scheduled, cancelled and run on the same thread, the one advancing the clock. Each task is its own
+ * {@code Disposable}, the tasks without delay are kept in a FIFO queue and the delayed ones in an
+ * array-based binary heap; cancelling a task only marks it, and the heap is compacted once
+ * the majority of it has been cancelled. {@link #advanceTimeTo(long, TimeUnit)} runs all the tasks due
+ * up to the given time in one pass, moving the clock to the due time of each task before running it.
+ * <p>
+ * The {@link #replay(Flowable)} method drives the clock by the timestamps of the recorded values
+ * themselves, without any real waiting:
+ * <pre><code>
+ * VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+ *
+ * scheduler.replay(recordedTicks)
+ *     .buffer(1, TimeUnit.MINUTES, scheduler)
+ *     .subscribe(...);
+ * </code></pre>
+ * @since 2.2.8 - experimental
+ */
+@Experimental
+public final class VirtualTimeScheduler extends Scheduler {
+
+    /** The minimum number of cancelled delayed tasks before the heap gets compacted. */
+    static final int PURGE_THRESHOLD = 64;
+
+    /** The tasks without delay, in the order of their scheduling. */
+    final ArrayDeque<VirtualTask> immediate;
+
+    /** The binary min-heap of the delayed tasks, ordered by due time and then by scheduling order. */
+    VirtualTask[] heap;
+
+    /** The number of tasks in the heap. */
+    int size;
+
+    /** The number of cancelled tasks still in the heap. */
+    int cancelled;
+
+    /** The scheduling order of the next task. */
+    long counter;
+
+    /** The virtual time in nanoseconds. */
+    long time;
+
+    /** Set while {@link #advance(long)} runs tasks. */
+    boolean advancing;
+
+    /**
+     * Creates a new VirtualTimeScheduler with initial virtual time of zero.
+     */
+    public VirtualTimeScheduler() {
+        this(0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new VirtualTimeScheduler with the specified initial virtual time.
+     *
+     * @param initialTime
+     *          the point in time to start the Scheduler's clock at
+     * @param unit
+     *          the units of time that {@code initialTime} is expressed in
+     */
+    public VirtualTimeScheduler(long initialTime, @NonNull TimeUnit unit) {
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        this.time = unit.toNanos(initialTime);
+        this.immediate = new ArrayDeque<VirtualTask>();
+        this.heap = new VirtualTask[16];
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        return unit.convert(time, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Moves the Scheduler's clock forward by a specified amount of time, running the
+     * tasks that become due in the meantime.
+     *
+     * @param delayTime
+     *          the amount of time to move the Scheduler's clock forward
+     * @param unit
+     *          the units of time that {@code delayTime} is expressed in
+     */
+    public void advanceTimeBy(long delayTime, @NonNull TimeUnit unit) {
+        advance(time + unit.toNanos(delayTime));
+    }
+
+    /**
+     * Moves the Scheduler's clock to a particular moment in time, running the
+     * tasks that become due in the meantime.
+     * <p>
+     * The clock never moves backwards: a moment before the current virtual time only
+     * runs the tasks due at the current time.
+     *
+     * @param targetTime
+     *          the point in time to move the Scheduler's clock to
+     * @param unit
+     *          the units of time that {@code targetTime} is expressed in
+     */
+    public void advanceTimeTo(long targetTime, @NonNull TimeUnit unit) {
+        advance(unit.toNanos(targetTime));
+    }
+
+    /**
+     * Runs the tasks that are due at or before the present virtual time.
+     */
+    public void triggerActions() {
+        advance(time);
+    }
+
+    /**
+     * Returns a Flowable that moves the Scheduler's clock to the timestamp of each
+     * upstream value, running the tasks due until then, before emitting the value itself.
+     * <p>
+     * The upstream has to emit on the thread running the tasks of this scheduler; the timestamps
+     * are expected in non-decreasing order.
+     * <p>
+     * The upstream is subscribed to from a task of this scheduler so that the timed operators
+     * downstream have scheduled their tasks before a synchronous source emits its values.
+     * Subscribing runs that task right away, unless it happens from within a task of this
+     * scheduler, in which case the task runs after the current one.
+     *
+     * @param <T> the value type
+     * @param source the source of the timestamped values, not null
+     * @return the new Flowable instance
+     */
+    @NonNull
+    public <T> Flowable<T> replay(@NonNull Flowable<Timed<T>> source) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        return new Replay<T>(source.subscribeOn(this, false).map(new AdvanceTime<T>(this)), this);
+    }
+
+    /**
+     * Returns the number of tasks waiting to be run, including the cancelled tasks
+     * not yet removed from the queues.
+     * @return the number of tasks waiting to be run
+     */
+    public int queueSize() {
+        return immediate.size() + size;
+    }
+
+    void advance(long target) {
+        boolean outer = !advancing;
+        advancing = true;
+        try {
+            runTasks(target);
+        } finally {
+            if (outer) {
+                advancing = false;
+            }
+        }
+    }
+
+    void runTasks(long target) {
+        if (target < time) {
+            target = time;
+        }
+        ArrayDeque<VirtualTask> q = immediate;
+        for (;;) {
+            VirtualTask task = q.peek();
+            VirtualTask delayed = size != 0 ? heap[0] : null;
+
+            if (delayed != null && delayed.time <= target
+                    && (task == null || delayed.compareTo(task) < 0)) {
+                task = removeFirst();
+                if (task.disposed) {
+                    cancelled--;
+                    continue;
+                }
+                time = task.time;
+            } else if (task != null) {
+                q.poll();
+                if (task.disposed) {
+                    continue;
+                }
+            } else {
+                break;
+            }
+
+            task.disposed = true;
+            VirtualWorker w = task.worker;
+            if (w == null || !w.disposed) {
+                task.run.run();
+            }
+        }
+        // a task may have advanced the clock further, such as the subscription task of replay()
+        if (time < target) {
+            time = target;
+        }
+    }
+
+    VirtualTask enqueue(VirtualWorker worker, Runnable run, long delay, TimeUnit unit) {
+        ObjectHelper.requireNonNull(run, "run is null");
+        if (delay <= 0L) {
+            VirtualTask task = new VirtualTask(this, worker, run, time, counter++, false);
+            immediate.offer(task);
+            return task;
+        }
+        VirtualTask task = new VirtualTask(this, worker, run, time + unit.toNanos(delay), counter++, true);
+        offer(task);
+        return task;
+    }
+
+    void offer(VirtualTask task) {
+        VirtualTask[] h = heap;
+        int i = size;
+        if (i == h.length) {
+            VirtualTask[] b = new VirtualTask[i << 1];
+            System.arraycopy(h, 0, b, 0, i);
+            heap = b;
+            h = b;
+        }
+        size = i + 1;
+        siftUp(h, i, task);
+    }
+
+    VirtualTask removeFirst() {
+        VirtualTask[] h = heap;
+        VirtualTask first = h[0];
+        int n = --size;
+        VirtualTask last = h[n];
+        h[n] = null;
+        if (n != 0) {
+            siftDown(h, n, 0, last);
+        }
+        return first;
+    }
+
+    void cancelled() {
+        int c = ++cancelled;
+        if (c >= PURGE_THRESHOLD && c > (size >> 1)) {
+            purge();
+        }
+    }
+
+    /** Removes the cancelled tasks from the heap and restores the heap order. */
+    void purge() {
+        VirtualTask[] h = heap;
+        int n = size;
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            VirtualTask t = h[i];
+            if (!t.disposed) {
+                h[j++] = t;
+            }
+        }
+        for (int i = j; i < n; i++) {
+            h[i] = null;
+        }
+        size = j;
+        cancelled = 0;
+        for (int i = (j >>> 1) - 1; i >= 0; i--) {
+            siftDown(h, j, i, h[i]);
+        }
+    }
+
+    static void siftUp(VirtualTask[] h, int index, VirtualTask task) {
+        int i = index;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            VirtualTask p = h[parent];
+            if (task.compareTo(p) >= 0) {
+                break;
+            }
+            h[i] = p;
+            i = parent;
+        }
+        h[i] = task;
+    }
+
+    static void siftDown(VirtualTask[] h, int n, int index, VirtualTask task) {
+        int i = index;
+        int half = n >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            VirtualTask c = h[child];
+            int right = child + 1;
+            if (right < n && c.compareTo(h[right]) > 0) {
+                child = right;
+                c = h[child];
+            }
+            if (task.compareTo(c) <= 0) {
+                break;
+            }
+            h[i] = c;
+            i = child;
+        }
+        h[i] = task;
+    }
+
+    @NonNull
+    @Override
+    public Disposable scheduleDirect(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+        return enqueue(null, run, delay, unit);
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new VirtualWorker(this);
+    }
+
+    static final class VirtualTask implements Disposable, Comparable<VirtualTask> {
+
+        final VirtualTimeScheduler scheduler;
+
+        final VirtualWorker worker;
+
+        final Runnable run;
+
+        final long time;
+
+        final long count;
+
+        final boolean delayed;
+
+        /** Set when the task has been run or cancelled. */
+        boolean disposed;
+
+        VirtualTask(VirtualTimeScheduler scheduler, VirtualWorker worker, Runnable run, long time, long count, boolean delayed) {
+            this.scheduler = scheduler;
+            this.worker = worker;
+            this.run = run;
+            this.time = time;
+            this.count = count;
+            this.delayed = delayed;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                if (delayed) {
+                    scheduler.cancelled();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public int compareTo(VirtualTask o) {
+            if (time == o.time) {
+                return ObjectHelper.compare(count, o.count);
+            }
+            return ObjectHelper.compare(time, o.time);
+        }
+
+        @Override
+        public String toString() {
+            return "VirtualTask(time = " + time + ", run = " + run + ")";
+        }
+    }
+
+    static final class VirtualWorker extends Worker {
+
+        final VirtualTimeScheduler scheduler;
+
+        boolean disposed;
+
+        VirtualWorker(VirtualTimeScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            return scheduler.enqueue(this, run, delay, unit);
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return scheduler.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    static final class Replay<T> extends Flowable<T> {
+
+        final Flowable<T> source;
+
+        final VirtualTimeScheduler scheduler;
+
+        Replay(Flowable<T> source, VirtualTimeScheduler scheduler) {
+            this.source = source;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super T> s) {
+            source.subscribe(s);
+            if (!scheduler.advancing) {
+                scheduler.triggerActions();
+            }
+        }
+    }
+
+    static final class AdvanceTime<T> implements Function<Timed<T>, T> {
+
+        final VirtualTimeScheduler scheduler;
+
+        AdvanceTime(VirtualTimeScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public T apply(Timed<T> t) throws Exception {
+            scheduler.advance(t.time(TimeUnit.NANOSECONDS));
+            return t.value();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+
+package io.reactivex.internal.schedulers;
+
+import java.util.concurrent.*;
+
+/**
+ * Creates the {@link ExecutorService} backing the {@link VirtualThreadScheduler}.
+ * <p>
+ * This is the Java 21 variant packaged under {@code META-INF/versions/21}: each task
+ * runs on its own, freshly started virtual thread.
+ */
+final class VirtualThreads {
+
+    /** Utility class. */
+    private VirtualThreads() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Returns true if the executors created by this class run their tasks on virtual threads.
+     * @return true if virtual threads are used
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Creates a new unbounded executor whose threads are named after the given prefix.
+     * @param threadNamePrefix the thread name prefix
+     * @return the new ExecutorService
+     */
+    static ExecutorService newExecutor(String threadNamePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix + "-", 1).factory());
+    }
+}
@@ -19,7 +19,8 @@ import org.junit.Test;
 
 import io.reactivex.*;
 import io.reactivex.internal.operators.flowable.FlowableInterval.IntervalSubscriber;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.*;
 import io.reactivex.subscribers.TestSubscriber;
 
 public class FlowableIntervalTest {
@@ -49,4 +50,54 @@ public class FlowableIntervalTest {
 
         ts.assertEmpty();
     }
+
+    @Test
+    public void sharedTicks() {
+        RxJavaPlugins.setSharedIntervalTicks(true);
+        try {
+            TestScheduler scheduler = new TestScheduler();
+
+            TestSubscriber<Long> ts1 = Flowable.interval(1, TimeUnit.SECONDS, scheduler).test();
+
+            scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+            TestSubscriber<Long> ts2 = Flowable.interval(1, TimeUnit.SECONDS, scheduler).test(1);
+
+            scheduler.advanceTimeTo(1, TimeUnit.SECONDS);
+
+            ts1.assertValuesOnly(0L);
+            ts2.assertValuesOnly(0L);
+
+            scheduler.advanceTimeTo(2, TimeUnit.SECONDS);
+
+            ts1.assertValuesOnly(0L, 1L);
+            // no request, the tick is skipped
+            ts2.assertValuesOnly(0L);
+
+            ts2.request(1);
+
+            scheduler.advanceTimeTo(3, TimeUnit.SECONDS);
+
+            ts1.assertValuesOnly(0L, 1L, 2L);
+            ts2.assertValuesOnly(0L, 1L);
+
+            ts1.cancel();
+            ts2.cancel();
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void sharedCancelledOnRun() {
+        TestSubscriber<Long> ts = new TestSubscriber<Long>();
+        FlowableInterval.SharedIntervalSubscriber is = new FlowableInterval.SharedIntervalSubscriber(ts);
+        ts.onSubscribe(is);
+
+        is.cancel();
+
+        is.run();
+
+        ts.assertEmpty();
+    }
 }
@@ -33,7 +33,7 @@ import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.fuseable.*;
 import io.reactivex.internal.operators.flowable.FlowableObserveOn.BaseObserveOnSubscriber;
-import io.reactivex.internal.schedulers.ImmediateThinScheduler;
+import io.reactivex.internal.schedulers.*;
 import io.reactivex.internal.subscriptions.BooleanSubscription;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.processors.*;
@@ -1941,4 +1941,168 @@ public class FlowableObserveOnTest {
 
         assertEquals(1, s.disposedCount.get());
     }
+
+    static void drainBudget(final Flowable<Integer> source, final boolean conditional) throws Exception {
+        final Scheduler s = new SingleScheduler();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(1);
+
+            // subscribe on the scheduler's thread so that the source is ready when the drain starts
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    Flowable<Integer> f = new FlowableObserveOn<Integer>(source, s, false, 128, new DrainBudget(3, 0));
+                    if (conditional) {
+                        f = f.filter(Functions.alwaysTrue());
+                    }
+                    f.subscribe(new Consumer<Integer>() {
+                        @Override
+                        public void accept(Integer v) throws Exception {
+                            if (v == 1) {
+                                s.scheduleDirect(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        list.add(-1);
+                                    }
+                                });
+                            }
+                            list.add(v);
+                        }
+                    }, Functions.ON_ERROR_MISSING, new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            cdl.countDown();
+                        }
+                    });
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1, 2, 3, -1, 4, 5, 6, 7, 8, 9, 10), list);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void drainBudgetSync() throws Exception {
+        drainBudget(Flowable.range(1, 10), false);
+    }
+
+    @Test
+    public void drainBudgetAsync() throws Exception {
+        drainBudget(Flowable.range(1, 10).hide(), false);
+    }
+
+    @Test
+    public void drainBudgetSyncConditional() throws Exception {
+        drainBudget(Flowable.range(1, 10), true);
+    }
+
+    @Test
+    public void drainBudgetAsyncConditional() throws Exception {
+        drainBudget(Flowable.range(1, 10).hide(), true);
+    }
+
+    @Test
+    public void inlineOnWorkerThread() throws Exception {
+        // all workers share the single thread
+        IoScheduler s = new IoScheduler(new RxThreadFactory("RxInlineTest"), 1);
+        RxJavaPlugins.setInlineObserveOn(true);
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+
+            Flowable.range(1, 5)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    list.add(v);
+                }
+            })
+            .hide()
+            .subscribeOn(s)
+            .observeOn(s)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    list.add(-v);
+                }
+            })
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertResult(1, 2, 3, 4, 5);
+
+            assertEquals(Arrays.asList(1, -1, 2, -2, 3, -3, 4, -4, 5, -5), list);
+        } finally {
+            s.shutdown();
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void noInlineByDefault() throws Exception {
+        // all workers share the single thread
+        IoScheduler s = new IoScheduler(new RxThreadFactory("RxInlineTest"), 1);
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+
+            Flowable.range(1, 5)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    list.add(v);
+                }
+            })
+            .hide()
+            .subscribeOn(s)
+            .observeOn(s)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    list.add(-v);
+                }
+            })
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertResult(1, 2, 3, 4, 5);
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5, -1, -2, -3, -4, -5), list);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void noInlineOffWorkerThread() throws Exception {
+        IoScheduler s = new IoScheduler(new RxThreadFactory("RxInlineTest"), 1);
+        RxJavaPlugins.setInlineObserveOn(true);
+        try {
+            final Thread[] threads = new Thread[2];
+
+            Flowable.just(1)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    threads[0] = Thread.currentThread();
+                }
+            })
+            .observeOn(s)
+            .doOnNext(new Consumer<Integer>() {
+                @Override
+                public void accept(Integer v) throws Exception {
+                    threads[1] = Thread.currentThread();
+                }
+            })
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertResult(1);
+
+            assertSame(Thread.currentThread(), threads[0]);
+            assertNotSame(Thread.currentThread(), threads[1]);
+        } finally {
+            s.shutdown();
+            RxJavaPlugins.reset();
+        }
+    }
 }
@@ -20,6 +20,7 @@ import org.junit.Test;
 import io.reactivex.*;
 import io.reactivex.internal.operators.observable.ObservableInterval.IntervalObserver;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.*;
 
 public class ObservableIntervalTest {
@@ -49,4 +50,39 @@ public class ObservableIntervalTest {
 
         to.assertEmpty();
     }
+
+    @Test
+    public void sharedTicks() {
+        RxJavaPlugins.setSharedIntervalTicks(true);
+        try {
+            TestScheduler scheduler = new TestScheduler();
+
+            TestObserver<Long> to1 = Observable.interval(1, TimeUnit.SECONDS, scheduler).test();
+
+            scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+            TestObserver<Long> to2 = Observable.interval(1, TimeUnit.SECONDS, scheduler).test();
+            // a different initial delay is not shared
+            TestObserver<Long> to3 = Observable.interval(0, 1, TimeUnit.SECONDS, scheduler).test();
+
+            scheduler.advanceTimeTo(2, TimeUnit.SECONDS);
+
+            to1.assertValuesOnly(0L, 1L);
+            to2.assertValuesOnly(0L, 1L);
+            to3.assertValuesOnly(0L, 1L);
+
+            to1.dispose();
+
+            scheduler.advanceTimeTo(3, TimeUnit.SECONDS);
+
+            to1.assertValuesOnly(0L, 1L);
+            to2.assertValuesOnly(0L, 1L, 2L);
+            to3.assertValuesOnly(0L, 1L, 2L);
+
+            to2.dispose();
+            to3.dispose();
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
 }
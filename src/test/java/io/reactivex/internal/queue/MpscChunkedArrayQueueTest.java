@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.queue;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import io.reactivex.schedulers.Schedulers;
+
+public class MpscChunkedArrayQueueTest {
+
+    @Test(expected = NullPointerException.class)
+    public void offerNull() {
+        new MpscChunkedArrayQueue<Object>().offer(null);
+    }
+
+    @Test
+    public void fifoAcrossChunks() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>(4);
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(q.offer(i));
+        }
+
+        assertFalse(q.isEmpty());
+        assertEquals(100, q.size());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void reuseChunkWhenConsumerKeepsUp() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>(8);
+
+        Object buffer = q.producerBuffer;
+
+        for (int i = 0; i < 1000; i++) {
+            q.offer(i);
+            q.offer(i + 1);
+            assertEquals(i, q.poll().intValue());
+            assertEquals(i + 1, q.poll().intValue());
+        }
+
+        assertSame(buffer, q.producerBuffer);
+    }
+
+    @Test
+    public void interleaved() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>(2);
+        int offered = 0;
+        int polled = 0;
+
+        for (int round = 1; round < 20; round++) {
+            for (int i = 0; i < round; i++) {
+                q.offer(offered++);
+            }
+            for (int i = 0; i < round / 2; i++) {
+                assertEquals(polled++, q.poll().intValue());
+            }
+        }
+
+        Integer v;
+        while ((v = q.poll()) != null) {
+            assertEquals(polled++, v.intValue());
+        }
+        assertEquals(offered, polled);
+    }
+
+    @Test
+    public void bounded() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>(2, 8);
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(q.offer(i));
+        }
+
+        assertFalse(q.offer(8));
+        assertEquals(8, q.size());
+
+        assertEquals(0, q.poll().intValue());
+
+        assertTrue(q.offer(8));
+        assertFalse(q.offer(9));
+
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertNull(q.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxCapacityNotAboveChunkSize() {
+        new MpscChunkedArrayQueue<Integer>(16, 16);
+    }
+
+    @Test
+    public void biOffer() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>();
+        q.offer(1, 2);
+
+        assertEquals(1, q.poll().intValue());
+        assertEquals(2, q.poll().intValue());
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void clear() {
+        MpscChunkedArrayQueue<Integer> q = new MpscChunkedArrayQueue<Integer>(4);
+
+        for (int i = 0; i < 10; i++) {
+            q.offer(i);
+        }
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentProducers() throws Exception {
+        final MpscChunkedArrayQueue<Long> q = new MpscChunkedArrayQueue<Long>(16);
+        final int producers = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        final int count = 100000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            final long id = p;
+            Schedulers.newThread().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (long i = 0; i < count; i++) {
+                        q.offer((id << 32) | i);
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+
+        long[] next = new long[producers];
+        long received = 0;
+        while (received != (long)producers * count) {
+            Long v = q.poll();
+            if (v != null) {
+                int id = (int)(v >>> 32);
+                // each producer's elements arrive in order
+                assertEquals(next[id]++, v & 0xFFFFFFFFL);
+                received++;
+            }
+        }
+
+        assertTrue(q.isEmpty());
+    }
+}
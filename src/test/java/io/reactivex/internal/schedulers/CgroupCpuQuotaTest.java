@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import io.reactivex.TestHelper;
+
+public class CgroupCpuQuotaTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static void write(File f, String content) throws IOException {
+        f.getParentFile().mkdirs();
+        FileWriter w = new FileWriter(f);
+        try {
+            w.write(content);
+        } finally {
+            w.close();
+        }
+    }
+
+    @Test
+    public void utilityClass() {
+        TestHelper.checkUtilityClass(CgroupCpuQuota.class);
+    }
+
+    @Test
+    public void cgroupV2() throws IOException {
+        File root = folder.getRoot();
+        write(new File(root, "cpu.max"), "250000 100000\n");
+
+        assertEquals(3, CgroupCpuQuota.availableProcessors(root, 8));
+        assertEquals(2, CgroupCpuQuota.availableProcessors(root, 2));
+    }
+
+    @Test
+    public void cgroupV2Unlimited() throws IOException {
+        File root = folder.getRoot();
+        write(new File(root, "cpu.max"), "max 100000\n");
+
+        assertEquals(8, CgroupCpuQuota.availableProcessors(root, 8));
+    }
+
+    @Test
+    public void cgroupV1() throws IOException {
+        File root = folder.getRoot();
+        write(new File(root, "cpu,cpuacct/cpu.cfs_quota_us"), "50000\n");
+        write(new File(root, "cpu,cpuacct/cpu.cfs_period_us"), "100000\n");
+
+        assertEquals(1, CgroupCpuQuota.availableProcessors(root, 8));
+    }
+
+    @Test
+    public void cgroupV1Unlimited() throws IOException {
+        File root = folder.getRoot();
+        write(new File(root, "cpu/cpu.cfs_quota_us"), "-1\n");
+        write(new File(root, "cpu/cpu.cfs_period_us"), "100000\n");
+
+        assertEquals(8, CgroupCpuQuota.availableProcessors(root, 8));
+    }
+
+    @Test
+    public void noCgroup() {
+        assertEquals(8, CgroupCpuQuota.availableProcessors(new File(folder.getRoot(), "missing"), 8));
+    }
+
+    @Test
+    public void malformed() throws IOException {
+        File root = folder.getRoot();
+        write(new File(root, "cpu.max"), "abc 100000\n");
+
+        assertEquals(8, CgroupCpuQuota.availableProcessors(root, 8));
+    }
+
+    @Test
+    public void toCpus() {
+        assertEquals(0, CgroupCpuQuota.toCpus(-1, 100000));
+        assertEquals(0, CgroupCpuQuota.toCpus(100000, 0));
+        assertEquals(1, CgroupCpuQuota.toCpus(1, 100000));
+        assertEquals(4, CgroupCpuQuota.toCpus(400000, 100000));
+    }
+}
@@ -16,8 +16,19 @@
 package io.reactivex.internal.schedulers;
 
 import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import io.reactivex.Scheduler.ReusableTask;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.schedulers.ComputationScheduler.*;
+import io.reactivex.internal.schedulers.SchedulerMultiWorkerSupport.WorkerCallback;
+
 public class ComputationSchedulerInternalTest {
 
     @Test
@@ -29,4 +40,675 @@ public class ComputationSchedulerInternalTest {
         assertEquals(8, ComputationScheduler.cap(8, 9));
         assertEquals(8, ComputationScheduler.cap(8, 16));
     }
+
+    @Test
+    public void workStealingIdleLoopRunsTasksOfBusyLoop() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(2, new RxThreadFactory("RxStealingTest"), true, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        try {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            pool.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            final CountDownLatch done = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                pool.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+
+            // half of the tasks were assigned to the blocked event loop
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            release.countDown();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void workStealingFirstTaskOfBusyLoopWakesSibling() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(2, new RxThreadFactory("RxStealingTest"), true, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        try {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            EventLoopWorker w = pool.createWorker();
+            assertSame(pool.eventLoops[0].get(), eventLoopOf(w));
+
+            // a Worker task can't be stolen, the event loop is busy while its stealing queue is empty
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            assertFalse(pool.eventLoops[0].isIdle());
+
+            final CountDownLatch done = new CountDownLatch(1);
+            pool.stealingQueues[0].offer(new StealableTask(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            }));
+
+            assertTrue(done.await(1, TimeUnit.SECONDS));
+
+            release.countDown();
+            w.dispose();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void workStealingDoesNotWakeBusySibling() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(2, new RxThreadFactory("RxStealingTest"), true, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        try {
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            EventLoopWorker w = pool.createWorker();
+            assertSame(pool.eventLoops[0].get(), eventLoopOf(w));
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            assertFalse(pool.eventLoops[0].isIdle());
+
+            // the sibling of the second event loop runs a task, it is not signalled to steal
+            pool.stealingQueues[1].wakeIdleSibling();
+
+            assertEquals(0, pool.stealingQueues[0].get());
+
+            release.countDown();
+            w.dispose();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void workStealingDisposedTaskDoesNotRun() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(1, new RxThreadFactory("RxStealingTest"), true, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        try {
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+
+            pool.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+
+            Disposable d = pool.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    count.incrementAndGet();
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+
+            final CountDownLatch done = new CountDownLatch(1);
+            pool.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            }, 0, TimeUnit.MILLISECONDS);
+
+            d.dispose();
+            assertTrue(d.isDisposed());
+
+            release.countDown();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(0, count.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void workStealingKeepsWorkerOrder() throws Exception {
+        ComputationScheduler scheduler = new ComputationScheduler(new RxThreadFactory("RxStealingTest"), true, EventLoopSelectors.ROUND_ROBIN);
+        try {
+            Worker w = scheduler.createWorker();
+            try {
+                final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+                final CountDownLatch done = new CountDownLatch(100);
+
+                for (int i = 0; i < 100; i++) {
+                    final int j = i;
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(j);
+                            done.countDown();
+                        }
+                    });
+                    scheduler.scheduleDirect(new Runnable() {
+                        @Override
+                        public void run() {
+                        }
+                    });
+                }
+
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(i, list.get(i).intValue());
+                }
+            } finally {
+                w.dispose();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    static PoolWorker eventLoopOf(Worker w) throws Exception {
+        java.lang.reflect.Field f = EventLoopWorker.class.getDeclaredField("poolWorker");
+        f.setAccessible(true);
+        return (PoolWorker)f.get(w);
+    }
+
+    @Test
+    public void leastLoadedReusesLoopOfDisposedWorker() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(3, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            EventLoopWorker w1 = pool.createWorker();
+            EventLoopWorker w2 = pool.createWorker();
+            EventLoopWorker w3 = pool.createWorker();
+
+            Set<PoolWorker> loops = new HashSet<PoolWorker>();
+            loops.add(eventLoopOf(w1));
+            loops.add(eventLoopOf(w2));
+            loops.add(eventLoopOf(w3));
+            assertEquals(3, loops.size());
+
+            PoolWorker loop2 = eventLoopOf(w2);
+            assertEquals(1, loop2.activeWorkers());
+
+            w2.dispose();
+            w2.dispose();
+
+            assertEquals(0, loop2.activeWorkers());
+
+            EventLoopWorker w4 = pool.createWorker();
+            assertSame(loop2, eventLoopOf(w4));
+
+            w1.dispose();
+            w3.dispose();
+            w4.dispose();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void leastLoadedTracksPendingTasks() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(2, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            EventLoopWorker w1 = pool.createWorker();
+            PoolWorker loop = eventLoopOf(w1);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+            Disposable d = w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            final CountDownLatch done = new CountDownLatch(1);
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+
+            assertEquals(3, loop.pendingTasks());
+
+            d.dispose();
+
+            assertEquals(2, loop.pendingTasks());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 100 && loop.pendingTasks() != 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, loop.pendingTasks());
+
+            w1.dispose();
+
+            assertEquals(0, loop.pendingTasks());
+            assertEquals(0, loop.activeWorkers());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void leastLoadedDisposeWithPendingTasks() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(1, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            EventLoopWorker w1 = pool.createWorker();
+            PoolWorker loop = eventLoopOf(w1);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+            for (int i = 0; i < 5; i++) {
+                w1.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+
+            assertEquals(6, loop.pendingTasks());
+
+            w1.dispose();
+            release.countDown();
+
+            assertEquals(0, loop.pendingTasks());
+            assertEquals(0, loop.activeWorkers());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void leastLoadedTracksReusableTaskSchedules() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(1, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            EventLoopWorker w1 = pool.createWorker();
+            PoolWorker loop = eventLoopOf(w1);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            final CountDownLatch done = new CountDownLatch(3);
+            ReusableTask task = w1.createReusableTask(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+
+            assertEquals(1, loop.pendingTasks());
+
+            task.schedule();
+            task.schedule();
+            task.schedule();
+
+            assertEquals(4, loop.pendingTasks());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 100 && loop.pendingTasks() != 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, loop.pendingTasks());
+
+            task.dispose();
+            w1.dispose();
+
+            assertEquals(0, loop.pendingTasks());
+            assertEquals(0, loop.activeWorkers());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void leastLoadedReusableTaskDisposeWithPendingSchedules() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(1, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            EventLoopWorker w1 = pool.createWorker();
+            PoolWorker loop = eventLoopOf(w1);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            ReusableTask task = w1.createReusableTask(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            task.schedule();
+            task.schedule();
+
+            assertEquals(3, loop.pendingTasks());
+
+            w1.dispose();
+            release.countDown();
+
+            assertTrue(task.isDisposed());
+            assertEquals(0, loop.pendingTasks());
+            assertEquals(0, loop.activeWorkers());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void leastLoadedCreateWorkersDistinct() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(3, new RxThreadFactory("RxSelectorTest"), false, EventLoopSelectors.LEAST_LOADED, null, WaitStrategy.BLOCKING);
+        try {
+            // make one event loop much busier than the others
+            final List<Worker> busy = new ArrayList<Worker>();
+            for (int i = 0; i < 3; i++) {
+                busy.add(pool.createWorker());
+            }
+            busy.get(1).dispose();
+            busy.get(2).dispose();
+
+            final List<Worker> list = new ArrayList<Worker>();
+            pool.createWorkers(6, new WorkerCallback() {
+                @Override
+                public void onWorker(int index, Worker worker) {
+                    list.add(worker);
+                }
+            });
+
+            assertEquals(6, list.size());
+
+            Set<PoolWorker> first = new HashSet<PoolWorker>();
+            Set<PoolWorker> second = new HashSet<PoolWorker>();
+            for (int i = 0; i < 3; i++) {
+                first.add(eventLoopOf(list.get(i)));
+                second.add(eventLoopOf(list.get(i + 3)));
+            }
+            assertEquals(3, first.size());
+            assertEquals(3, second.size());
+
+            // the busy loop is picked last in each group
+            PoolWorker busyLoop = eventLoopOf(busy.get(0));
+            assertSame(busyLoop, eventLoopOf(list.get(2)));
+
+            for (Worker w : list) {
+                w.dispose();
+            }
+            busy.get(0).dispose();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static final class FakeLoad implements EventLoopSelector.LoadInfo {
+        final int workers;
+        final long pending;
+
+        FakeLoad(int workers, long pending) {
+            this.workers = workers;
+            this.pending = pending;
+        }
+
+        @Override
+        public int activeWorkers() {
+            return workers;
+        }
+
+        @Override
+        public long pendingTasks() {
+            return pending;
+        }
+    }
+
+    @Test
+    public void standardSelectors() {
+        EventLoopSelector.LoadInfo[] loads = {
+                new FakeLoad(2, 0), new FakeLoad(0, 1), new FakeLoad(1, 5), new FakeLoad(0, 1)
+        };
+
+        assertEquals(1, EventLoopSelectors.ROUND_ROBIN.select(loads, 5));
+        assertEquals(3, EventLoopSelectors.ROUND_ROBIN.select(loads, 3));
+
+        assertEquals(1, EventLoopSelectors.LEAST_LOADED.select(loads, 0));
+        assertEquals(3, EventLoopSelectors.LEAST_LOADED.select(loads, 2));
+        assertEquals(3, EventLoopSelectors.LEAST_LOADED.select(loads, 3));
+
+        assertSame(EventLoopSelectors.LEAST_LOADED, EventLoopSelectors.fromName("least-loaded"));
+        assertSame(EventLoopSelectors.ROUND_ROBIN, EventLoopSelectors.fromName("round-robin"));
+        assertSame(EventLoopSelectors.ROUND_ROBIN, EventLoopSelectors.fromName(null));
+    }
+
+    @Test
+    public void eventLoopsCreatedOnFirstUse() throws Exception {
+        FixedSchedulerPool pool = new FixedSchedulerPool(3, new RxThreadFactory("RxLazyTest"), true, EventLoopSelectors.ROUND_ROBIN, null, WaitStrategy.BLOCKING);
+        try {
+            for (LazyEventLoop slot : pool.eventLoops) {
+                assertNull(slot.get());
+            }
+
+            EventLoopWorker w = pool.createWorker();
+
+            assertSame(pool.eventLoops[0].get(), eventLoopOf(w));
+            assertNull(pool.eventLoops[1].get());
+            assertNull(pool.eventLoops[2].get());
+
+            final List<PoolWorker> loops = new ArrayList<PoolWorker>();
+            pool.createWorkers(2, new WorkerCallback() {
+                @Override
+                public void onWorker(int index, Worker worker) {
+                    try {
+                        loops.add(eventLoopOf(worker));
+                    } catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            });
+
+            assertSame(pool.eventLoops[1].get(), loops.get(0));
+            assertSame(pool.eventLoops[2].get(), loops.get(1));
+
+            w.dispose();
+        } finally {
+            pool.shutdown();
+        }
+
+        for (LazyEventLoop slot : pool.eventLoops) {
+            assertSame(ComputationScheduler.SHUTDOWN_WORKER, slot.eventLoop());
+        }
+    }
+
+    @Test
+    public void lazyEventLoopReportsNoLoadUntilCreated() {
+        LazyEventLoop slot = new LazyEventLoop(new RxThreadFactory("RxLazyTest"), null, WaitStrategy.BLOCKING);
+
+        assertEquals(0, slot.activeWorkers());
+        assertEquals(0L, slot.pendingTasks());
+
+        PoolWorker w = slot.eventLoop();
+        assertSame(w, slot.eventLoop());
+
+        slot.shutdown();
+
+        assertTrue(w.isDisposed());
+        assertSame(ComputationScheduler.SHUTDOWN_WORKER, slot.eventLoop());
+    }
+
+    @Test(timeout = 5000)
+    public void resizeKeepsExistingWorkers() throws Exception {
+        ComputationScheduler s = new ComputationScheduler(new RxThreadFactory("RxResizeTest"), false, EventLoopSelectors.ROUND_ROBIN);
+        try {
+            s.resize(4);
+            assertEquals(4, s.threads());
+
+            List<Worker> workers = new ArrayList<Worker>();
+            for (int i = 0; i < 4; i++) {
+                workers.add(s.createWorker());
+            }
+            FixedSchedulerPool before = s.pool.get();
+
+            s.resize(2);
+
+            FixedSchedulerPool after = s.pool.get();
+            assertEquals(2, after.eventLoops.length);
+            assertEquals(2, after.parked.length);
+            assertSame(before.eventLoops[0], after.eventLoops[0]);
+            assertSame(before.eventLoops[3], after.parked[1]);
+            assertTrue(after.parked[1].parked);
+
+            final CountDownLatch cdl = new CountDownLatch(4);
+            for (Worker w : workers) {
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        cdl.countDown();
+                    }
+                });
+            }
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            Set<PoolWorker> loops = new HashSet<PoolWorker>();
+            for (int i = 0; i < 4; i++) {
+                Worker w = s.createWorker();
+                loops.add(eventLoopOf(w));
+                w.dispose();
+            }
+            assertEquals(new HashSet<PoolWorker>(Arrays.asList(after.eventLoops[0].get(), after.eventLoops[1].get())), loops);
+
+            for (Worker w : workers) {
+                w.dispose();
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void resizeReusesParkedEventLoops() {
+        ComputationScheduler s = new ComputationScheduler(new RxThreadFactory("RxResizeTest"), true, EventLoopSelectors.ROUND_ROBIN);
+        try {
+            s.resize(3);
+            FixedSchedulerPool first = s.pool.get();
+
+            s.resize(1);
+            s.resize(5);
+
+            FixedSchedulerPool pool = s.pool.get();
+            assertEquals(5, pool.eventLoops.length);
+            assertEquals(0, pool.parked.length);
+            assertEquals(5, pool.stealingQueues.length);
+            for (int i = 0; i < 3; i++) {
+                assertSame(first.eventLoops[i], pool.eventLoops[i]);
+                assertFalse(pool.eventLoops[i].parked);
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void resizeWhileShutDownAppliesOnStart() {
+        ComputationScheduler s = new ComputationScheduler(new RxThreadFactory("RxResizeTest"));
+        s.shutdown();
+
+        s.resize(3);
+        assertSame(ComputationScheduler.NONE, s.pool.get());
+
+        s.start();
+        try {
+            assertEquals(3, s.pool.get().eventLoops.length);
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resizeNonPositive() {
+        new ComputationScheduler(new RxThreadFactory("RxResizeTest")).resize(0);
+    }
+
+    @Test
+    public void parkedSlotParksCreatedEventLoop() {
+        LazyEventLoop slot = new LazyEventLoop(new RxThreadFactory("RxLazyTest"), null, WaitStrategy.BLOCKING);
+        slot.park(true);
+
+        PoolWorker w = slot.eventLoop();
+        try {
+            assertTrue(slot.parked);
+            assertFalse(w.isDisposed());
+        } finally {
+            slot.shutdown();
+        }
+    }
 }
@@ -0,0 +1,416 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+
+import io.reactivex.disposables.Disposable;
+
+public class HashedWheelTimerTest {
+
+    HashedWheelTimer timer;
+
+    ExecutorService exec;
+
+    @Before
+    public void before() {
+        timer = new HashedWheelTimer(new RxThreadFactory("RxTimingWheelTest"), 1, TimeUnit.MILLISECONDS, 8);
+        exec = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() {
+        timer.shutdown();
+        exec.shutdownNow();
+    }
+
+    @Test
+    public void notEarly() throws Exception {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        final long[] end = { 0L };
+
+        timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                end[0] = System.nanoTime();
+                cdl.countDown();
+                return null;
+            }
+        }, exec, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertTrue(end[0] - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    public void moreRoundsThanBuckets() throws Exception {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                cdl.countDown();
+                return null;
+            }
+        }, exec, 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    public void cancelBeforeDue() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+
+        Future<Object> f = timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                count.getAndIncrement();
+                return null;
+            }
+        }, exec, 20, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, timer.size());
+
+        assertTrue(f.cancel(false));
+        assertFalse(f.cancel(false));
+        assertTrue(f.isCancelled());
+
+        assertEquals(0, timer.size());
+
+        Thread.sleep(100);
+
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void getWaitsForResult() throws Exception {
+        Future<Object> f = timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return 1;
+            }
+        }, exec, 20, TimeUnit.MILLISECONDS);
+
+        assertFalse(f.isDone());
+
+        try {
+            f.get(1, TimeUnit.MILLISECONDS);
+            fail("Should have timed out");
+        } catch (TimeoutException expected) {
+            // expected
+        }
+
+        assertEquals(1, f.get(5, TimeUnit.SECONDS));
+        assertEquals(1, f.get());
+        assertTrue(f.isDone());
+        assertFalse(f.isCancelled());
+        assertFalse(f.cancel(false));
+    }
+
+    @Test
+    public void getFailure() throws Exception {
+        Future<Object> f = timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                throw new IllegalStateException();
+            }
+        }, exec, 5, TimeUnit.MILLISECONDS);
+
+        try {
+            f.get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.toString(), ex.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(f.isDone());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void getCancelled() throws Exception {
+        Future<Object> f = timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return 1;
+            }
+        }, exec, 20, TimeUnit.MILLISECONDS);
+
+        f.cancel(false);
+
+        assertTrue(f.isDone());
+
+        f.get();
+    }
+
+    @Test
+    public void sameDelayKeepsOrder() throws Exception {
+        final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch cdl = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            final int j = i;
+            timer.schedule(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    list.add(j);
+                    cdl.countDown();
+                    return null;
+                }
+            }, exec, 10, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, list.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void periodic() throws Exception {
+        final CountDownLatch cdl = new CountDownLatch(5);
+
+        Future<Object> f = timer.schedulePeriodic(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        }, exec, 1, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+        f.cancel(false);
+
+        Thread.sleep(20);
+
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    public void periodicDoneOnFailure() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+
+        Future<Object> f = timer.schedulePeriodic(new Runnable() {
+            @Override
+            public void run() {
+                if (count.incrementAndGet() == 3) {
+                    throw new IllegalStateException();
+                }
+            }
+        }, exec, 1, 5, TimeUnit.MILLISECONDS);
+
+        assertFalse(f.isDone());
+
+        try {
+            f.get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.toString(), ex.getCause() instanceof IllegalStateException);
+        }
+
+        assertTrue(f.isDone());
+        assertFalse(f.isCancelled());
+        assertFalse(f.cancel(false));
+
+        Thread.sleep(30);
+
+        assertEquals(3, count.get());
+        assertEquals(0, timer.size());
+    }
+
+    @Test
+    public void periodicFailureBeforeHandoffPublished() throws Exception {
+        final CountDownLatch checked = new CountDownLatch(1);
+
+        // runs the task within submit() and holds the timer thread before it can publish the Future
+        ExecutorService inline = new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+                try {
+                    checked.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    // ignored
+                }
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return false;
+            }
+        };
+
+        Future<Object> f = timer.schedulePeriodic(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        }, inline, 1, 5, TimeUnit.MILLISECONDS);
+
+        try {
+            f.get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.toString(), ex.getCause() instanceof IllegalStateException);
+        } finally {
+            checked.countDown();
+        }
+
+        assertTrue(f.isDone());
+        assertFalse(f.isCancelled());
+    }
+
+    @Test
+    public void periodicCancelReleasesGet() throws Exception {
+        final CountDownLatch cdl = new CountDownLatch(2);
+
+        final Future<Object> f = timer.schedulePeriodic(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        }, exec, 1, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertFalse(f.isDone());
+
+        assertTrue(f.cancel(false));
+
+        assertTrue(f.isDone());
+        assertTrue(f.isCancelled());
+        try {
+            f.get(5, TimeUnit.SECONDS);
+            fail("Should have thrown");
+        } catch (CancellationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void idleAndResume() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            timer.schedule(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    cdl.countDown();
+                    return null;
+                }
+            }, exec, 5, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            Thread.sleep(30);
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void rejectedAfterShutdown() {
+        timer.shutdown();
+
+        timer.schedule(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return null;
+            }
+        }, exec, 5, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void newThreadWorkerWithTimer() throws Exception {
+        NewThreadWorker w = new NewThreadWorker(new RxThreadFactory("RxTimingWheelWorkerTest"), timer);
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+
+            Disposable d = w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    count.getAndIncrement();
+                }
+            }, 20, TimeUnit.MILLISECONDS);
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+
+            d.dispose();
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            Thread.sleep(50);
+
+            assertEquals(0, count.get());
+            assertEquals(0, timer.size());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void newThreadWorkerPeriodicDirect() throws Exception {
+        NewThreadWorker w = new NewThreadWorker(new RxThreadFactory("RxTimingWheelWorkerTest"), timer);
+        try {
+            final CountDownLatch cdl = new CountDownLatch(3);
+
+            Disposable d = w.schedulePeriodicallyDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 5, 5, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            d.dispose();
+
+            assertTrue(d.isDisposed());
+        } finally {
+            w.dispose();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import io.reactivex.TestHelper;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.TestException;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.*;
+
+public class IntervalTickerTest {
+
+    static Runnable record(final List<Long> times, final TestScheduler scheduler) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                times.add(scheduler.now(TimeUnit.MILLISECONDS));
+            }
+        };
+    }
+
+    @Test
+    public void sharedAmongHandlers() {
+        TestScheduler scheduler = new TestScheduler();
+        List<Long> first = new ArrayList<Long>();
+        List<Long> second = new ArrayList<Long>();
+
+        Disposable d1 = IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, record(first, scheduler));
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        Disposable d2 = IntervalTicker.add(scheduler, 1000, TimeUnit.MILLISECONDS, record(second, scheduler));
+
+        scheduler.advanceTimeTo(2, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(1000L, 2000L), first);
+        assertEquals(Arrays.asList(1000L, 2000L), second);
+
+        d1.dispose();
+
+        assertTrue(d1.isDisposed());
+        assertFalse(d2.isDisposed());
+
+        scheduler.advanceTimeTo(3, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(1000L, 2000L), first);
+        assertEquals(Arrays.asList(1000L, 2000L, 3000L), second);
+
+        d2.dispose();
+
+        scheduler.advanceTimeTo(5, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(1000L, 2000L, 3000L), second);
+    }
+
+    @Test
+    public void differentPeriodsNotShared() {
+        TestScheduler scheduler = new TestScheduler();
+        List<Long> first = new ArrayList<Long>();
+        List<Long> second = new ArrayList<Long>();
+
+        Disposable d1 = IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, record(first, scheduler));
+        Disposable d2 = IntervalTicker.add(scheduler, 2, TimeUnit.SECONDS, record(second, scheduler));
+
+        scheduler.advanceTimeTo(4, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(1000L, 2000L, 3000L, 4000L), first);
+        assertEquals(Arrays.asList(2000L, 4000L), second);
+
+        d1.dispose();
+        d2.dispose();
+    }
+
+    @Test
+    public void restartAfterLastRemoved() {
+        TestScheduler scheduler = new TestScheduler();
+        List<Long> times = new ArrayList<Long>();
+
+        IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, record(times, scheduler)).dispose();
+
+        scheduler.advanceTimeTo(1500, TimeUnit.MILLISECONDS);
+
+        Disposable d = IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, record(times, scheduler));
+
+        scheduler.advanceTimeTo(3, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(2500L), times);
+
+        d.dispose();
+    }
+
+    @Test
+    public void lateTickCoalesced() {
+        assertEquals(2000L, IntervalTicker.nextDeadline(1000L, 1000L, 1000L));
+        assertEquals(2000L, IntervalTicker.nextDeadline(1000L, 1999L, 1000L));
+        // a tick two and a half periods late skips to the next period boundary
+        assertEquals(4000L, IntervalTicker.nextDeadline(1000L, 3500L, 1000L));
+        assertEquals(5000L, IntervalTicker.nextDeadline(1000L, 4000L, 1000L));
+    }
+
+    @Test
+    public void slowHandlerDoesNotDelayOthers() throws Exception {
+        final CountDownLatch otherTicked = new CountDownLatch(1);
+        final CountDownLatch slowDone = new CountDownLatch(1);
+
+        Disposable d1 = IntervalTicker.add(Schedulers.newThread(), 10, TimeUnit.MILLISECONDS, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // blocks until the other handler runs its tick, on its own worker
+                    if (otherTicked.await(5, TimeUnit.SECONDS)) {
+                        slowDone.countDown();
+                    }
+                } catch (InterruptedException ex) {
+                    // ignored
+                }
+            }
+        });
+        Disposable d2 = IntervalTicker.add(Schedulers.newThread(), 10, TimeUnit.MILLISECONDS, new Runnable() {
+            @Override
+            public void run() {
+                otherTicked.countDown();
+            }
+        });
+
+        try {
+            assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        } finally {
+            d1.dispose();
+            d2.dispose();
+        }
+    }
+
+    @Test
+    public void handlerCrashReported() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            TestScheduler scheduler = new TestScheduler();
+            List<Long> times = new ArrayList<Long>();
+
+            Disposable d1 = IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, new Runnable() {
+                @Override
+                public void run() {
+                    throw new TestException();
+                }
+            });
+            Disposable d2 = IntervalTicker.add(scheduler, 1, TimeUnit.SECONDS, record(times, scheduler));
+
+            scheduler.advanceTimeTo(2, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList(1000L, 2000L), times);
+            TestHelper.assertUndeliverable(errors, 0, TestException.class);
+            TestHelper.assertUndeliverable(errors, 1, TestException.class);
+
+            d1.dispose();
+            d2.dispose();
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+}
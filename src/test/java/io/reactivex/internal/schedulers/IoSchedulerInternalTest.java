@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import io.reactivex.Scheduler.Worker;
+
+public class IoSchedulerInternalTest {
+
+    static final RxThreadFactory FACTORY = new RxThreadFactory("IoSchedulerInternalTest");
+
+    static Thread threadOf(Worker w) throws InterruptedException {
+        final BlockingQueue<Thread> q = new ArrayBlockingQueue<Thread>(1);
+        w.schedule(new Runnable() {
+            @Override
+            public void run() {
+                q.offer(Thread.currentThread());
+            }
+        });
+        return q.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void unboundedByDefault() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 0);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+            Worker w3 = s.createWorker();
+
+            assertEquals(3, s.size());
+
+            assertNotSame(threadOf(w1), threadOf(w2));
+            assertNotSame(threadOf(w2), threadOf(w3));
+
+            w1.dispose();
+            w2.dispose();
+            w3.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void boundedSharesThreads() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 2);
+        try {
+            List<Worker> workers = new ArrayList<Worker>();
+            Set<Thread> threads = new HashSet<Thread>();
+            for (int i = 0; i < 5; i++) {
+                Worker w = s.createWorker();
+                workers.add(w);
+                threads.add(threadOf(w));
+            }
+
+            assertEquals(2, s.size());
+            assertEquals(2, threads.size());
+
+            for (Worker w : workers) {
+                w.dispose();
+            }
+
+            assertEquals(2, s.pool.get().expiringWorkerQueue.size());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedThreadCachedWhenAllUsersReleased() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 1);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+
+            assertSame(threadOf(w1), threadOf(w2));
+
+            w1.dispose();
+
+            assertEquals(0, s.pool.get().expiringWorkerQueue.size());
+
+            Worker w3 = s.createWorker();
+
+            assertSame(threadOf(w2), threadOf(w3));
+
+            w2.dispose();
+            w3.dispose();
+
+            assertEquals(1, s.pool.get().expiringWorkerQueue.size());
+            assertEquals(1, s.size());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedThreadKeepsOrderPerWorker() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 1);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+
+            final List<Integer> list1 = Collections.synchronizedList(new ArrayList<Integer>());
+            final List<Integer> list2 = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(200);
+
+            for (int i = 0; i < 100; i++) {
+                final int j = i;
+                w1.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        list1.add(j);
+                        cdl.countDown();
+                    }
+                });
+                w2.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        list2.add(j);
+                        cdl.countDown();
+                    }
+                });
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, list1.get(i).intValue());
+                assertEquals(i, list2.get(i).intValue());
+            }
+
+            w1.dispose();
+            w2.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void queuedTasks() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 1);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+
+            final CountDownLatch running = new CountDownLatch(1);
+            final CountDownLatch block = new CountDownLatch(1);
+
+            w1.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    running.countDown();
+                    try {
+                        block.await();
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            Runnable empty = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            w1.schedule(empty);
+            w2.schedule(empty);
+            w2.schedule(empty);
+
+            assertEquals(3, s.queuedTasks());
+
+            block.countDown();
+
+            threadOf(w2);
+
+            assertEquals(0, s.queuedTasks());
+
+            w1.dispose();
+            w2.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void fifoReusesLeastRecentlyReleased() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 0, false);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+            Thread t1 = threadOf(w1);
+
+            w1.dispose();
+            w2.dispose();
+
+            Worker w3 = s.createWorker();
+            assertSame(t1, threadOf(w3));
+            w3.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void lifoReusesMostRecentlyReleased() throws InterruptedException {
+        IoScheduler s = new IoScheduler(FACTORY, 0, true);
+        try {
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+            Thread t2 = threadOf(w2);
+
+            w1.dispose();
+            w2.dispose();
+
+            Worker w3 = s.createWorker();
+            assertSame(t2, threadOf(w3));
+            w3.dispose();
+
+            assertEquals(2, s.size());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void evictionOldestFirstAndStopsAtNonExpired() {
+        IoScheduler.CachedWorkerPool pool = new IoScheduler.CachedWorkerPool(0, null, FACTORY);
+        try {
+            IoScheduler.ThreadWorker w1 = pool.get();
+            IoScheduler.ThreadWorker w2 = pool.get();
+            IoScheduler.ThreadWorker w3 = pool.get();
+
+            pool.release(w1);
+            pool.release(w2);
+            pool.release(w3);
+
+            long t2 = w2.getExpirationTime();
+
+            assertSame(w1, pool.expiringWorkerQueue.pollExpired(t2));
+            assertSame(w2, pool.expiringWorkerQueue.pollExpired(t2));
+            if (w3.getExpirationTime() > t2) {
+                assertNull(pool.expiringWorkerQueue.pollExpired(t2));
+            }
+
+            pool.evictExpiredWorkers();
+
+            assertEquals(0, pool.expiringWorkerQueue.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void evictorStartedOnFirstRelease() {
+        IoScheduler s = new IoScheduler(FACTORY, 0);
+        try {
+            IoScheduler.CachedWorkerPool pool = s.pool.get();
+
+            assertFalse(pool.evictorStarted);
+
+            Worker w = s.createWorker();
+
+            assertFalse(pool.evictorStarted);
+
+            w.dispose();
+
+            assertTrue(pool.evictorStarted);
+        } finally {
+            s.shutdown();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.schedulers.Schedulers;
+
+public class LimitedSchedulerTest {
+
+    @Test(timeout = 10000)
+    public void maxConcurrency() throws InterruptedException {
+        Scheduler s = Schedulers.io().limit(2);
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final int n = 8;
+        final CountDownLatch cdl = new CountDownLatch(n * 2);
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                int r = running.incrementAndGet();
+                for (;;) {
+                    int m = max.get();
+                    if (r <= m || max.compareAndSet(m, r)) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+                running.decrementAndGet();
+                cdl.countDown();
+            }
+        };
+
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < n; i++) {
+            Worker w = s.createWorker();
+            workers.add(w);
+            w.schedule(task);
+            w.schedule(task);
+        }
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertTrue("" + max.get(), max.get() <= 2);
+
+        for (Worker w : workers) {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void workerOrder() throws InterruptedException {
+        Worker w = Schedulers.computation().limit(4).createWorker();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicBoolean overlap = new AtomicBoolean();
+            final CountDownLatch cdl = new CountDownLatch(1);
+            final int n = 1000;
+
+            for (int i = 0; i < n; i++) {
+                final int j = i;
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (running.getAndIncrement() != 0) {
+                            overlap.set(true);
+                        }
+                        list.add(j);
+                        running.decrementAndGet();
+                        if (j == n - 1) {
+                            cdl.countDown();
+                        }
+                    }
+                });
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertFalse(overlap.get());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i, list.get(i).intValue());
+            }
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void delayed() throws InterruptedException {
+        Worker w = Schedulers.computation().limit(1).createWorker();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void delayedDisposed() throws InterruptedException {
+        Worker w = Schedulers.computation().limit(1).createWorker();
+
+        final AtomicBoolean run = new AtomicBoolean();
+
+        w.schedule(new Runnable() {
+            @Override
+            public void run() {
+                run.set(true);
+            }
+        }, 50, TimeUnit.MILLISECONDS).dispose();
+
+        Thread.sleep(150);
+
+        assertFalse(run.get());
+
+        w.dispose();
+    }
+
+    @Test(timeout = 5000)
+    public void disposedWorkerDropsQueuedTasks() throws InterruptedException {
+        Scheduler s = Schedulers.single().limit(1);
+        final Worker w = s.createWorker();
+
+        final AtomicBoolean dropped = new AtomicBoolean();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        w.schedule(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        w.schedule(new Runnable() {
+            @Override
+            public void run() {
+                dropped.set(true);
+            }
+        });
+        w.dispose();
+
+        final CountDownLatch done = new CountDownLatch(1);
+        Worker other = s.createWorker();
+        other.schedule(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+
+        gate.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(dropped.get());
+
+        other.dispose();
+    }
+
+    @Test(timeout = 5000)
+    public void observeOnSubscribeOn() {
+        Scheduler s = Schedulers.computation().limit(1);
+
+        Flowable.range(1, 1000)
+        .subscribeOn(s)
+        .observeOn(s)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositive() {
+        Schedulers.computation().limit(0);
+    }
+}
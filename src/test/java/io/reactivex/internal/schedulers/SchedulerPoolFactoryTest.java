@@ -19,10 +19,12 @@ package io.reactivex.internal.schedulers;
 import static org.junit.Assert.*;
 
 import java.util.Properties;
+import java.util.concurrent.*;
 
 import org.junit.Test;
 
 import io.reactivex.TestHelper;
+import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.schedulers.SchedulerPoolFactory.PurgeProperties;
 import io.reactivex.schedulers.Schedulers;
 
@@ -143,4 +145,62 @@ public class SchedulerPoolFactoryTest {
 
         assertEquals(s, SchedulerPoolFactory.POOLS.size());
     }
+
+    @Test
+    public void createRemovesCancelledTasks() {
+        ScheduledExecutorService exec = SchedulerPoolFactory.create(new RxThreadFactory("RxRemoveOnCancelTest"));
+        try {
+            assertNotNull(SchedulerPoolFactory.SET_REMOVE_ON_CANCEL_POLICY);
+            assertFalse(SchedulerPoolFactory.POOLS.containsKey(exec));
+
+            ScheduledThreadPoolExecutor stpe = (ScheduledThreadPoolExecutor)exec;
+
+            Future<?> f = exec.schedule(Functions.EMPTY_RUNNABLE, 1, TimeUnit.DAYS);
+
+            assertEquals(1, stpe.getQueue().size());
+
+            f.cancel(false);
+
+            assertEquals(0, stpe.getQueue().size());
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void startWithoutPurgeThread() {
+        try {
+            SchedulerPoolFactory.shutdown();
+
+            SchedulerPoolFactory.start();
+
+            assertNull(SchedulerPoolFactory.PURGE_THREAD.get());
+        } finally {
+            SchedulerPoolFactory.shutdown();
+            SchedulerPoolFactory.start();
+        }
+    }
+
+    @Test
+    public void enableRemoveOnCancelUnsupported() {
+        ScheduledExecutorService exec = Executors.newScheduledThreadPool(1);
+        try {
+            assertFalse(SchedulerPoolFactory.tryEnableRemoveOnCancel(null, exec));
+            assertFalse(SchedulerPoolFactory.tryEnableRemoveOnCancel(SchedulerPoolFactory.SET_REMOVE_ON_CANCEL_POLICY, null));
+            assertTrue(SchedulerPoolFactory.tryEnableRemoveOnCancel(SchedulerPoolFactory.SET_REMOVE_ON_CANCEL_POLICY, exec));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void enableRemoveOnCancelFails() throws Exception {
+        ScheduledExecutorService exec = Executors.newScheduledThreadPool(1);
+        try {
+            // wrong target method
+            assertFalse(SchedulerPoolFactory.tryEnableRemoveOnCancel(Object.class.getMethod("wait", Long.TYPE), exec));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
 }
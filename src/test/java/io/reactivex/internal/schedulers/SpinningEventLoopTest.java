@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.internal.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
+
+public class SpinningEventLoopTest {
+
+    static final RxThreadFactory FACTORY = new RxThreadFactory("RxSpinningEventLoopTest");
+
+    @Test
+    public void fromName() {
+        assertSame(WaitStrategy.BLOCKING, WaitStrategy.fromName(null));
+        assertSame(WaitStrategy.BLOCKING, WaitStrategy.fromName("blocking"));
+        assertSame(WaitStrategy.BLOCKING, WaitStrategy.fromName("unknown"));
+        assertSame(WaitStrategy.BUSY_SPIN, WaitStrategy.fromName("busy-spin"));
+        assertSame(WaitStrategy.SPIN_YIELD, WaitStrategy.fromName("spin-yield"));
+        assertSame(WaitStrategy.SPIN_PARK, WaitStrategy.fromName("spin-park"));
+    }
+
+    @Test
+    public void fifoOnSingleThread() throws Exception {
+        for (WaitStrategy ws : WaitStrategy.values()) {
+            SpinningEventLoop loop = new SpinningEventLoop(FACTORY, ws);
+            try {
+                final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+                final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+                final CountDownLatch cdl = new CountDownLatch(100);
+                for (int i = 0; i < 100; i++) {
+                    final int j = i;
+                    loop.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(j);
+                            threads.add(Thread.currentThread());
+                            cdl.countDown();
+                        }
+                    });
+                }
+
+                assertTrue(ws.toString(), cdl.await(5, TimeUnit.SECONDS));
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(i, list.get(i).intValue());
+                }
+                assertEquals(1, threads.size());
+            } finally {
+                loop.shutdownNow();
+            }
+            assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void wakeUpAfterPark() throws Exception {
+        SpinningEventLoop loop = new SpinningEventLoop(FACTORY, WaitStrategy.SPIN_PARK);
+        try {
+            for (int i = 0; i < 3; i++) {
+                final CountDownLatch cdl = new CountDownLatch(1);
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        cdl.countDown();
+                    }
+                });
+                assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+                // let the thread park
+                Thread.sleep(50);
+            }
+        } finally {
+            loop.shutdownNow();
+        }
+    }
+
+    @Test
+    public void crashingTaskKeepsLoopAlive() throws Exception {
+        SpinningEventLoop loop = new SpinningEventLoop(FACTORY, WaitStrategy.SPIN_PARK);
+        try {
+            final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+            RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+                @Override
+                public void accept(Throwable e) {
+                    errors.add(e);
+                }
+            });
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            });
+            final CountDownLatch cdl = new CountDownLatch(1);
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(1, errors.size());
+            assertTrue(errors.get(0).toString(), errors.get(0) instanceof IllegalStateException);
+        } finally {
+            RxJavaPlugins.reset();
+            loop.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shutdownDrainsAndRejects() throws Exception {
+        SpinningEventLoop loop = new SpinningEventLoop(FACTORY, WaitStrategy.SPIN_YIELD);
+        final CountDownLatch cdl = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            });
+        }
+        loop.shutdown();
+
+        assertTrue(loop.isShutdown());
+        assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(loop.isTerminated());
+        assertEquals(0, cdl.getCount());
+
+        try {
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail("Should have thrown");
+        } catch (RejectedExecutionException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shutdownNowInterrupts() throws Exception {
+        SpinningEventLoop loop = new SpinningEventLoop(FACTORY, WaitStrategy.SPIN_PARK);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                running.countDown();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        loop.shutdownNow();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(loop.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownUnstarted() throws Exception {
+        SpinningEventLoop loop = new SpinningEventLoop(FACTORY, WaitStrategy.BUSY_SPIN);
+        loop.shutdown();
+
+        assertTrue(loop.isTerminated());
+        assertFalse(loop.thread.isAlive());
+    }
+
+    @Test
+    public void delayedWorkerTasks() throws Exception {
+        NewThreadWorker w = new NewThreadWorker(FACTORY, null, WaitStrategy.SPIN_PARK);
+        try {
+            final CountDownLatch cdl = new CountDownLatch(3);
+            final long start = System.nanoTime();
+            Runnable r = new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            };
+            w.schedule(r);
+            w.schedule(r, 20, TimeUnit.MILLISECONDS);
+            w.schedulePeriodicallyDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 10, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(10));
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void computationSchedulerSpinning() throws Exception {
+        Scheduler s = new ComputationScheduler(FACTORY, false, EventLoopSelectors.ROUND_ROBIN, WaitStrategy.SPIN_PARK);
+        try {
+            Worker w = s.createWorker();
+            final CountDownLatch cdl = new CountDownLatch(2);
+            Runnable r = new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            };
+            w.schedule(r);
+            s.scheduleDirect(r, 1, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            w.dispose();
+        } finally {
+            s.shutdown();
+        }
+    }
+}
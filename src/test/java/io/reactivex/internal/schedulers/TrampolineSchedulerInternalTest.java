@@ -18,11 +18,13 @@ package io.reactivex.internal.schedulers;
 
 import static org.junit.Assert.*;
 
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.internal.disposables.EmptyDisposable;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.schedulers.TrampolineScheduler.*;
@@ -208,4 +210,164 @@ public class TrampolineSchedulerInternalTest {
 
         verify(r, never()).run();
     }
+
+    @Test
+    public void reentrantTasksRunInOrder() {
+        final TrampolineWorker w = new TrampolineWorker();
+        final List<Integer> list = new ArrayList<Integer>();
+
+        try {
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    list.add(1);
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(3);
+                            w.schedule(new Runnable() {
+                                @Override
+                                public void run() {
+                                    list.add(5);
+                                }
+                            });
+                        }
+                    });
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(4);
+                        }
+                    }, 0, TimeUnit.MILLISECONDS);
+                    list.add(2);
+                }
+            });
+
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), list);
+            assertTrue(w.immediateQueue.isEmpty());
+            assertNull(w.drainer);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void reentrantTaskDisposed() {
+        final TrampolineWorker w = new TrampolineWorker();
+        final List<Integer> list = new ArrayList<Integer>();
+
+        try {
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Disposable d = w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(2);
+                        }
+                    });
+                    assertFalse(d.isDisposed());
+                    d.dispose();
+                    assertTrue(d.isDisposed());
+                    list.add(1);
+                }
+            });
+
+            assertEquals(Arrays.asList(1), list);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void reentrantTaskWorkerDisposed() {
+        final TrampolineWorker w = new TrampolineWorker();
+        final List<Integer> list = new ArrayList<Integer>();
+
+        w.schedule(new Runnable() {
+            @Override
+            public void run() {
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(2);
+                    }
+                });
+                w.dispose();
+                list.add(1);
+            }
+        });
+
+        assertEquals(Arrays.asList(1), list);
+        assertTrue(w.immediateQueue.isEmpty());
+        assertSame(EmptyDisposable.INSTANCE, w.schedule(Functions.EMPTY_RUNNABLE));
+    }
+
+    @Test
+    public void delayedTaskAfterImmediateTasks() {
+        final TrampolineWorker w = new TrampolineWorker();
+        final List<Integer> list = new ArrayList<Integer>();
+
+        try {
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(3);
+                        }
+                    }, 50, TimeUnit.MILLISECONDS);
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(2);
+                        }
+                    });
+                    list.add(1);
+                }
+            });
+
+            assertEquals(Arrays.asList(1, 2, 3), list);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void scheduleFromOtherThreadWhileDraining() throws Exception {
+        final TrampolineWorker w = new TrampolineWorker();
+        final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+        final Thread mainThread = Thread.currentThread();
+
+        try {
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Thread t = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            w.schedule(new Runnable() {
+                                @Override
+                                public void run() {
+                                    list.add(Thread.currentThread() == mainThread ? 2 : -1);
+                                }
+                            });
+                        }
+                    });
+                    t.start();
+                    try {
+                        t.join();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    list.add(1);
+                }
+            });
+
+            assertEquals(Arrays.asList(1, 2), list);
+        } finally {
+            w.dispose();
+        }
+    }
 }
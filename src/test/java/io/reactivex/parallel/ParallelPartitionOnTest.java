@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.parallel;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.TestException;
+import io.reactivex.functions.*;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class ParallelPartitionOnTest {
+
+    static final Function<Integer, Integer> MOD_10 = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) throws Exception {
+            return v % 10;
+        }
+    };
+
+    @Test
+    public void subscriberCount() {
+        ParallelFlowableTest.checkSubscriberCount(Flowable.range(1, 5)
+        .partitionOn(Schedulers.computation(), MOD_10));
+    }
+
+    @Test
+    public void orderedPerKey() {
+        final ConcurrentHashMap<Integer, List<Integer>> byKey = new ConcurrentHashMap<Integer, List<Integer>>();
+        final ConcurrentHashMap<Integer, Thread> threads = new ConcurrentHashMap<Integer, Thread>();
+        final Set<Integer> conflicts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+        Flowable.range(0, 10000)
+        .partitionOn(Schedulers.computation(), MOD_10, 4, 16)
+        .doOnNext(new Consumer<Integer>() {
+            @Override
+            public void accept(Integer v) throws Exception {
+                Integer k = v % 10;
+                Thread t = threads.putIfAbsent(k, Thread.currentThread());
+                if (t != null && t != Thread.currentThread()) {
+                    conflicts.add(k);
+                }
+                List<Integer> list = byKey.get(k);
+                if (list == null) {
+                    list = Collections.synchronizedList(new ArrayList<Integer>());
+                    List<Integer> prev = byKey.putIfAbsent(k, list);
+                    if (prev != null) {
+                        list = prev;
+                    }
+                }
+                list.add(v);
+            }
+        })
+        .sequential()
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(10000)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertTrue(conflicts.toString(), conflicts.isEmpty());
+        assertEquals(10, byKey.size());
+        for (Map.Entry<Integer, List<Integer>> e : byKey.entrySet()) {
+            List<Integer> list = e.getValue();
+            assertEquals(1000, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals(e.getKey() + i * 10, list.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void backpressure() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        @SuppressWarnings("unchecked")
+        TestSubscriber<Integer>[] ts = new TestSubscriber[] {
+                new TestSubscriber<Integer>(0L), new TestSubscriber<Integer>(0L)
+        };
+
+        pp.partitionOn(Schedulers.trampoline(), MOD_10, 2, 4).subscribe(ts);
+
+        assertTrue(pp.hasSubscribers());
+
+        for (int i = 0; i < 4; i++) {
+            pp.onNext(i * 10);
+        }
+        // the total prefetch has been used up by a single key
+        assertFalse(pp.offer(40));
+
+        ts[0].request(4);
+        ts[0].assertValues(0, 10, 20, 30);
+        ts[1].assertEmpty();
+
+        assertTrue(pp.offer(40));
+    }
+
+    @Test
+    public void error() {
+        Flowable.<Integer>error(new TestException())
+        .partitionOn(Schedulers.computation(), MOD_10, 2, 16)
+        .sequential()
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertFailure(TestException.class);
+    }
+
+    @Test
+    public void keySelectorCrash() {
+        Flowable.range(1, 5)
+        .partitionOn(Schedulers.computation(), new Function<Integer, Object>() {
+            @Override
+            public Object apply(Integer v) throws Exception {
+                if (v == 3) {
+                    throw new TestException();
+                }
+                return v;
+            }
+        }, 2, 16)
+        .sequential()
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertError(TestException.class)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void nullKey() {
+        Flowable.range(1, 5)
+        .partitionOn(Schedulers.computation(), new Function<Integer, Object>() {
+            @Override
+            public Object apply(Integer v) throws Exception {
+                return null;
+            }
+        }, 2, 16)
+        .sequential()
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertFailure(NullPointerException.class);
+    }
+
+    @Test
+    public void cancel() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp.partitionOn(Schedulers.computation(), MOD_10, 2, 16)
+        .sequential()
+        .test();
+
+        assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void railCancelDoesntStopOthers() {
+        Function<Integer, Integer> mod2 = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v % 2;
+            }
+        };
+
+        @SuppressWarnings("unchecked")
+        TestSubscriber<Integer>[] ts = new TestSubscriber[] {
+                new TestSubscriber<Integer>(1L), new TestSubscriber<Integer>()
+        };
+
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        pp.partitionOn(Schedulers.computation(), mod2, 2, 16).subscribe(ts);
+
+        pp.onNext(0);
+
+        ts[0].awaitCount(1).assertValue(0);
+        ts[0].cancel();
+
+        assertTrue(pp.hasSubscribers());
+
+        // the items routed to the cancelled rail don't use up the prefetch of the other
+        long end = System.currentTimeMillis() + 5000;
+        for (int i = 1; i < 1000; i++) {
+            while (!pp.offer(i)) {
+                assertTrue("Stuck at " + i, System.currentTimeMillis() < end);
+                Thread.yield();
+            }
+        }
+        pp.onComplete();
+
+        ts[1].awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(500)
+        .assertNoErrors()
+        .assertComplete();
+
+        ts[0].assertValue(0).assertNotTerminated();
+    }
+
+    @Test
+    public void allRailsCancelled() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        @SuppressWarnings("unchecked")
+        TestSubscriber<Integer>[] ts = new TestSubscriber[] {
+                new TestSubscriber<Integer>(), new TestSubscriber<Integer>()
+        };
+
+        pp.partitionOn(Schedulers.computation(), MOD_10, 2, 16).subscribe(ts);
+
+        ts[0].cancel();
+
+        assertTrue(pp.hasSubscribers());
+
+        ts[1].cancel();
+
+        assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void nonMultiWorkerScheduler() {
+        ExecutorService exec = Executors.newCachedThreadPool();
+        try {
+            Flowable.range(1, 1000)
+            .partitionOn(Schedulers.from(exec), MOD_10, 3, 32)
+            .sequential()
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1000)
+            .assertNoErrors()
+            .assertComplete();
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -47,7 +47,7 @@ import io.reactivex.internal.schedulers.ImmediateThinScheduler;
 import io.reactivex.internal.subscriptions.ScalarSubscription;
 import io.reactivex.observables.ConnectableObservable;
 import io.reactivex.parallel.ParallelFlowable;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.*;
 
 public class RxJavaPluginsTest {
 
@@ -263,6 +263,20 @@ public class RxJavaPluginsTest {
                         } else
                         if (paramType.isAssignableFrom(BooleanSupplier.class)) {
                             m.invoke(null, bs);
+                        } else
+                        if (paramType.isAssignableFrom(SchedulerInstrumentation.class)) {
+                            m.invoke(null, new RecordingInstrumentation());
+                        } else
+                        if (paramType.isAssignableFrom(CpuAccounting.class)) {
+                            m.invoke(null, new CpuAccounting());
+                        } else
+                        if (paramType.isAssignableFrom(SchedulerClock.class)) {
+                            m.invoke(null, new SchedulerClock() {
+                                @Override
+                                public long currentTimeMillis() {
+                                    return 0L;
+                                }
+                            });
                         } else {
                             m.invoke(null, f2);
                         }
@@ -364,6 +378,19 @@ public class RxJavaPluginsTest {
         assertNotSame(ImmediateThinScheduler.INSTANCE, Schedulers.newThread());
     }
 
+    @Test
+    public void overrideVirtualScheduler() {
+        try {
+            RxJavaPlugins.setVirtualSchedulerHandler(replaceWithImmediate);
+
+            assertSame(ImmediateThinScheduler.INSTANCE, Schedulers.virtual());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+        // make sure the reset worked
+        assertNotSame(ImmediateThinScheduler.INSTANCE, Schedulers.virtual());
+    }
+
     Function<Callable<Scheduler>, Scheduler> initReplaceWithImmediate = new Function<Callable<Scheduler>, Scheduler>() {
         @Override
         public Scheduler apply(Callable<Scheduler> t) {
@@ -451,6 +478,26 @@ public class RxJavaPluginsTest {
         assertSame(s, RxJavaPlugins.initNewThreadScheduler(c));
     }
 
+    @Test
+    public void overrideInitVirtualScheduler() {
+        final Scheduler s = Schedulers.virtual(); // make sure the Schedulers is initialized;
+        Callable<Scheduler> c = new Callable<Scheduler>() {
+            @Override
+            public Scheduler call() throws Exception {
+                return s;
+            }
+        };
+        try {
+            RxJavaPlugins.setInitVirtualSchedulerHandler(initReplaceWithImmediate);
+
+            assertSame(ImmediateThinScheduler.INSTANCE, RxJavaPlugins.initVirtualScheduler(c));
+        } finally {
+            RxJavaPlugins.reset();
+        }
+        // make sure the reset worked
+        assertSame(s, RxJavaPlugins.initVirtualScheduler(c));
+    }
+
     Callable<Scheduler> nullResultCallable = new Callable<Scheduler>() {
         @Override
         public Scheduler call() throws Exception {
@@ -1307,6 +1354,8 @@ public class RxJavaPluginsTest {
             RxJavaPlugins.setInitSingleSchedulerHandler(callable2scheduler);
             RxJavaPlugins.setInitNewThreadSchedulerHandler(callable2scheduler);
             RxJavaPlugins.setInitIoSchedulerHandler(callable2scheduler);
+            RxJavaPlugins.setVirtualSchedulerHandler(scheduler2scheduler);
+            RxJavaPlugins.setInitVirtualSchedulerHandler(callable2scheduler);
         } finally {
             RxJavaPlugins.reset();
         }
@@ -1502,6 +1551,8 @@ public class RxJavaPluginsTest {
 
             assertSame(s, RxJavaPlugins.onSingleScheduler(s));
 
+            assertSame(s, RxJavaPlugins.onVirtualScheduler(s));
+
             assertSame(s, RxJavaPlugins.initComputationScheduler(c));
 
             assertSame(s, RxJavaPlugins.initIoScheduler(c));
@@ -1510,6 +1561,8 @@ public class RxJavaPluginsTest {
 
             assertSame(s, RxJavaPlugins.initSingleScheduler(c));
 
+            assertSame(s, RxJavaPlugins.initVirtualScheduler(c));
+
         } finally {
             RxJavaPlugins.reset();
         }
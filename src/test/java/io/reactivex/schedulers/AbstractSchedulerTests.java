@@ -771,4 +771,280 @@ public abstract class AbstractSchedulerTests {
             assertEquals("run is null", npe.getMessage());
         }
     }
+
+    @Test
+    public void scheduleAll() throws Exception {
+        Scheduler.Worker w = getScheduler().createWorker();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(10);
+            Runnable[] tasks = new Runnable[10];
+            for (int i = 0; i < tasks.length; i++) {
+                final int j = i;
+                tasks[i] = new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(j);
+                        cdl.countDown();
+                    }
+                };
+            }
+
+            w.scheduleAll(tasks);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), list);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void scheduleAllIterable() throws Exception {
+        Scheduler.Worker w = getScheduler().createWorker();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(3);
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < 3; i++) {
+                final int j = i;
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(j);
+                        cdl.countDown();
+                    }
+                });
+            }
+
+            w.scheduleAll(tasks);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2), list);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void scheduleAllDisposed() throws Exception {
+        Scheduler s = getScheduler();
+        if (s instanceof TrampolineScheduler) {
+            // the tasks run before scheduleAll returns
+            return;
+        }
+        Scheduler.Worker w = s.createWorker();
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            final AtomicInteger count = new AtomicInteger();
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    count.getAndIncrement();
+                }
+            };
+
+            Disposable d = w.scheduleAll(new Runnable[] { task, task, task });
+
+            d.dispose();
+
+            final CountDownLatch cdl = new CountDownLatch(1);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            });
+
+            block.countDown();
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(0, count.get());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void scheduleAllNullTask() {
+        Scheduler.Worker w = getScheduler().createWorker();
+        try {
+            w.scheduleAll(new Runnable[] { Functions.EMPTY_RUNNABLE, null });
+            fail();
+        } catch (NullPointerException npe) {
+            assertEquals("The tasks array contains a null", npe.getMessage());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void reusableTaskReschedules() throws Exception {
+        final Scheduler.Worker w = getScheduler().createWorker();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            final AtomicReference<Scheduler.ReusableTask> ref = new AtomicReference<Scheduler.ReusableTask>();
+
+            Scheduler.ReusableTask task = w.createReusableTask(new Runnable() {
+                @Override
+                public void run() {
+                    if (count.incrementAndGet() == 100) {
+                        cdl.countDown();
+                    } else {
+                        ref.get().schedule();
+                    }
+                }
+            });
+            ref.set(task);
+
+            task.schedule();
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(100, count.get());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void reusableTaskHookPerSchedule() throws Exception {
+        Scheduler s = getScheduler();
+        if (s instanceof TrampolineScheduler) {
+            // the trampoline doesn't call the schedule hook
+            return;
+        }
+        final AtomicInteger hooks = new AtomicInteger();
+        RxJavaPlugins.setScheduleHandler(new Function<Runnable, Runnable>() {
+            @Override
+            public Runnable apply(Runnable r) throws Exception {
+                hooks.getAndIncrement();
+                return r;
+            }
+        });
+        final Scheduler.Worker w = s.createWorker();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            final AtomicInteger count = new AtomicInteger();
+            final AtomicReference<Scheduler.ReusableTask> ref = new AtomicReference<Scheduler.ReusableTask>();
+
+            Scheduler.ReusableTask task = w.createReusableTask(new Runnable() {
+                @Override
+                public void run() {
+                    if (count.incrementAndGet() == 10) {
+                        cdl.countDown();
+                    } else {
+                        ref.get().schedule();
+                    }
+                }
+            });
+            ref.set(task);
+
+            task.schedule();
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue("" + hooks.get(), hooks.get() >= 10);
+        } finally {
+            w.dispose();
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void reusableTaskDisposed() throws Exception {
+        Scheduler s = getScheduler();
+        if (s instanceof TrampolineScheduler) {
+            // the task runs before schedule returns
+            return;
+        }
+        Scheduler.Worker w = s.createWorker();
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            final AtomicInteger count = new AtomicInteger();
+            Scheduler.ReusableTask task = w.createReusableTask(new Runnable() {
+                @Override
+                public void run() {
+                    count.getAndIncrement();
+                }
+            });
+
+            task.schedule();
+            task.dispose();
+
+            assertTrue(task.isDisposed());
+
+            task.schedule();
+
+            final CountDownLatch cdl = new CountDownLatch(1);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            });
+
+            block.countDown();
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(0, count.get());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void reusableTaskOfDisposedWorker() throws Exception {
+        Scheduler.Worker w = getScheduler().createWorker();
+
+        final AtomicInteger count = new AtomicInteger();
+        Scheduler.ReusableTask task = w.createReusableTask(new Runnable() {
+            @Override
+            public void run() {
+                count.getAndIncrement();
+            }
+        });
+
+        w.dispose();
+
+        task.schedule();
+
+        Thread.sleep(100);
+
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void reusableTaskNull() {
+        Scheduler.Worker w = getScheduler().createWorker();
+        try {
+            w.createReusableTask(null);
+            fail();
+        } catch (NullPointerException npe) {
+            assertEquals("run is null", npe.getMessage());
+        } finally {
+            w.dispose();
+        }
+    }
 }
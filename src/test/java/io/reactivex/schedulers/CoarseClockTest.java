@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.plugins.RxJavaPlugins;
+
+public class CoarseClockTest {
+
+    static final SchedulerClock FIXED = new SchedulerClock() {
+        @Override
+        public long currentTimeMillis() {
+            return 1000L;
+        }
+    };
+
+    @Test(timeout = 5000)
+    public void refreshed() throws Exception {
+        CoarseClock clock = new CoarseClock(1, TimeUnit.MILLISECONDS);
+        try {
+            long t0 = clock.currentTimeMillis();
+
+            assertTrue(t0 <= System.currentTimeMillis());
+
+            while (clock.currentTimeMillis() == t0) {
+                Thread.sleep(1);
+            }
+
+            assertTrue(clock.currentTimeMillis() > t0);
+        } finally {
+            clock.dispose();
+        }
+    }
+
+    @Test
+    public void disposed() {
+        CoarseClock clock = new CoarseClock(1, TimeUnit.HOURS);
+
+        assertFalse(clock.isDisposed());
+
+        clock.dispose();
+
+        assertTrue(clock.isDisposed());
+        assertTrue(clock.executor.isShutdown());
+
+        long before = System.currentTimeMillis();
+        long t = clock.currentTimeMillis();
+        assertTrue(t >= before && t <= System.currentTimeMillis());
+
+        clock.dispose();
+
+        assertTrue(clock.isDisposed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveResolution() {
+        new CoarseClock(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void schedulersUseClock() {
+        RxJavaPlugins.setSchedulerClock(FIXED);
+        try {
+            Scheduler s = Schedulers.computation();
+
+            assertEquals(1000L, s.now(TimeUnit.MILLISECONDS));
+            assertEquals(1L, s.now(TimeUnit.SECONDS));
+
+            Worker w = s.createWorker();
+            try {
+                assertEquals(1000L, w.now(TimeUnit.MILLISECONDS));
+            } finally {
+                w.dispose();
+            }
+
+            Flowable.just(1)
+            .timestamp(Schedulers.single())
+            .test()
+            .assertResult(new Timed<Integer>(1, 1000L, TimeUnit.MILLISECONDS));
+
+            // overridden now() is not affected
+            assertEquals(0L, new TestScheduler().now(TimeUnit.MILLISECONDS));
+        } finally {
+            RxJavaPlugins.reset();
+        }
+
+        long before = System.currentTimeMillis();
+        long t = Schedulers.computation().now(TimeUnit.MILLISECONDS);
+        assertTrue(t >= before && t <= System.currentTimeMillis());
+    }
+}
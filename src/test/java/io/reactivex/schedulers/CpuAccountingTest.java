@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.CpuAccounting.Usage;
+
+public class CpuAccountingTest {
+
+    CpuAccounting accounting;
+
+    @Before
+    public void before() {
+        accounting = new CpuAccounting();
+        RxJavaPlugins.setCpuAccounting(accounting);
+    }
+
+    @After
+    public void after() {
+        RxJavaPlugins.reset();
+    }
+
+    static Function<Integer, String> recordTag(final List<String> tags) {
+        return new Function<Integer, String>() {
+            @Override
+            public String apply(Integer v) throws Exception {
+                tags.add(String.valueOf(CpuAccounting.currentTag()));
+                return "" + v;
+            }
+        };
+    }
+
+    /**
+     * The usage is added after the task returns, which may be after the consumer has seen the terminal event.
+     */
+    Usage awaitTasks(String tag, long tasks) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Usage u = accounting.usage(tag);
+            if (u != null && u.tasks() >= tasks) {
+                return u;
+            }
+            Thread.sleep(10);
+        }
+        return accounting.usage(tag);
+    }
+
+    @Test
+    public void observeOnAndSubscribeOn() throws Exception {
+        List<String> tags = Collections.synchronizedList(new ArrayList<String>());
+
+        Flowable.range(1, 100)
+        .subscribeOn(Schedulers.computation())
+        .observeOn(Schedulers.single())
+        .map(recordTag(tags))
+        .compose(CpuAccounting.<String>tag("pipeline"))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(100)
+        .assertComplete();
+
+        assertEquals(100, tags.size());
+        for (String t : tags) {
+            assertEquals("pipeline", t);
+        }
+
+        Usage u = awaitTasks("pipeline", 2);
+        assertNotNull(u);
+        assertTrue(u.toString(), u.tasks() >= 2);
+        assertTrue(u.toString(), u.wallNanos() > 0L);
+        assertTrue(u.toString(), u.cpuNanos() >= 0L);
+
+        assertEquals(Collections.singleton("pipeline"), accounting.usages().keySet());
+    }
+
+    @Test
+    public void timedCallback() throws Exception {
+        List<String> tags = Collections.synchronizedList(new ArrayList<String>());
+
+        Observable.timer(10, TimeUnit.MILLISECONDS, Schedulers.computation())
+        .map(new Function<Long, Integer>() {
+            @Override
+            public Integer apply(Long v) throws Exception {
+                return v.intValue();
+            }
+        })
+        .map(recordTag(tags))
+        .compose(CpuAccounting.<String>tag("timer"))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult("0");
+
+        assertEquals(Collections.singletonList("timer"), tags);
+        assertEquals(1L, awaitTasks("timer", 1).tasks());
+    }
+
+    @Test
+    public void nestedTasksInheritTag() throws Exception {
+        List<String> tags = Collections.synchronizedList(new ArrayList<String>());
+
+        Flowable.just(1)
+        .subscribeOn(Schedulers.io())
+        .delay(10, TimeUnit.MILLISECONDS, Schedulers.computation())
+        .map(recordTag(tags))
+        .compose(CpuAccounting.<String>tag("nested"))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult("1");
+
+        assertEquals(Collections.singletonList("nested"), tags);
+        assertTrue(awaitTasks("nested", 2).tasks() >= 2);
+    }
+
+    @Test
+    public void untaggedNotWrapped() {
+        Runnable r = Functions.EMPTY_RUNNABLE;
+
+        assertNull(CpuAccounting.currentTag());
+        assertSame(r, RxJavaPlugins.onSchedule(r));
+        assertTrue(accounting.usages().isEmpty());
+    }
+
+    @Test
+    public void disabledNotWrapped() {
+        RxJavaPlugins.setCpuAccounting(null);
+
+        Flowable.range(1, 10)
+        .observeOn(Schedulers.computation())
+        .compose(CpuAccounting.<Integer>tag("disabled"))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(10)
+        .assertComplete();
+
+        assertNull(accounting.usage("disabled"));
+    }
+
+    @Test
+    public void tagRestoredAfterSubscribe() {
+        Flowable.just(1)
+        .compose(CpuAccounting.<Integer>tag("outer"))
+        .test()
+        .assertResult(1);
+
+        assertNull(CpuAccounting.currentTag());
+    }
+
+    @Test
+    public void reset() {
+        Flowable.just(1)
+        .observeOn(Schedulers.single())
+        .compose(CpuAccounting.<Integer>tag("reset"))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(1);
+
+        assertNotNull(accounting.usage("reset"));
+
+        accounting.reset();
+
+        assertNull(accounting.usage("reset"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullTag() {
+        CpuAccounting.tag(null);
+    }
+}
@@ -16,7 +16,7 @@ package io.reactivex.schedulers;
 import static org.junit.Assert.*;
 
 import java.lang.management.*;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -579,4 +579,42 @@ public class ExecutorSchedulerTest extends AbstractSchedulerConcurrencyTests {
 
         assertSame(Functions.EMPTY_RUNNABLE, wrapper.getWrappedRunnable());
     }
+
+    @Test
+    public void drainBudget() throws Exception {
+        final ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(6);
+
+            exec.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Worker w = new ExecutorScheduler.ExecutorWorker(exec, false, false, new AtomicInteger(), new DrainBudget(2, 0));
+                    for (int i = 0; i < 5; i++) {
+                        final int j = i;
+                        w.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                list.add(j);
+                                cdl.countDown();
+                            }
+                        });
+                    }
+                    exec.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            list.add(-1);
+                            cdl.countDown();
+                        }
+                    });
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, -1, 2, 3, 4), list);
+        } finally {
+            exec.shutdownNow();
+        }
+    }
 }
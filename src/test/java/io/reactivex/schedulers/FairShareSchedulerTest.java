@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+
+public class FairShareSchedulerTest extends AbstractSchedulerConcurrencyTests {
+
+    @Override
+    protected Scheduler getScheduler() {
+        return new FairShareScheduler(Schedulers.computation(), 2);
+    }
+
+    static Runnable add(final List<String> list, final String value) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                list.add(value);
+            }
+        };
+    }
+
+    @Test(timeout = 5000)
+    public void weightedRoundRobin() throws InterruptedException {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            FairShareScheduler shared = new FairShareScheduler(Schedulers.from(exec), 1);
+            FairShareScheduler.Lane batch = shared.lane("batch", 1);
+            FairShareScheduler.Lane interactive = shared.lane("interactive", 3);
+
+            Worker bw = batch.createWorker();
+            Worker iw = interactive.createWorker();
+
+            final List<String> list = Collections.synchronizedList(new ArrayList<String>());
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch gate = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+
+            bw.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    list.add("b0");
+                    started.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i <= 4; i++) {
+                bw.schedule(add(list, "b" + i));
+            }
+            for (int i = 1; i <= 6; i++) {
+                iw.schedule(add(list, "i" + i));
+            }
+            bw.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+
+            assertEquals(5, batch.backlog());
+            assertEquals(6, interactive.backlog());
+
+            gate.countDown();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Arrays.asList("b0", "b1", "i1", "i2", "i3", "b2", "i4", "i5", "i6", "b3", "b4"), list);
+            assertEquals(0, batch.backlog());
+            assertEquals(0, interactive.backlog());
+
+            bw.dispose();
+            iw.dispose();
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void parallelismLimit() throws InterruptedException {
+        FairShareScheduler shared = new FairShareScheduler(Schedulers.io(), 2);
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final int n = 8;
+        final CountDownLatch cdl = new CountDownLatch(n);
+
+        List<Worker> workers = new ArrayList<Worker>();
+        for (int i = 0; i < n; i++) {
+            Worker w = shared.lane("lane" + (i % 3), 1 + i % 3).createWorker();
+            workers.add(w);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    int r = running.incrementAndGet();
+                    for (;;) {
+                        int m = max.get();
+                        if (r <= m || max.compareAndSet(m, r)) {
+                            break;
+                        }
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    running.decrementAndGet();
+                    cdl.countDown();
+                }
+            });
+        }
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        assertTrue("" + max.get(), max.get() <= 2);
+
+        for (Worker w : workers) {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void delayedTaskEntersLane() throws InterruptedException {
+        FairShareScheduler shared = new FairShareScheduler(Schedulers.computation(), 1);
+        Worker w = shared.lane("delayed", 2).createWorker();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void disposedWorkerDropsQueuedTasks() throws InterruptedException {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            FairShareScheduler shared = new FairShareScheduler(Schedulers.from(exec), 1);
+            FairShareScheduler.Lane lane = shared.lane("lane", 1);
+            final Worker w = lane.createWorker();
+
+            final List<String> list = Collections.synchronizedList(new ArrayList<String>());
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch gate = new CountDownLatch(1);
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            });
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            w.schedule(add(list, "dropped"));
+            w.dispose();
+
+            final CountDownLatch done = new CountDownLatch(1);
+            Worker other = lane.createWorker();
+            other.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+
+            gate.countDown();
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(list.isEmpty());
+            assertEquals(0, lane.backlog());
+
+            other.dispose();
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void laneLookup() {
+        FairShareScheduler shared = new FairShareScheduler(Schedulers.computation(), 1);
+
+        FairShareScheduler.Lane lane = shared.lane("a", 2);
+
+        assertSame(lane, shared.lane("a", 2));
+        assertEquals("a", lane.name());
+        assertEquals(2, lane.weight());
+        assertEquals(1, shared.parallelism());
+
+        assertEquals(Arrays.asList(FairShareScheduler.DEFAULT_LANE, "a"),
+                Arrays.asList(shared.lanes().get(0).name(), shared.lanes().get(1).name()));
+
+        try {
+            shared.lane("a", 3);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
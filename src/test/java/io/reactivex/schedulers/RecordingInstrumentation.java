@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import java.util.*;
+
+/**
+ * Records the events of a {@link SchedulerInstrumentation} as strings and keeps the last reported times.
+ */
+public final class RecordingInstrumentation implements SchedulerInstrumentation {
+
+    public final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    public final List<Integer> queueDepths = Collections.synchronizedList(new ArrayList<Integer>());
+
+    public volatile long lastDue;
+
+    public volatile long lastStart;
+
+    public volatile long lastEnd;
+
+    @Override
+    public void onEnqueue(Object eventLoop, Runnable task, long dueNanos, int queueDepth) {
+        lastDue = dueNanos;
+        queueDepths.add(queueDepth);
+        events.add("enqueue");
+    }
+
+    @Override
+    public void onStart(Object eventLoop, Runnable task, long dueNanos, long startNanos) {
+        lastStart = startNanos;
+        events.add("start");
+    }
+
+    @Override
+    public void onEnd(Object eventLoop, Runnable task, long startNanos, long endNanos) {
+        lastEnd = endNanos;
+        events.add("end");
+    }
+
+    @Override
+    public void onRejected(Object eventLoop, Runnable task) {
+        events.add("rejected");
+    }
+
+    @Override
+    public void onDisposed(Object eventLoop, Runnable task) {
+        events.add("disposed");
+    }
+
+    public int count(String event) {
+        int c = 0;
+        synchronized (events) {
+            for (String e : events) {
+                if (e.equals(event)) {
+                    c++;
+                }
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.internal.schedulers.SingleScheduler;
+import io.reactivex.plugins.RxJavaPlugins;
+
+public class SchedulerInstrumentationTest {
+
+    RecordingInstrumentation ri;
+
+    @Before
+    public void before() {
+        ri = new RecordingInstrumentation();
+        RxJavaPlugins.setSchedulerInstrumentation(ri);
+    }
+
+    @After
+    public void after() {
+        RxJavaPlugins.reset();
+    }
+
+    static void await(RecordingInstrumentation ri, String event, int count) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (ri.count(event) >= count) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Timeout waiting for " + count + " " + event + ": " + ri.events);
+    }
+
+    @Test
+    public void computationTaskLifecycle() throws Exception {
+        Worker w = Schedulers.computation().createWorker();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            await(ri, "end", 1);
+
+            assertEquals("[enqueue, start, end]", ri.events.toString());
+            assertTrue(ri.lastStart >= ri.lastDue);
+            assertTrue(ri.lastEnd >= ri.lastStart);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void disposedDelayedTask() throws Exception {
+        Worker w = Schedulers.newThread().createWorker();
+        try {
+            Disposable d = w.schedule(Functions.EMPTY_RUNNABLE, 1, TimeUnit.HOURS);
+
+            d.dispose();
+            d.dispose();
+
+            assertEquals("[enqueue, disposed]", ri.events.toString());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test
+    public void periodicDirectTask() throws Exception {
+        Scheduler s = new SingleScheduler();
+        try {
+            final CountDownLatch cdl = new CountDownLatch(3);
+            Disposable d = s.schedulePeriodicallyDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 0, 1, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            await(ri, "end", 3);
+
+            d.dispose();
+            d.dispose();
+
+            assertEquals(1, ri.count("disposed"));
+            assertTrue(ri.count("enqueue") >= 3);
+            assertEquals(0, ri.count("rejected"));
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectedAfterShutdown() {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable e) {
+                errors.add(e);
+            }
+        });
+        Scheduler s = new SingleScheduler();
+        Worker w = s.createWorker();
+        s.shutdown();
+
+        w.schedule(Functions.EMPTY_RUNNABLE);
+
+        assertEquals("[enqueue, rejected]", ri.events.toString());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void executorQueueDepth() throws Exception {
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+            exec.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await();
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            });
+
+            Worker w = Schedulers.from(exec).createWorker();
+
+            w.schedule(Functions.EMPTY_RUNNABLE);
+            w.schedule(Functions.EMPTY_RUNNABLE);
+            w.schedule(Functions.EMPTY_RUNNABLE);
+
+            assertEquals("[1, 2, 3]", ri.queueDepths.toString());
+
+            w.dispose();
+            block.countDown();
+
+            await(ri, "disposed", 3);
+
+            assertEquals(0, ri.count("start"));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    @Test
+    public void noEventsWithoutInstrumentation() throws Exception {
+        RxJavaPlugins.setSchedulerInstrumentation(null);
+
+        final CountDownLatch cdl = new CountDownLatch(1);
+        Schedulers.single().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        });
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+        assertTrue(ri.events.toString(), ri.events.isEmpty());
+    }
+}
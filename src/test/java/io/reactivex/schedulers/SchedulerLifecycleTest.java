@@ -64,7 +64,7 @@ public class SchedulerLifecycleTest {
     }
 
     private void tryOutSchedulers() throws InterruptedException {
-        final CountDownLatch cdl = new CountDownLatch(4);
+        final CountDownLatch cdl = new CountDownLatch(5);
 
         final Runnable countAction = new Runnable() {
             @Override
@@ -92,6 +92,10 @@ public class SchedulerLifecycleTest {
             cd.add(w4);
             w4.schedule(countAction);
 
+            Worker w5 = Schedulers.virtual().createWorker();
+            cd.add(w5);
+            w5.schedule(countAction);
+
             if (!cdl.await(3, TimeUnit.SECONDS)) {
                 fail("countAction was not run by every worker");
             }
@@ -285,6 +285,14 @@ public class SchedulerTest {
         assertNotNull(new Schedulers.SingleHolder());
     }
 
+    @Test
+    public void availableProcessors() {
+        int n = Schedulers.availableProcessors();
+
+        assertTrue("" + n, n >= 1);
+        assertTrue("" + n, n <= Runtime.getRuntime().availableProcessors());
+    }
+
     static final class CustomScheduler extends Scheduler {
 
         @Override
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.functions.Consumer;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class SelectorSchedulerTest extends AbstractSchedulerConcurrencyTests {
+
+    static SelectorScheduler shared;
+
+    @BeforeClass
+    public static void beforeClass() {
+        shared = new SelectorScheduler(2);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        shared.shutdown();
+    }
+
+    @Override
+    protected Scheduler getScheduler() {
+        return shared;
+    }
+
+    ServerSocketChannel server;
+
+    SocketChannel client;
+
+    SocketChannel accepted;
+
+    void connect() throws IOException {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+        client = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.socket().getLocalPort()));
+        accepted = server.accept();
+    }
+
+    @After
+    public void after() throws IOException {
+        if (accepted != null) {
+            accepted.close();
+        }
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void readOnSelectorThread() throws Exception {
+        connect();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CountDownLatch cdl = new CountDownLatch(1);
+
+        TestSubscriber<Integer> ts = shared.readiness(accepted, SelectionKey.OP_READ)
+        .doOnNext(new Consumer<Integer>() {
+            @Override
+            public void accept(Integer ops) throws Exception {
+                threads.add(Thread.currentThread());
+                accepted.read(buffer);
+                if (buffer.position() == 5) {
+                    cdl.countDown();
+                }
+            }
+        })
+        .test();
+
+        client.write(ByteBuffer.wrap("hello".getBytes("UTF-8")));
+
+        assertTrue(cdl.await(5, TimeUnit.SECONDS));
+
+        assertEquals("hello", new String(buffer.array(), 0, 5, "UTF-8"));
+        for (Thread t : threads) {
+            assertTrue(t.getName(), t.getName().startsWith(SelectorScheduler.THREAD_NAME_PREFIX));
+        }
+        // the latch is counted down in doOnNext, before the value reaches the TestSubscriber
+        ts.awaitCount(1);
+        ts.assertValueAt(0, SelectionKey.OP_READ);
+
+        ts.cancel();
+    }
+
+    @Test(timeout = 5000)
+    public void noSelectionWithoutRequest() throws Exception {
+        connect();
+
+        TestSubscriber<Integer> ts = shared.readiness(accepted, SelectionKey.OP_READ).test(0L);
+
+        client.write(ByteBuffer.wrap(new byte[] { 1 }));
+
+        Thread.sleep(100);
+
+        ts.assertEmpty();
+
+        ts.request(1);
+
+        ts.awaitCount(1);
+        ts.assertValue(SelectionKey.OP_READ);
+
+        // level-triggered, but no more requests
+        Thread.sleep(100);
+        ts.assertValueCount(1);
+
+        ts.cancel();
+    }
+
+    @Test(timeout = 5000)
+    public void cancelDeregisters() throws Exception {
+        connect();
+
+        TestSubscriber<Integer> ts = shared.readiness(accepted, SelectionKey.OP_WRITE).test(1L);
+
+        ts.awaitCount(1);
+        ts.cancel();
+
+        for (;;) {
+            Thread.sleep(10);
+            if (!accepted.isRegistered()) {
+                break;
+            }
+        }
+
+        // the channel can be used in blocking mode again once deregistered
+        accepted.configureBlocking(true);
+        assertTrue(accepted.isBlocking());
+    }
+
+    @Test(timeout = 5000)
+    public void closedChannelCompletes() throws Exception {
+        connect();
+
+        TestSubscriber<Integer> ts = shared.readiness(accepted, SelectionKey.OP_READ).test(0L);
+
+        for (;;) {
+            Thread.sleep(10);
+            if (accepted.isRegistered()) {
+                break;
+            }
+        }
+
+        accepted.close();
+
+        ts.request(1);
+
+        ts.awaitDone(5, TimeUnit.SECONDS)
+        .assertResult();
+    }
+
+    @Test(timeout = 5000)
+    public void shutdownCompletes() throws Exception {
+        connect();
+
+        SelectorScheduler s = new SelectorScheduler(1);
+
+        TestSubscriber<Integer> ts = s.readiness(accepted, SelectionKey.OP_READ).test();
+
+        for (;;) {
+            Thread.sleep(10);
+            if (accepted.isRegistered()) {
+                break;
+            }
+        }
+
+        s.shutdown();
+
+        ts.awaitDone(5, TimeUnit.SECONDS)
+        .assertResult();
+
+        assertTrue(s.isDisposed());
+
+        s.readiness(accepted, SelectionKey.OP_READ).test()
+        .assertFailure(RejectedExecutionException.class);
+    }
+
+    @Test(timeout = 5000)
+    public void delayedTasksInOrder() throws Exception {
+        Worker w = shared.createWorker();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(3);
+
+            for (final int delay : new int[] { 60, 20, 40 }) {
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(delay);
+                        cdl.countDown();
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(20, 40, 60), list);
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void runsOnCurrentThread() throws Exception {
+        final Worker w = shared.createWorker();
+        try {
+            final boolean[] inside = { false };
+            final CountDownLatch cdl = new CountDownLatch(1);
+
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    inside[0] = w.runsOnCurrentThread();
+                    cdl.countDown();
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue(inside[0]);
+            assertFalse(w.runsOnCurrentThread());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidInterestOps() throws Exception {
+        connect();
+
+        shared.readiness(accepted, SelectionKey.OP_ACCEPT);
+    }
+}
@@ -134,6 +134,32 @@ public class TrampolineSchedulerTest extends AbstractSchedulerTests {
         ts.assertNoErrors();
     }
 
+    @Test
+    public void dueTimedTaskRunsBeforeLaterImmediateTask() {
+        final Worker worker = Schedulers.trampoline().createWorker();
+        final ArrayList<String> workDone = new ArrayList<String>();
+        try {
+            worker.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    workDone.add("A");
+                    worker.schedule(createPrintAction("B", workDone), 10, TimeUnit.MILLISECONDS);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    // B is due by now, C has a later execution time
+                    worker.schedule(createPrintAction("C", workDone));
+                }
+            });
+
+            assertEquals(Arrays.asList("A", "B", "C"), workDone);
+        } finally {
+            worker.dispose();
+        }
+    }
+
     private static Worker doWorkOnNewTrampoline(final String key, final ArrayList<String> workDone) {
         Worker worker = Schedulers.trampoline().createWorker();
         worker.schedule(new Runnable() {
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.Test;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.internal.schedulers.VirtualThreadScheduler;
+import io.reactivex.plugins.RxJavaPlugins;
+
+public class VirtualThreadSchedulerTest extends AbstractSchedulerConcurrencyTests {
+
+    @Override
+    protected Scheduler getScheduler() {
+        return Schedulers.virtual();
+    }
+
+    @Test(timeout = 5000)
+    public void workerRunsTasksInOrderOneAtATime() throws InterruptedException {
+        Worker w = Schedulers.virtual().createWorker();
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicBoolean overlap = new AtomicBoolean();
+            final CountDownLatch cdl = new CountDownLatch(1);
+            final int n = 1000;
+
+            for (int i = 0; i < n; i++) {
+                final int j = i;
+                w.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (running.getAndIncrement() != 0) {
+                            overlap.set(true);
+                        }
+                        list.add(j);
+                        running.decrementAndGet();
+                        if (j == n - 1) {
+                            cdl.countDown();
+                        }
+                    }
+                });
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertFalse(overlap.get());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i, list.get(i).intValue());
+            }
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void threadName() throws InterruptedException {
+        final AtomicReference<String> name = new AtomicReference<String>();
+        final CountDownLatch cdl = new CountDownLatch(1);
+        Worker w = Schedulers.virtual().createWorker();
+        try {
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    name.set(Thread.currentThread().getName());
+                    cdl.countDown();
+                }
+            });
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue(name.get(), name.get().startsWith("RxVirtualThreadScheduler"));
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void delayedWorkerTask() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        final AtomicLong end = new AtomicLong();
+        Worker w = Schedulers.virtual().createWorker();
+        try {
+            long start = System.nanoTime();
+            w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    end.set(System.nanoTime());
+                    cdl.countDown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue(end.get() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void delayedWorkerTaskDisposed() throws InterruptedException {
+        final AtomicBoolean run = new AtomicBoolean();
+        Worker w = Schedulers.virtual().createWorker();
+        try {
+            Disposable d = w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    run.set(true);
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            d.dispose();
+
+            Thread.sleep(150);
+
+            assertFalse(run.get());
+        } finally {
+            w.dispose();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void periodicDirect() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(3);
+        Disposable d = Schedulers.virtual().schedulePeriodicallyDirect(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        }, 10, 10, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            d.dispose();
+        }
+        assertTrue(d.isDisposed());
+    }
+
+    @Test(timeout = 5000)
+    public void shutdownAndRestart() throws InterruptedException {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable e) throws Exception {
+                errors.add(e);
+            }
+        });
+        VirtualThreadScheduler s = new VirtualThreadScheduler();
+        try {
+            s.shutdown();
+
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+
+            assertEquals(1, errors.size());
+            assertTrue(errors.get(0).toString(), errors.get(0).getCause() instanceof RejectedExecutionException);
+
+            s.start();
+
+            final CountDownLatch cdl = new CountDownLatch(1);
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+        } finally {
+            s.shutdown();
+            RxJavaPlugins.reset();
+        }
+    }
+}
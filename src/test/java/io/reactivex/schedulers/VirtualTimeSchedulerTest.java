@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2016-present, RxJava Contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+
+package io.reactivex.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.*;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class VirtualTimeSchedulerTest {
+
+    static Runnable add(final List<Integer> list, final int value) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                list.add(value);
+            }
+        };
+    }
+
+    @Test
+    public void initialTime() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler(5, TimeUnit.SECONDS);
+
+        assertEquals(5000L, s.now(TimeUnit.MILLISECONDS));
+        assertEquals(5L, s.createWorker().now(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void orderByTimeThenScheduling() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        Worker w = s.createWorker();
+        List<Integer> list = new ArrayList<Integer>();
+
+        w.schedule(add(list, 3), 2, TimeUnit.SECONDS);
+        w.schedule(add(list, 1), 1, TimeUnit.SECONDS);
+        s.scheduleDirect(add(list, 4), 2, TimeUnit.SECONDS);
+        w.schedule(add(list, 0));
+        s.scheduleDirect(add(list, 2), 1, TimeUnit.SECONDS);
+
+        s.advanceTimeTo(1, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(0, 1, 2), list);
+
+        s.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), list);
+        assertEquals(0, s.queueSize());
+    }
+
+    @Test
+    public void clockAtTaskTime() {
+        final VirtualTimeScheduler s = new VirtualTimeScheduler();
+        final List<Long> times = new ArrayList<Long>();
+
+        for (int i = 3; i >= 1; i--) {
+            s.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    times.add(s.now(TimeUnit.MILLISECONDS));
+                }
+            }, i * 10, TimeUnit.MILLISECONDS);
+        }
+
+        s.advanceTimeTo(1, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(10L, 20L, 30L), times);
+        assertEquals(1000L, s.now(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void immediateFromDelayedRunsAtSameTime() {
+        final VirtualTimeScheduler s = new VirtualTimeScheduler();
+        final List<Integer> list = new ArrayList<Integer>();
+
+        s.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                list.add(1);
+                s.scheduleDirect(add(list, 3));
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        s.scheduleDirect(add(list, 2), 10, TimeUnit.MILLISECONDS);
+        s.scheduleDirect(add(list, 4), 20, TimeUnit.MILLISECONDS);
+
+        s.advanceTimeTo(10, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList(1, 2, 3), list);
+
+        s.advanceTimeTo(20, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), list);
+    }
+
+    @Test
+    public void clockNeverMovesBackwards() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        List<Integer> list = new ArrayList<Integer>();
+
+        s.advanceTimeTo(10, TimeUnit.SECONDS);
+
+        s.scheduleDirect(add(list, 1));
+
+        s.advanceTimeTo(5, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(1), list);
+        assertEquals(10L, s.now(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancel() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        List<Integer> list = new ArrayList<Integer>();
+
+        Disposable d1 = s.scheduleDirect(add(list, 1));
+        Disposable d2 = s.scheduleDirect(add(list, 2), 1, TimeUnit.SECONDS);
+        s.scheduleDirect(add(list, 3), 1, TimeUnit.SECONDS);
+
+        d1.dispose();
+        d2.dispose();
+
+        assertTrue(d1.isDisposed());
+        assertTrue(d2.isDisposed());
+
+        s.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(3), list);
+        assertEquals(0, s.queueSize());
+    }
+
+    @Test
+    public void purgeCancelled() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        List<Integer> list = new ArrayList<Integer>();
+        List<Disposable> ds = new ArrayList<Disposable>();
+
+        for (int i = 0; i < 1000; i++) {
+            ds.add(s.scheduleDirect(add(list, i), 1000 - i, TimeUnit.MILLISECONDS));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 != 0) {
+                ds.get(i).dispose();
+            }
+        }
+
+        assertTrue(s.queueSize() < 1000);
+
+        s.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(100, list.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(990 - i * 10, list.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void disposedWorker() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        Worker w = s.createWorker();
+        List<Integer> list = new ArrayList<Integer>();
+
+        w.schedule(add(list, 1), 1, TimeUnit.SECONDS);
+
+        w.dispose();
+
+        assertTrue(w.isDisposed());
+        assertTrue(w.schedule(add(list, 2)).isDisposed());
+
+        s.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void periodic() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+        final List<Long> list = new ArrayList<Long>();
+
+        Disposable d = Flowable.interval(1, TimeUnit.SECONDS, s)
+        .subscribe(new Consumer<Long>() {
+            @Override
+            public void accept(Long v) throws Exception {
+                list.add(v);
+            }
+        });
+
+        s.advanceTimeBy(3, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(0L, 1L, 2L), list);
+
+        d.dispose();
+
+        s.advanceTimeBy(10, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList(0L, 1L, 2L), list);
+    }
+
+    @Test
+    public void replay() {
+        VirtualTimeScheduler s = new VirtualTimeScheduler();
+
+        Flowable<Timed<Integer>> recorded = Flowable.just(
+                new Timed<Integer>(1, 100, TimeUnit.MILLISECONDS),
+                new Timed<Integer>(2, 900, TimeUnit.MILLISECONDS),
+                new Timed<Integer>(3, 1100, TimeUnit.MILLISECONDS),
+                new Timed<Integer>(4, 2500, TimeUnit.MILLISECONDS)
+        );
+
+        s.replay(recorded)
+        .buffer(1, TimeUnit.SECONDS, s)
+        .test()
+        .assertResult(Arrays.asList(1, 2), Arrays.asList(3), Arrays.asList(4));
+
+        assertEquals(2500L, s.now(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void replaySubscribedFromTask() {
+        final VirtualTimeScheduler s = new VirtualTimeScheduler();
+
+        final Flowable<Timed<Integer>> recorded = Flowable.fromIterable(Arrays.asList(
+                new Timed<Integer>(1, 100, TimeUnit.MILLISECONDS),
+                new Timed<Integer>(2, 1100, TimeUnit.MILLISECONDS)
+        ));
+
+        final TestSubscriber<List<Integer>> ts = new TestSubscriber<List<Integer>>();
+
+        s.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                s.replay(recorded)
+                .buffer(1, TimeUnit.SECONDS, s)
+                .subscribe(ts);
+
+                ts.assertEmpty();
+            }
+        });
+
+        s.triggerActions();
+
+        ts.assertResult(Arrays.asList(1), Arrays.asList(2));
+    }
+
+    @Test
+    public void throughput() {
+        final VirtualTimeScheduler s = new VirtualTimeScheduler();
+        final long[] count = { 0 };
+
+        Flowable.range(0, 100000)
+        .concatMap(new Function<Integer, Flowable<Integer>>() {
+            @Override
+            public Flowable<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v).delay(v % 100, TimeUnit.MILLISECONDS, s);
+            }
+        })
+        .subscribe(new Consumer<Integer>() {
+            @Override
+            public void accept(Integer v) throws Exception {
+                count[0]++;
+            }
+        });
+
+        while (s.queueSize() != 0) {
+            s.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(100000L, count[0]);
+    }
+}